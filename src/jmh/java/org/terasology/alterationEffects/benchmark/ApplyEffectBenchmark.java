@@ -0,0 +1,71 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.alterationEffects.AlterationEffect;
+import org.terasology.alterationEffects.AlterationEffects;
+import org.terasology.alterationEffects.harness.EffectHarness;
+import org.terasology.alterationEffects.harness.Workloads;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures applying a single effect to a single entity, for each effect type of this module.
+ * <p>
+ * The effect is applied to the entities of a fixed population in turn, so that each application updates an effect
+ * that is already present and reschedules its expiration, which is the common case in the game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ApplyEffectBenchmark {
+    private static final int ENTITIES = 1024;
+    private static final long DURATION = 5000;
+
+    @Param({AlterationEffects.WALK_SPEED, AlterationEffects.SWIM_SPEED, AlterationEffects.JUMP_SPEED,
+            AlterationEffects.ITEM_USE_SPEED, AlterationEffects.MULTI_JUMP, AlterationEffects.STUN,
+            AlterationEffects.GLUE, AlterationEffects.WATER_BREATHING, AlterationEffects.REGENERATION,
+            AlterationEffects.DECOVER, AlterationEffects.DAMAGE_OVER_TIME, AlterationEffects.BUFF_DAMAGE,
+            AlterationEffects.RESIST_DAMAGE, AlterationEffects.MAX_HEALTH_BOOST})
+    public String effectType;
+
+    private EffectHarness harness;
+    private AlterationEffect effect;
+    private String id;
+    private EntityRef[] entities;
+    private int next;
+
+    @Setup
+    public void setup() {
+        harness = new EffectHarness();
+        effect = harness.getEffect(effectType);
+        id = Workloads.idOf(effectType);
+        entities = new EntityRef[ENTITIES];
+        for (int i = 0; i < ENTITIES; i++) {
+            entities[i] = harness.createCharacter(100);
+            effect.applyEffect(entities[i], entities[i], id, 2, DURATION);
+        }
+    }
+
+    @Benchmark
+    public void apply() {
+        final EntityRef entity = entities[next];
+        next = (next + 1) % ENTITIES;
+        effect.applyEffect(entity, entity, id, 2, DURATION);
+    }
+}
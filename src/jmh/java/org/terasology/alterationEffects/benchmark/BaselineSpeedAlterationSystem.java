@@ -0,0 +1,59 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.benchmark;
+
+import org.terasology.alterationEffects.speed.GlueComponent;
+import org.terasology.alterationEffects.speed.JumpSpeedComponent;
+import org.terasology.alterationEffects.speed.MultiJumpComponent;
+import org.terasology.alterationEffects.speed.StunComponent;
+import org.terasology.alterationEffects.speed.SwimSpeedComponent;
+import org.terasology.alterationEffects.speed.WalkSpeedComponent;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.logic.characters.AffectJumpForceEvent;
+import org.terasology.engine.logic.characters.AffectMultiJumpEvent;
+import org.terasology.engine.logic.characters.GetMaxSpeedEvent;
+import org.terasology.engine.logic.characters.MovementMode;
+
+/**
+ * The movement event handlers of the {@code SpeedAlterationSystem} before the {@code MovementModifiersComponent}
+ * snapshot was introduced, which look up each speed and movement-related effect component of the entity per event.
+ * <p>
+ * Only used as the baseline of the {@link MovementEventBenchmark}, so it is not registered and the handlers are called
+ * directly.
+ */
+public class BaselineSpeedAlterationSystem extends BaseComponentSystem {
+    public void modifySpeed(GetMaxSpeedEvent event, EntityRef entityRef) {
+        if (entityRef.hasComponent(StunComponent.class)) {
+            event.multiply(0);
+        } else if (event.getMovementMode() == MovementMode.WALKING
+                && entityRef.hasComponent(WalkSpeedComponent.class)) {
+            event.multiply(entityRef.getComponent(WalkSpeedComponent.class).multiplier);
+        } else if (event.getMovementMode() == MovementMode.SWIMMING
+                && entityRef.hasComponent(SwimSpeedComponent.class)) {
+            event.multiply(entityRef.getComponent(SwimSpeedComponent.class).multiplier);
+        }
+
+        if (entityRef.hasComponent(GlueComponent.class)) {
+            event.multiply(0.9f);
+        }
+    }
+
+    public void modifyJumpSpeed(AffectJumpForceEvent event, EntityRef entityRef) {
+        if (entityRef.hasComponent(StunComponent.class)) {
+            event.multiply(0);
+        } else if (entityRef.hasComponent(JumpSpeedComponent.class)) {
+            event.multiply(entityRef.getComponent(JumpSpeedComponent.class).multiplier);
+        }
+
+        if (entityRef.hasComponent(GlueComponent.class)) {
+            event.multiply(0);
+        }
+    }
+
+    public void modifyMultiJump(AffectMultiJumpEvent event, EntityRef entityRef) {
+        if (entityRef.hasComponent(MultiJumpComponent.class)) {
+            event.multiply(entityRef.getComponent(MultiJumpComponent.class).multiplier);
+        }
+    }
+}
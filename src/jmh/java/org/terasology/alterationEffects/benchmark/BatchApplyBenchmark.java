@@ -0,0 +1,73 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.alterationEffects.AlterationEffect;
+import org.terasology.alterationEffects.AlterationEffects;
+import org.terasology.alterationEffects.harness.EffectHarness;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares applying an effect to all targets of an area-of-effect with a single batch call against calling the
+ * single-entity method for each target.
+ * <p>
+ * Each operation is one area-of-effect application. With {@code modifiers} set, every target gets a modifier from a
+ * contributing system, so that no target takes the path for unmodified effects.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BatchApplyBenchmark {
+    private static final long DURATION = 5000;
+
+    @Param({"1", "30", "300"})
+    public int targets;
+
+    @Param({"0", "1"})
+    public int modifiers;
+
+    private AlterationEffect effect;
+    private EntityRef instigator;
+    private List<EntityRef> targetList;
+
+    @Setup
+    public void setup() {
+        EffectHarness harness = new EffectHarness(new ModifierContributorSystem(modifiers));
+        effect = harness.getEffect(AlterationEffects.WALK_SPEED);
+        instigator = harness.createCharacter(100);
+        targetList = new ArrayList<>(targets);
+        for (int i = 0; i < targets; i++) {
+            targetList.add(harness.createCharacter(100));
+        }
+    }
+
+    @Benchmark
+    public void singleEntityLoop() {
+        for (EntityRef target : targetList) {
+            effect.applyEffect(instigator, target, "", 2, DURATION);
+        }
+    }
+
+    @Benchmark
+    public void batch() {
+        effect.applyEffect(instigator, targetList, "", 2, DURATION);
+    }
+}
@@ -0,0 +1,77 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.alterationEffects.AlterationEffect;
+import org.terasology.alterationEffects.AlterationEffects;
+import org.terasology.alterationEffects.harness.EffectHarness;
+import org.terasology.alterationEffects.harness.Workloads;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.module.health.events.BeforeDamagedEvent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link BeforeDamagedEvent} handler chain of an entity with a varying number of damage buffs and
+ * resistances, half of which match the damage type.
+ * <p>
+ * {@code damage} sends the event to an entity whose damage modifiers did not change since the last damage, which is
+ * the common case. {@code damageAfterChange} re-applies one of the resistances before each damage, so that the
+ * damage modifiers of the entity are collected again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DamageHandlerBenchmark {
+    private static final long DURATION = 60_000;
+
+    @Param({"0", "2", "8"})
+    public int modifiers;
+
+    private AlterationEffect resistEffect;
+    private Prefab damageType;
+    private EntityRef entity;
+
+    @Setup
+    public void setup() {
+        EffectHarness harness = new EffectHarness();
+        resistEffect = harness.getEffect(AlterationEffects.RESIST_DAMAGE);
+        AlterationEffect buffEffect = harness.getEffect(AlterationEffects.BUFF_DAMAGE);
+        damageType = harness.getDamageType(EffectHarness.DAMAGE_TYPES.get(0));
+        entity = harness.createCharacter(100);
+        for (int i = 0; i < modifiers; i++) {
+            final String id = i % 2 == 0 ? Workloads.DAMAGE_TYPE_ID : "OtherDamage" + i;
+            AlterationEffect effect = i % 4 < 2 ? resistEffect : buffEffect;
+            effect.applyEffect(entity, entity, id, 1 + i, DURATION);
+        }
+        // Collect the damage modifiers of the entity before measuring.
+        damage();
+    }
+
+    @Benchmark
+    public float damage() {
+        BeforeDamagedEvent event = entity.send(new BeforeDamagedEvent(20, damageType, entity, entity));
+        return event.isConsumed() ? 0 : event.getResultValue();
+    }
+
+    @Benchmark
+    public float damageAfterChange() {
+        resistEffect.applyEffect(entity, entity, Workloads.DAMAGE_TYPE_ID, 1, DURATION);
+        return damage();
+    }
+}
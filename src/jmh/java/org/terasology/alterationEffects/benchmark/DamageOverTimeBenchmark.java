@@ -0,0 +1,91 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.alterationEffects.damageOverTime.DamageOverTimeAuthoritySystem;
+import org.terasology.alterationEffects.damageOverTime.DamageOverTimeComponent;
+import org.terasology.alterationEffects.damageOverTime.DamageOverTimeEffect;
+import org.terasology.alterationEffects.harness.EffectHarness;
+import org.terasology.alterationEffects.harness.SimulatedClock;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single update of the {@link DamageOverTimeAuthoritySystem} with a varying number of entities, DOT effects
+ * per entity, and frame lengths.
+ * <p>
+ * The DOT effects never expire and have their last damage spread evenly over a damage tick of one second, so that
+ * about {@code frameMs / 1000} of them are due in each frame, and all of them with frames of a second or longer.
+ * Their damage is dealt through the health stand-in, so it includes the {@code BeforeDamagedEvent} handlers of this
+ * module. Each operation is one frame; divide by {@code entities} for the time per entity and frame. Run with
+ * {@code -prof gc} for the allocations per frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DamageOverTimeBenchmark {
+    private static final int DAMAGE_TICK = 1000;
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int entities;
+
+    @Param({"1", "2", "4", "8"})
+    public int dots;
+
+    @Param({"16", "100", "1000"})
+    public long frameMs;
+
+    private SimulatedClock clock;
+    private DamageOverTimeAuthoritySystem damageOverTimeSystem;
+
+    @Setup
+    public void setup() {
+        EffectHarness harness = new EffectHarness();
+        clock = harness.getClock();
+        damageOverTimeSystem = harness.getSystem(DamageOverTimeAuthoritySystem.class);
+        Prefab[] damageTypes = new Prefab[EffectHarness.DAMAGE_TYPES.size()];
+        for (int i = 0; i < damageTypes.length; i++) {
+            damageTypes[i] = harness.getDamageType(EffectHarness.DAMAGE_TYPES.get(i));
+        }
+
+        final Random random = new Random(0);
+        final long now = clock.getGameTimeInMs();
+        for (int i = 0; i < entities; i++) {
+            // Health that does not run out during the measurement, so that every tick deals damage.
+            EntityRef entity = harness.createCharacter(Integer.MAX_VALUE);
+            DamageOverTimeComponent component = new DamageOverTimeComponent();
+            for (int j = 0; j < dots; j++) {
+                DamageOverTimeEffect dotEffect = new DamageOverTimeEffect();
+                // Alternate the damage types, so that the damage of an entity is summed up per damage type.
+                dotEffect.setDamageType(damageTypes[j % damageTypes.length]);
+                dotEffect.damageAmount = 1;
+                dotEffect.lastDamageTime = now - random.nextInt(DAMAGE_TICK);
+                component.dots.put("Dot" + j, dotEffect);
+            }
+            entity.addComponent(component);
+        }
+    }
+
+    @Benchmark
+    public void update() {
+        clock.advance(frameMs);
+        damageOverTimeSystem.update(frameMs / 1000f);
+    }
+}
@@ -0,0 +1,95 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.alterationEffects.AlterationEffect;
+import org.terasology.alterationEffects.AlterationEffects;
+import org.terasology.alterationEffects.expiry.EffectExpiryKey;
+import org.terasology.alterationEffects.expiry.EffectExpiryManager;
+import org.terasology.alterationEffects.harness.EffectHarness;
+import org.terasology.alterationEffects.harness.Workloads;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures dispatching due expirations to the expiry handlers of their effect types.
+ * <p>
+ * Expirations are either due in the schedule of the {@code EffectExpirySystem}, or triggered as delayed actions that
+ * were queued in the {@code DelayManager} by earlier versions of this module. Each invocation expires the effect on a
+ * batch of entities, which includes removing the effect, notifying other systems and re-applying remaining modifiers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExpiryBenchmark {
+    private static final int BATCH = 1000;
+    private static final long DURATION = 2000;
+
+    @Param({AlterationEffects.WALK_SPEED, AlterationEffects.STUN, AlterationEffects.RESIST_DAMAGE,
+            AlterationEffects.MAX_HEALTH_BOOST})
+    public String effectType;
+
+    /** Where the expirations are due: {@code schedule} or the legacy {@code delayManager}. */
+    @Param({"schedule", "delayManager"})
+    public String scheduler;
+
+    private EffectHarness harness;
+    private EffectExpiryManager expiryManager;
+    private AlterationEffect effect;
+    private String id;
+    private EffectExpiryKey expiryKey;
+    private List<EntityRef> entities;
+
+    @Setup
+    public void setup() {
+        harness = new EffectHarness();
+        expiryManager = harness.getContext().get(EffectExpiryManager.class);
+        effect = harness.getEffect(effectType);
+        id = Workloads.idOf(effectType);
+        expiryKey = EffectExpiryKey.of(effectType, id.isEmpty() ? null : id, null);
+        EntityRef[] batch = new EntityRef[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            batch[i] = harness.createCharacter(100);
+        }
+        entities = Arrays.asList(batch);
+    }
+
+    /**
+     * Apply the effect to all entities of the batch, so that it expires on all of them in the next update.
+     */
+    @Setup(Level.Invocation)
+    public void applyEffects() {
+        effect.applyEffect(entities.get(0), entities, id, 2, DURATION);
+        if ("delayManager".equals(scheduler)) {
+            for (EntityRef entity : entities) {
+                expiryManager.cancelExpiry(entity, expiryKey);
+                harness.getDelayManager().addDelayedAction(entity, expiryKey.getActionId(), DURATION);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void expire() {
+        harness.update(DURATION);
+    }
+}
@@ -0,0 +1,47 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.alterationEffects.AlterationEffects;
+import org.terasology.alterationEffects.expiry.EffectExpiryKey;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding the action IDs of triggered delayed actions into expiry keys, including rejecting the actions of
+ * other modules.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExpiryKeyBenchmark {
+    private static final String[] ACTION_IDS = {
+            EffectExpiryKey.of(AlterationEffects.STUN).getActionId(),
+            EffectExpiryKey.of(AlterationEffects.WALK_SPEED, null, "potion").getActionId(),
+            EffectExpiryKey.of(AlterationEffects.DAMAGE_OVER_TIME, "Poison", "spider").getActionId(),
+            EffectExpiryKey.of(AlterationEffects.RESIST_DAMAGE, "PoisonDamage", null).getActionId(),
+            "Health:Regenerate",
+            "OtherModule:Expire:Stun"
+    };
+
+    private int next;
+
+    @Benchmark
+    public EffectExpiryKey decode() {
+        final String actionId = ACTION_IDS[next];
+        next = (next + 1) % ACTION_IDS.length;
+        return EffectExpiryKey.decode(actionId);
+    }
+}
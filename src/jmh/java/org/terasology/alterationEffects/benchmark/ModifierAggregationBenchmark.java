@@ -0,0 +1,69 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.alterationEffects.AlterationEffect;
+import org.terasology.alterationEffects.AlterationEffects;
+import org.terasology.alterationEffects.OnEffectModifyEvent;
+import org.terasology.alterationEffects.harness.EffectHarness;
+import org.terasology.alterationEffects.ledger.ModifierLedgerManager;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures collecting and folding the modifiers of an effect, with a varying number of contributing modifiers.
+ * <p>
+ * {@code collect} only covers sending the {@link OnEffectModifyEvent} and recording the contributions in the modifier
+ * ledger, {@code apply} covers applying the effect as a whole.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ModifierAggregationBenchmark {
+    private static final long DURATION = 5000;
+
+    @Param({"0", "1", "10", "100"})
+    public int modifiers;
+
+    private ModifierLedgerManager ledgerManager;
+    private AlterationEffect effect;
+    private EntityRef entity;
+
+    @Setup
+    public void setup() {
+        EffectHarness harness = new EffectHarness(new ModifierContributorSystem(modifiers));
+        ledgerManager = harness.getContext().get(ModifierLedgerManager.class);
+        effect = harness.getEffect(AlterationEffects.WALK_SPEED);
+        entity = harness.createCharacter(100);
+        effect.applyEffect(entity, entity, 1, DURATION);
+    }
+
+    @Benchmark
+    public float collect() {
+        OnEffectModifyEvent event =
+                ledgerManager.collectModifiers(entity, entity, effect, AlterationEffects.WALK_SPEED, "", false);
+        final float magnitude = event.getMagnitudeResultValue();
+        event.release();
+        return magnitude;
+    }
+
+    @Benchmark
+    public void apply() {
+        effect.applyEffect(entity, entity, 1, DURATION);
+    }
+}
@@ -0,0 +1,34 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.benchmark;
+
+import org.terasology.alterationEffects.OnEffectModifyEvent;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+
+/**
+ * Contributes a fixed number of attributed modifiers to every effect applied, like equipment or auras that each
+ * modify an effect with their own magnitude and duration.
+ */
+public class ModifierContributorSystem extends BaseComponentSystem {
+    private final String[] sources;
+
+    /**
+     * @param modifiers the number of modifiers to add to each effect
+     */
+    public ModifierContributorSystem(int modifiers) {
+        sources = new String[modifiers];
+        for (int i = 0; i < modifiers; i++) {
+            sources[i] = "source" + i;
+        }
+    }
+
+    @ReceiveEvent
+    public void addModifiers(OnEffectModifyEvent event, EntityRef entity) {
+        for (int i = 0; i < sources.length; i++) {
+            // Distinct durations, so that the modifiers do not all expire at once.
+            event.addModifier(sources[i], 0.1f, 10_000 + 100 * i);
+        }
+    }
+}
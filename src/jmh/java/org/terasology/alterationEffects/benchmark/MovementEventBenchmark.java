@@ -0,0 +1,107 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.alterationEffects.AlterationEffects;
+import org.terasology.alterationEffects.harness.EffectHarness;
+import org.terasology.alterationEffects.speed.MovementModifiersComponent;
+import org.terasology.alterationEffects.speed.SpeedAlterationSystem;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.logic.characters.AffectJumpForceEvent;
+import org.terasology.engine.logic.characters.AffectMultiJumpEvent;
+import org.terasology.engine.logic.characters.GetMaxSpeedEvent;
+import org.terasology.engine.logic.characters.MovementMode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures answering the movement events of an entity from the {@link MovementModifiersComponent} snapshot against
+ * looking up each speed and movement-related effect component per event, as the {@link BaselineSpeedAlterationSystem}
+ * does.
+ * <p>
+ * The handlers are called directly. For the snapshot, the handler is only called if the entity has a snapshot, like
+ * the event system only calls handlers whose component parameters are present. {@code effects} is either
+ * {@code none}, {@code walk}, or {@code all} of walk speed, swim speed, jump speed, multi jump, and glue. Stun is left
+ * out, as it cuts the lookups of the baseline short.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MovementEventBenchmark {
+    private static final long DURATION = 3_600_000;
+
+    /** How the events are answered: from the {@code snapshot} or by a {@code lookup} of each effect component. */
+    @Param({"snapshot", "lookup"})
+    public String handler;
+
+    @Param({"none", "walk", "all"})
+    public String effects;
+
+    private SpeedAlterationSystem speedAlterationSystem;
+    private BaselineSpeedAlterationSystem baselineSystem;
+    private boolean snapshot;
+    private EntityRef entity;
+
+    @Setup
+    public void setup() {
+        EffectHarness harness = new EffectHarness();
+        speedAlterationSystem = harness.getSystem(SpeedAlterationSystem.class);
+        baselineSystem = new BaselineSpeedAlterationSystem();
+        snapshot = "snapshot".equals(handler);
+        entity = harness.createCharacter(100);
+        if (!"none".equals(effects)) {
+            harness.getEffect(AlterationEffects.WALK_SPEED).applyEffect(entity, entity, 2, DURATION);
+        }
+        if ("all".equals(effects)) {
+            harness.getEffect(AlterationEffects.SWIM_SPEED).applyEffect(entity, entity, 2, DURATION);
+            harness.getEffect(AlterationEffects.JUMP_SPEED).applyEffect(entity, entity, 2, DURATION);
+            harness.getEffect(AlterationEffects.MULTI_JUMP).applyEffect(entity, entity, 2, DURATION);
+            harness.getEffect(AlterationEffects.GLUE).applyEffect(entity, entity, 1, DURATION);
+        }
+    }
+
+    @Benchmark
+    public float maxSpeed() {
+        GetMaxSpeedEvent event = new GetMaxSpeedEvent(5, MovementMode.WALKING);
+        if (snapshot) {
+            MovementModifiersComponent modifiers = entity.getComponent(MovementModifiersComponent.class);
+            if (modifiers != null) {
+                speedAlterationSystem.modifySpeed(event, entity, modifiers);
+            }
+        } else {
+            baselineSystem.modifySpeed(event, entity);
+        }
+        return event.getResultValue();
+    }
+
+    @Benchmark
+    public float jump() {
+        AffectJumpForceEvent jumpForce = new AffectJumpForceEvent(10);
+        AffectMultiJumpEvent multiJump = new AffectMultiJumpEvent(1);
+        if (snapshot) {
+            MovementModifiersComponent modifiers = entity.getComponent(MovementModifiersComponent.class);
+            if (modifiers != null) {
+                speedAlterationSystem.modifyJumpSpeed(jumpForce, entity, modifiers);
+                speedAlterationSystem.modifyMultiJump(multiJump, entity, modifiers);
+            }
+        } else {
+            baselineSystem.modifyJumpSpeed(jumpForce, entity);
+            baselineSystem.modifyMultiJump(multiJump, entity);
+        }
+        return jumpForce.getResultValue() + multiJump.getResultValue();
+    }
+}
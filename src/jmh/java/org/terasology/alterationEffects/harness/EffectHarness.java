@@ -0,0 +1,246 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.harness;
+
+import org.terasology.alterationEffects.AlterationEffect;
+import org.terasology.alterationEffects.DamageTypeRegistrySystem;
+import org.terasology.alterationEffects.EffectRegistry;
+import org.terasology.alterationEffects.EffectRegistrySystem;
+import org.terasology.alterationEffects.EffectsAuthoritySystem;
+import org.terasology.alterationEffects.boost.BoostAuthoritySystem;
+import org.terasology.alterationEffects.breath.WaterBreathingAuthoritySystem;
+import org.terasology.alterationEffects.buff.BuffDamageAuthoritySystem;
+import org.terasology.alterationEffects.damage.DamageModifierSystem;
+import org.terasology.alterationEffects.damageOverTime.DamageOverTimeAlterationEffect;
+import org.terasology.alterationEffects.damageOverTime.DamageOverTimeAuthoritySystem;
+import org.terasology.alterationEffects.decover.DecoverAuthoritySystem;
+import org.terasology.alterationEffects.expiry.EffectExpirySystem;
+import org.terasology.alterationEffects.expiry.LazyExpirySystem;
+import org.terasology.alterationEffects.ledger.ModifierLedgerSystem;
+import org.terasology.alterationEffects.metrics.EffectMetricsSystem;
+import org.terasology.alterationEffects.regenerate.RegenerationAlterationSystem;
+import org.terasology.alterationEffects.resist.ResistDamageAuthoritySystem;
+import org.terasology.alterationEffects.speed.MovementModifiersSystem;
+import org.terasology.alterationEffects.speed.SpeedAlterationSystem;
+import org.terasology.engine.context.Context;
+import org.terasology.engine.context.internal.ContextImpl;
+import org.terasology.engine.core.Time;
+import org.terasology.engine.entitySystem.entity.EntityManager;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.entitySystem.prefab.PrefabData;
+import org.terasology.engine.entitySystem.prefab.internal.PojoPrefab;
+import org.terasology.engine.entitySystem.systems.ComponentSystem;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.engine.logic.delay.DelayManager;
+import org.terasology.engine.registry.CoreRegistry;
+import org.terasology.engine.registry.InjectionHelper;
+import org.terasology.engine.registry.Share;
+import org.terasology.engine.utilities.Assets;
+import org.terasology.engine.world.block.BlockManager;
+import org.terasology.gestalt.assets.AssetType;
+import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.gestalt.assets.management.AssetManager;
+import org.terasology.gestalt.assets.module.ModuleAwareAssetTypeManagerImpl;
+import org.terasology.module.health.components.HealthComponent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs all systems of this module headless, on top of an {@link InMemoryWorld}, a {@link SimulatedClock} and a
+ * {@link SimulatedDelayManager}.
+ * <p>
+ * The systems are set up the way the engine does it: shared systems are put into the context, all systems are
+ * injected and initialised, and their event handlers are registered with the {@link EventRouter}. The
+ * {@link HealthStandInSystem} takes the place of the Health module. The damage types of this module are loaded as
+ * prefabs, so that damage over time effects resolve them like in the game.
+ * <p>
+ * Only one harness can be used at a time, as {@link Assets} look up prefabs in the {@link CoreRegistry}.
+ */
+public class EffectHarness {
+    /** The damage types shipped with this module, see {@code assets/prefabs/damageTypes}. */
+    public static final List<String> DAMAGE_TYPES = List.of(DamageOverTimeAlterationEffect.DEFAULT_DAMAGE_TYPE,
+            "AlterationEffects:DamageOverTimeDamage");
+
+    /** The length of a frame in milliseconds when the engine runs at 60 frames per second. */
+    public static final long FRAME_MS = 16;
+
+    private final Context context = new ContextImpl();
+    private final SimulatedClock clock = new SimulatedClock(0);
+    private final EventRouter eventRouter = new EventRouter();
+    private final InMemoryWorld world = new InMemoryWorld(eventRouter);
+    private final SimulatedDelayManager delayManager = new SimulatedDelayManager(clock);
+    private final HealthStandInSystem healthSystem = new HealthStandInSystem();
+    private final List<ComponentSystem> systems = new ArrayList<>();
+    private final List<UpdateSubscriberSystem> updateSubscribers = new ArrayList<>();
+
+    /**
+     * Set up all systems of this module, followed by the given additional systems, e.g., modifier contributors.
+     *
+     * @param additionalSystems further systems to run along with the module's systems
+     */
+    public EffectHarness(ComponentSystem... additionalSystems) {
+        CoreRegistry.setContext(context);
+        context.put(Time.class, clock.asTime());
+        context.put(EntityManager.class, world.asEntityManager());
+        context.put(DelayManager.class, delayManager);
+        context.put(BlockManager.class, StandIns.implement(BlockManager.class, Map.of(
+                "listRegisteredBlockFamilies", args -> Collections.emptyList(),
+                "getBlockFamilyCount", args -> 0)));
+        loadDamageTypes();
+
+        systems.addAll(Arrays.asList(
+                new EffectRegistrySystem(),
+                new EffectMetricsSystem(),
+                new DamageTypeRegistrySystem(),
+                new ModifierLedgerSystem(),
+                new EffectExpirySystem(),
+                new LazyExpirySystem(),
+                new EffectsAuthoritySystem(),
+                new DamageOverTimeAuthoritySystem(),
+                new BuffDamageAuthoritySystem(),
+                new ResistDamageAuthoritySystem(),
+                new BoostAuthoritySystem(),
+                new DamageModifierSystem(),
+                new WaterBreathingAuthoritySystem(),
+                new DecoverAuthoritySystem(),
+                new RegenerationAlterationSystem(),
+                new MovementModifiersSystem(),
+                new SpeedAlterationSystem(),
+                healthSystem));
+        systems.addAll(Arrays.asList(additionalSystems));
+
+        for (ComponentSystem system : systems) {
+            share(system);
+        }
+        for (ComponentSystem system : systems) {
+            InjectionHelper.inject(system, context);
+        }
+        for (ComponentSystem system : systems) {
+            system.initialise();
+            eventRouter.register(system);
+            if (system instanceof UpdateSubscriberSystem) {
+                updateSubscribers.add((UpdateSubscriberSystem) system);
+            }
+        }
+        for (ComponentSystem system : systems) {
+            system.preBegin();
+        }
+        for (ComponentSystem system : systems) {
+            system.postBegin();
+        }
+    }
+
+    public Context getContext() {
+        return context;
+    }
+
+    public SimulatedClock getClock() {
+        return clock;
+    }
+
+    public InMemoryWorld getWorld() {
+        return world;
+    }
+
+    public SimulatedDelayManager getDelayManager() {
+        return delayManager;
+    }
+
+    public HealthStandInSystem getHealthSystem() {
+        return healthSystem;
+    }
+
+    /**
+     * @param systemClass the class of a running system
+     * @param <T> the type of the system
+     * @return the running system of the given class
+     */
+    public <T extends ComponentSystem> T getSystem(Class<T> systemClass) {
+        for (ComponentSystem system : systems) {
+            if (systemClass.isInstance(system)) {
+                return systemClass.cast(system);
+            }
+        }
+        throw new IllegalArgumentException("Not a running system: " + systemClass.getName());
+    }
+
+    /**
+     * @param effectType the name of a registered effect type, e.g., {@code AlterationEffects.WALK_SPEED}
+     * @return the alteration effect registered for the effect type
+     */
+    public AlterationEffect getEffect(String effectType) {
+        EffectRegistry effectRegistry = context.get(EffectRegistry.class);
+        return effectRegistry.getEffect(effectRegistry.get(effectType));
+    }
+
+    /**
+     * @param urn the URN of one of the {@link #DAMAGE_TYPES}
+     * @return the damage type prefab
+     */
+    public Prefab getDamageType(String urn) {
+        return Assets.getPrefab(urn).orElseThrow(() -> new IllegalArgumentException("Unknown damage type: " + urn));
+    }
+
+    /**
+     * Create a character with full health.
+     *
+     * @param maxHealth the maximum health of the character
+     * @return the new character
+     */
+    public InMemoryEntityRef createCharacter(int maxHealth) {
+        HealthComponent health = new HealthComponent();
+        health.maxHealth = maxHealth;
+        health.currentHealth = maxHealth;
+        return world.create(health);
+    }
+
+    /**
+     * Run a single engine update: advance the clock, trigger due delayed actions, and update all systems.
+     *
+     * @param deltaInMs the length of the update in milliseconds
+     */
+    public void update(long deltaInMs) {
+        clock.advance(deltaInMs);
+        delayManager.fireDueActions();
+        final float delta = deltaInMs / 1000f;
+        for (UpdateSubscriberSystem system : updateSubscribers) {
+            system.update(delta);
+        }
+    }
+
+    /**
+     * Notify all systems that the game is about to be saved.
+     */
+    public void save() {
+        for (ComponentSystem system : systems) {
+            system.preSave();
+        }
+        for (ComponentSystem system : systems) {
+            system.postSave();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void share(ComponentSystem system) {
+        Share share = system.getClass().getAnnotation(Share.class);
+        if (share != null) {
+            for (Class<?> sharedInterface : share.value()) {
+                context.put((Class<Object>) sharedInterface, system);
+            }
+        }
+    }
+
+    private void loadDamageTypes() {
+        ModuleAwareAssetTypeManagerImpl assetTypeManager = new ModuleAwareAssetTypeManagerImpl();
+        AssetType<Prefab, PrefabData> prefabs =
+                assetTypeManager.createAssetType(Prefab.class, PojoPrefab::new, "prefabs");
+        for (String damageType : DAMAGE_TYPES) {
+            prefabs.loadAsset(new ResourceUrn(damageType), new PrefabData());
+        }
+        context.put(AssetManager.class, new AssetManager(assetTypeManager));
+    }
+}
@@ -0,0 +1,277 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.harness;
+
+import org.terasology.alterationEffects.AlterationEffect;
+import org.terasology.alterationEffects.AlterationEffects;
+import org.terasology.alterationEffects.metrics.EffectMetrics;
+import org.terasology.alterationEffects.metrics.EffectStats;
+import org.terasology.alterationEffects.metrics.LatencyHistogram;
+import org.terasology.engine.logic.characters.GetMaxSpeedEvent;
+import org.terasology.engine.logic.characters.MovementMode;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Runs the systems of this module headless under a synthetic load on an accelerated clock, and reports throughput,
+ * latency per tick, and heap growth as JSON lines on standard output.
+ * <p>
+ * Each simulated frame of {@link EffectHarness#FRAME_MS} applies timed effects of mixed types to random characters,
+ * asks the {@code SpeedAlterationSystem} for the max speed of a share of the characters, unloads and loads characters,
+ * and then runs a single update of the {@link EffectHarness}. The clock only moves with the frames, so an hour of game
+ * time runs as fast as the systems can handle it.
+ * <p>
+ * Options are passed as {@code name=value} arguments:
+ * <ul>
+ *     <li>{@code entities} - the number of characters, 20000 by default</li>
+ *     <li>{@code duration} - the simulated time in seconds, 3600 by default</li>
+ *     <li>{@code seed} - the seed of the workload, 1 by default</li>
+ *     <li>{@code report} - the simulated time in seconds between two reports, 60 by default</li>
+ * </ul>
+ * Every report line holds the counts and rates of the last interval, and the latency of its frames; the last line sums
+ * up the whole run. Rates are given per second of wall time spent in frames, and per second of simulated time. The
+ * heap is measured after a full GC, which does not count towards the wall time.
+ */
+public final class EffectLoadHarness {
+    /** The effect types applied, each with the same chance. */
+    private static final String[] EFFECT_TYPES = {
+            AlterationEffects.WALK_SPEED,
+            AlterationEffects.SWIM_SPEED,
+            AlterationEffects.JUMP_SPEED,
+            AlterationEffects.MULTI_JUMP,
+            AlterationEffects.GLUE,
+            AlterationEffects.STUN,
+            AlterationEffects.DAMAGE_OVER_TIME,
+            AlterationEffects.RESIST_DAMAGE,
+            AlterationEffects.BUFF_DAMAGE,
+            AlterationEffects.MAX_HEALTH_BOOST
+    };
+
+    /** The average time between two effects applied to the same character. */
+    private static final long APPLY_INTERVAL = 10_000;
+    /** The shortest and longest duration of an effect. Effects up to a second are short enough to expire lazily. */
+    private static final int MIN_DURATION = 500;
+    private static final int MAX_DURATION = 30_000;
+    /** The share of characters that move in each frame. */
+    private static final int MOVING_SHARE = 20;
+    /** The average time between two characters being unloaded, and how long they stay unloaded. */
+    private static final long UNLOAD_INTERVAL = 1000;
+    private static final long UNLOAD_TIME = 30_000;
+
+    private static final long MB = 1024 * 1024;
+
+    private final int entityCount;
+    private final long duration;
+    private final long reportInterval;
+    private final Random random;
+
+    private final EffectHarness harness = new EffectHarness();
+    private final InMemoryEntityRef[] characters;
+    private final AlterationEffect[] effects = new AlterationEffect[EFFECT_TYPES.length];
+    private final Deque<UnloadedCharacter> unloaded = new ArrayDeque<>();
+
+    private final LatencyHistogram intervalFrameTime = new LatencyHistogram();
+    private final LatencyHistogram totalFrameTime = new LatencyHistogram();
+
+    private double applyCarry;
+    private double unloadCarry;
+    private int nextMover;
+
+    private EffectLoadHarness(int entityCount, long duration, long reportInterval, long seed) {
+        this.entityCount = entityCount;
+        this.duration = duration;
+        this.reportInterval = reportInterval;
+        this.random = new Random(seed);
+        for (int i = 0; i < EFFECT_TYPES.length; i++) {
+            effects[i] = harness.getEffect(EFFECT_TYPES[i]);
+        }
+        characters = new InMemoryEntityRef[entityCount];
+        for (int i = 0; i < entityCount; i++) {
+            // Enough health to take the damage over time of the whole run.
+            characters[i] = harness.createCharacter(1_000_000);
+        }
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            final int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected name=value, got: " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        final int entityCount = Integer.parseInt(options.getOrDefault("entities", "20000"));
+        final long duration = Long.parseLong(options.getOrDefault("duration", "3600")) * 1000;
+        final long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        final long reportInterval = Long.parseLong(options.getOrDefault("report", "60")) * 1000;
+        if (entityCount <= 0 || duration <= 0 || reportInterval <= 0) {
+            throw new IllegalArgumentException("entities, duration, and report must be positive");
+        }
+
+        new EffectLoadHarness(entityCount, duration, reportInterval, seed).run();
+    }
+
+    private void run() {
+        final EffectMetrics metrics = harness.getContext().get(EffectMetrics.class);
+        final SimulatedClock clock = harness.getClock();
+        final long start = clock.getGameTimeInMs();
+        final long initialHeap = usedHeapAfterGc();
+
+        final Totals first = Totals.of(metrics, harness.getHealthSystem());
+        Totals last = first;
+        Totals total = first;
+        long intervalWallNanos = 0;
+        long totalWallNanos = 0;
+        long nextReport = start + reportInterval;
+
+        while (clock.getGameTimeInMs() - start < duration) {
+            final long frameStart = System.nanoTime();
+            runFrame();
+            final long frameNanos = System.nanoTime() - frameStart;
+            intervalFrameTime.record(frameNanos);
+            totalFrameTime.record(frameNanos);
+            intervalWallNanos += frameNanos;
+            totalWallNanos += frameNanos;
+
+            final long now = clock.getGameTimeInMs();
+            if (now >= nextReport || now - start >= duration) {
+                total = Totals.of(metrics, harness.getHealthSystem());
+                System.out.println(report("interval", now - start, total.minus(last), intervalWallNanos,
+                        now - (nextReport - reportInterval), intervalFrameTime, usedHeapAfterGc(), initialHeap));
+                last = total;
+                intervalWallNanos = 0;
+                intervalFrameTime.reset();
+                nextReport += reportInterval;
+            }
+        }
+        final long simTime = clock.getGameTimeInMs() - start;
+        System.out.println(report("total", simTime, total.minus(first), totalWallNanos, simTime, totalFrameTime,
+                usedHeapAfterGc(), initialHeap));
+    }
+
+    private void runFrame() {
+        final long frame = EffectHarness.FRAME_MS;
+        final long now = harness.getClock().getGameTimeInMs();
+
+        // Apply effects at the rate of one per character and apply interval, carrying fractions over to later frames.
+        applyCarry += (double) entityCount * frame / APPLY_INTERVAL;
+        for (; applyCarry >= 1; applyCarry--) {
+            applyRandomEffect();
+        }
+
+        for (int i = entityCount / MOVING_SHARE; i > 0; i--) {
+            characters[nextMover].send(new GetMaxSpeedEvent(5, MovementMode.WALKING));
+            nextMover = (nextMover + 1) % entityCount;
+        }
+
+        unloadCarry += (double) frame / UNLOAD_INTERVAL;
+        for (; unloadCarry >= 1; unloadCarry--) {
+            InMemoryEntityRef character = characters[random.nextInt(entityCount)];
+            if (character.isActive()) {
+                harness.getWorld().unload(character);
+                unloaded.add(new UnloadedCharacter(character, now + UNLOAD_TIME));
+            }
+        }
+        while (!unloaded.isEmpty() && unloaded.peek().loadTime <= now) {
+            harness.getWorld().load(unloaded.poll().character);
+        }
+
+        harness.update(frame);
+    }
+
+    private void applyRandomEffect() {
+        final InMemoryEntityRef character = characters[random.nextInt(entityCount)];
+        if (!character.isActive()) {
+            return;
+        }
+        final int type = random.nextInt(EFFECT_TYPES.length);
+        final long effectDuration = MIN_DURATION + random.nextInt(MAX_DURATION - MIN_DURATION);
+        final float magnitude;
+        switch (EFFECT_TYPES[type]) {
+            case AlterationEffects.DAMAGE_OVER_TIME:
+                magnitude = 1 + random.nextInt(5);
+                break;
+            case AlterationEffects.MAX_HEALTH_BOOST:
+                magnitude = 10 + random.nextInt(40);
+                break;
+            default:
+                magnitude = 1 + random.nextFloat();
+        }
+        effects[type].applyEffect(character, character, Workloads.idOf(EFFECT_TYPES[type]), magnitude,
+                effectDuration);
+    }
+
+    private String report(String type, long simTime, Totals counts, long wallNanos, long intervalSimTime,
+                          LatencyHistogram frameTime, long usedHeap, long initialHeap) {
+        final double wallSeconds = wallNanos / 1e9;
+        final double simSeconds = intervalSimTime / 1000.0;
+        return String.format(Locale.ROOT, "{\"type\":\"%s\",\"simTimeS\":%.1f,\"wallTimeS\":%.3f,"
+                        + "\"activeEntities\":%d,\"frames\":%d,"
+                        + "\"applied\":%d,\"appliedPerWallS\":%.1f,\"appliedPerSimS\":%.1f,"
+                        + "\"expired\":%d,\"expiredPerWallS\":%.1f,\"expiredPerSimS\":%.1f,"
+                        + "\"damageEvents\":%d,\"damageEventsPerWallS\":%.1f,\"damageEventsPerSimS\":%.1f,"
+                        + "\"frameP50Us\":%.1f,\"frameP99Us\":%.1f,\"frameMaxUs\":%.1f,"
+                        + "\"heapUsedMb\":%.1f,\"heapGrowthMb\":%.1f}",
+                type, simTime / 1000.0, wallSeconds,
+                harness.getWorld().getActiveEntityCount(), frameTime.getCount(),
+                counts.applied, counts.applied / wallSeconds, counts.applied / simSeconds,
+                counts.expired, counts.expired / wallSeconds, counts.expired / simSeconds,
+                counts.damageEvents, counts.damageEvents / wallSeconds, counts.damageEvents / simSeconds,
+                frameTime.getPercentileNanos(50) / 1e3, frameTime.getPercentileNanos(99) / 1e3,
+                frameTime.getMaxNanos() / 1e3,
+                (double) usedHeap / MB, (double) (usedHeap - initialHeap) / MB);
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        final Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * A character that was unloaded, and when to load it again.
+     */
+    private static final class UnloadedCharacter {
+        final InMemoryEntityRef character;
+        final long loadTime;
+
+        UnloadedCharacter(InMemoryEntityRef character, long loadTime) {
+            this.character = character;
+            this.loadTime = loadTime;
+        }
+    }
+
+    /**
+     * The effects applied and expired, and the damage events received by characters, summed up over all effect types.
+     */
+    private static final class Totals {
+        long applied;
+        long expired;
+        long damageEvents;
+
+        static Totals of(EffectMetrics metrics, HealthStandInSystem healthSystem) {
+            Totals totals = new Totals();
+            for (EffectStats stats : metrics.getAllStats()) {
+                // Re-applications after a modifier expired are part of the expiry.
+                totals.applied += stats.getApplies() - stats.getReapplies();
+                totals.expired += stats.getExpiries();
+            }
+            totals.damageEvents = healthSystem.getDamageEvents();
+            return totals;
+        }
+
+        Totals minus(Totals other) {
+            Totals difference = new Totals();
+            difference.applied = applied - other.applied;
+            difference.expired = expired - other.expired;
+            difference.damageEvents = damageEvents - other.damageEvents;
+            return difference;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.harness;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.event.ConsumableEvent;
+import org.terasology.gestalt.entitysystem.component.Component;
+import org.terasology.gestalt.entitysystem.event.Event;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dispatches events to the {@link ReceiveEvent} handlers of registered systems, like the engine's event system does.
+ * <p>
+ * A handler receives an event if its event parameter accepts the event and the entity has all components the handler
+ * asks for, either as parameters or in {@link ReceiveEvent#components()}. Handlers are called by descending priority,
+ * and in the order they were registered for equal priorities. Dispatching stops once a {@link ConsumableEvent} is
+ * consumed.
+ * <p>
+ * Lifecycle events are only dispatched to the handlers that ask for the component they are about.
+ */
+public class EventRouter {
+    private final List<Handler> handlers = new ArrayList<>();
+
+    /** The handlers receiving each event class, resolved when an event of that class is sent first. */
+    private final Map<Class<?>, Handler[]> handlersByEvent = new HashMap<>();
+
+    /**
+     * Register all event handlers of the given system.
+     *
+     * @param system the system to register
+     */
+    public void register(Object system) {
+        for (Method method : system.getClass().getMethods()) {
+            ReceiveEvent annotation = method.getAnnotation(ReceiveEvent.class);
+            if (annotation != null) {
+                handlers.add(new Handler(system, method, annotation));
+            }
+        }
+        handlersByEvent.clear();
+    }
+
+    /**
+     * Send an event to an entity.
+     *
+     * @param entity the entity to send the event to
+     * @param event the event to send
+     * @param <T> the type of the event
+     * @return the event
+     */
+    public <T extends Event> T send(EntityRef entity, T event) {
+        for (Handler handler : handlersOf(event.getClass())) {
+            if (handler.accepts(entity)) {
+                handler.invoke(entity, event);
+                if (event instanceof ConsumableEvent && ((ConsumableEvent) event).isConsumed()) {
+                    break;
+                }
+            }
+        }
+        return event;
+    }
+
+    /**
+     * Send a lifecycle event about a single component to an entity.
+     *
+     * @param entity the entity to send the event to
+     * @param event the lifecycle event
+     * @param componentClass the class of the component the event is about
+     */
+    void send(EntityRef entity, Event event, Class<? extends Component> componentClass) {
+        for (Handler handler : handlersOf(event.getClass())) {
+            if (handler.requires(componentClass) && handler.accepts(entity)) {
+                handler.invoke(entity, event);
+            }
+        }
+    }
+
+    private Handler[] handlersOf(Class<?> eventClass) {
+        Handler[] result = handlersByEvent.get(eventClass);
+        if (result == null) {
+            result = handlers.stream()
+                    .filter(handler -> handler.eventClass.isAssignableFrom(eventClass))
+                    .sorted(Comparator.comparingInt((Handler handler) -> handler.priority).reversed())
+                    .toArray(Handler[]::new);
+            handlersByEvent.put(eventClass, result);
+        }
+        return result;
+    }
+
+    /**
+     * A single event handler method of a system.
+     */
+    private static final class Handler {
+        final Object system;
+        final Method method;
+        final Class<?> eventClass;
+        final int priority;
+
+        /** The component classes passed to the handler as parameters, after the event and the entity. */
+        final Class<? extends Component>[] componentParameters;
+
+        /** All component classes the entity needs to have, including those only listed in the annotation. */
+        final Class<? extends Component>[] requiredComponents;
+
+        @SuppressWarnings("unchecked")
+        Handler(Object system, Method method, ReceiveEvent annotation) {
+            final Class<?>[] parameters = method.getParameterTypes();
+            if (parameters.length < 2 || !Event.class.isAssignableFrom(parameters[0])
+                    || parameters[1] != EntityRef.class) {
+                throw new IllegalArgumentException("Not an event handler: " + method);
+            }
+            this.system = system;
+            this.method = method;
+            this.eventClass = parameters[0];
+            this.priority = annotation.priority();
+            this.componentParameters = (Class<? extends Component>[]) Arrays.copyOfRange(parameters, 2,
+                    parameters.length);
+
+            Set<Class<? extends Component>> required = new LinkedHashSet<>(Arrays.asList(componentParameters));
+            required.addAll(Arrays.asList(annotation.components()));
+            this.requiredComponents = required.toArray(new Class[0]);
+        }
+
+        boolean requires(Class<? extends Component> componentClass) {
+            for (Class<? extends Component> required : requiredComponents) {
+                if (required == componentClass) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean accepts(EntityRef entity) {
+            for (Class<? extends Component> required : requiredComponents) {
+                if (!entity.hasComponent(required)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void invoke(EntityRef entity, Event event) {
+            Object[] args = new Object[2 + componentParameters.length];
+            args[0] = event;
+            args[1] = entity;
+            for (int i = 0; i < componentParameters.length; i++) {
+                args[2 + i] = entity.getComponent(componentParameters[i]);
+            }
+            try {
+                method.invoke(system, args);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new IllegalStateException("Event handler failed: " + method, e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Event handler is not accessible: " + method, e);
+            }
+        }
+    }
+}
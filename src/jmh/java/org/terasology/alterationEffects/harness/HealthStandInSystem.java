@@ -0,0 +1,53 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.harness;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+import org.terasology.math.TeraMath;
+import org.terasology.module.health.components.HealthComponent;
+import org.terasology.module.health.events.BeforeDamagedEvent;
+import org.terasology.module.health.events.DoDamageEvent;
+
+/**
+ * Stands in for the damage handling of the Health module, so that damage dealt by effects goes through the
+ * {@link BeforeDamagedEvent} handlers of this module.
+ * <p>
+ * Damage reduces the current health of the entity down to 0, but never destroys it, so that a simulation keeps the
+ * same number of entities throughout.
+ */
+public class HealthStandInSystem extends BaseComponentSystem {
+    private long damageEvents;
+    private long damageDealt;
+
+    @ReceiveEvent
+    public void onDamage(DoDamageEvent event, EntityRef entity, HealthComponent health) {
+        damageEvents++;
+        BeforeDamagedEvent beforeDamaged = entity.send(new BeforeDamagedEvent(event.getAmount(),
+                event.getDamageType(), event.getInstigator(), event.getDirectCause()));
+        if (beforeDamaged.isConsumed()) {
+            return;
+        }
+        final int damage = TeraMath.floorToInt(beforeDamaged.getResultValue());
+        if (damage > 0 && health.currentHealth > 0) {
+            health.currentHealth = Math.max(0, health.currentHealth - damage);
+            damageDealt += damage;
+            entity.saveComponent(health);
+        }
+    }
+
+    /**
+     * @return the number of damage events received
+     */
+    public long getDamageEvents() {
+        return damageEvents;
+    }
+
+    /**
+     * @return the total damage dealt to the health of entities
+     */
+    public long getDamageDealt() {
+        return damageDealt;
+    }
+}
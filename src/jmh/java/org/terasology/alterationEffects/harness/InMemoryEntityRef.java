@@ -0,0 +1,156 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.harness;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.gestalt.entitysystem.component.Component;
+import org.terasology.gestalt.entitysystem.event.Event;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An entity of an {@link InMemoryWorld}.
+ * <p>
+ * The entity holds its components itself. Like the engine's entities, it hands out the stored component instances, and
+ * adding, saving and removing components sends the lifecycle events through the world.
+ */
+public final class InMemoryEntityRef extends EntityRef {
+    private final InMemoryWorld world;
+    private final long id;
+    final Map<Class<? extends Component>, Component> components = new HashMap<>();
+
+    boolean active = true;
+    private boolean persistent = true;
+    private boolean alwaysRelevant;
+    private EntityRef owner;
+
+    InMemoryEntityRef(InMemoryWorld world, long id) {
+        this.world = world;
+        this.id = id;
+    }
+
+    @Override
+    public EntityRef copy() {
+        return this;
+    }
+
+    @Override
+    public boolean exists() {
+        return active;
+    }
+
+    @Override
+    public boolean isActive() {
+        return active;
+    }
+
+    @Override
+    public void destroy() {
+        world.destroy(this);
+    }
+
+    @Override
+    public <T extends Event> T send(T event) {
+        return active ? world.getEventRouter().send(this, event) : event;
+    }
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return persistent;
+    }
+
+    @Override
+    public void setPersistent(boolean persistent) {
+        this.persistent = persistent;
+    }
+
+    @Override
+    public boolean isAlwaysRelevant() {
+        return alwaysRelevant;
+    }
+
+    @Override
+    public void setAlwaysRelevant(boolean alwaysRelevant) {
+        this.alwaysRelevant = alwaysRelevant;
+    }
+
+    @Override
+    public EntityRef getOwner() {
+        return owner != null ? owner : EntityRef.NULL;
+    }
+
+    @Override
+    public void setOwner(EntityRef owner) {
+        this.owner = owner;
+    }
+
+    @Override
+    public Prefab getParentPrefab() {
+        return null;
+    }
+
+    @Override
+    public String toFullDescription() {
+        return toString() + " " + components.keySet();
+    }
+
+    @Override
+    public boolean hasComponent(Class<? extends Component> componentClass) {
+        return components.containsKey(componentClass);
+    }
+
+    @Override
+    public <T extends Component> T getComponent(Class<T> componentClass) {
+        return componentClass.cast(components.get(componentClass));
+    }
+
+    @Override
+    public Iterable<Component> iterateComponents() {
+        return Collections.unmodifiableCollection(components.values());
+    }
+
+    @Override
+    public <T extends Component> T addComponent(T component) {
+        if (active) {
+            world.addComponent(this, component);
+        }
+        return component;
+    }
+
+    @Override
+    public void removeComponent(Class<? extends Component> componentClass) {
+        if (active) {
+            world.removeComponent(this, componentClass);
+        }
+    }
+
+    @Override
+    public void saveComponent(Component component) {
+        if (active) {
+            world.saveComponent(this, component);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof InMemoryEntityRef && ((InMemoryEntityRef) o).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "EntityRef{id = " + id + "}";
+    }
+}
@@ -0,0 +1,259 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.harness;
+
+import org.terasology.engine.entitySystem.entity.EntityManager;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeRemoveComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnAddedComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnChangedComponent;
+import org.terasology.gestalt.entitysystem.component.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The entities of a simulation, kept in memory and indexed by component class.
+ * <p>
+ * Component changes send the same lifecycle events as the engine: adding a component sends {@link OnAddedComponent}
+ * and {@link OnActivatedComponent}, saving it sends {@link OnChangedComponent}, and removing it sends
+ * {@link BeforeDeactivateComponent} and {@link BeforeRemoveComponent} while the component is still present. Entities
+ * can also be unloaded and loaded again, which only sends the activation events.
+ * <p>
+ * The world is not thread-safe, just like the game logic it stands in for.
+ */
+public class InMemoryWorld {
+    private final EventRouter eventRouter;
+    private final Map<Long, InMemoryEntityRef> entities = new LinkedHashMap<>();
+    private final Map<Class<? extends Component>, Set<InMemoryEntityRef>> index = new HashMap<>();
+    private long nextId = 1;
+
+    private final EntityManager entityManager = StandIns.implement(EntityManager.class, Map.of(
+            "create", this::createFromArgs,
+            "getEntity", args -> getEntity((Long) args[0]),
+            "getEntitiesWith", args -> getEntitiesWith(componentClasses(args)),
+            "getCountOfEntitiesWith", args -> getCountOfEntitiesWith(componentClasses(args)),
+            "getActiveEntityCount", args -> entities.size(),
+            "getAllEntities", args -> new ArrayList<EntityRef>(entities.values())));
+
+    /**
+     * Create an empty world.
+     *
+     * @param eventRouter the router to send events to the entities of the world with
+     */
+    public InMemoryWorld(EventRouter eventRouter) {
+        this.eventRouter = eventRouter;
+    }
+
+    public EventRouter getEventRouter() {
+        return eventRouter;
+    }
+
+    /**
+     * @return the {@link EntityManager} backed by this world
+     */
+    public EntityManager asEntityManager() {
+        return entityManager;
+    }
+
+    /**
+     * Create an active entity with the given components.
+     *
+     * @param components the initial components of the entity
+     * @return the new entity
+     */
+    public InMemoryEntityRef create(Component... components) {
+        InMemoryEntityRef entity = new InMemoryEntityRef(this, nextId++);
+        entities.put(entity.getId(), entity);
+        for (Component component : components) {
+            addComponent(entity, component);
+        }
+        return entity;
+    }
+
+    /**
+     * @param id the ID of the entity
+     * @return the active entity with the given ID, or {@link EntityRef#NULL} if there is none
+     */
+    public EntityRef getEntity(long id) {
+        EntityRef entity = entities.get(id);
+        return entity != null ? entity : EntityRef.NULL;
+    }
+
+    /**
+     * @return the number of active entities
+     */
+    public int getActiveEntityCount() {
+        return entities.size();
+    }
+
+    /**
+     * List the active entities that have all given components.
+     * <p>
+     * A snapshot is returned, so that callers may change the components of the listed entities.
+     *
+     * @param componentClasses the components the entities need to have
+     * @return the matching entities
+     */
+    @SafeVarargs
+    public final List<EntityRef> getEntitiesWith(Class<? extends Component>... componentClasses) {
+        if (componentClasses.length == 0) {
+            return new ArrayList<>(entities.values());
+        }
+        List<EntityRef> result = new ArrayList<>();
+        for (InMemoryEntityRef entity : index.getOrDefault(componentClasses[0], Collections.emptySet())) {
+            if (hasAll(entity, componentClasses)) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    @SafeVarargs
+    public final int getCountOfEntitiesWith(Class<? extends Component>... componentClasses) {
+        if (componentClasses.length == 1) {
+            return index.getOrDefault(componentClasses[0], Collections.emptySet()).size();
+        }
+        return getEntitiesWith(componentClasses).size();
+    }
+
+    /**
+     * Unload an active entity, e.g., when its chunk is unloaded. Systems are notified with
+     * {@link BeforeDeactivateComponent} for each component, and the entity keeps the state its components have
+     * afterwards, like a stored entity.
+     *
+     * @param entity the entity to unload
+     */
+    public void unload(InMemoryEntityRef entity) {
+        if (!entity.active) {
+            return;
+        }
+        for (Class<? extends Component> componentClass : new ArrayList<>(entity.components.keySet())) {
+            eventRouter.send(entity, BeforeDeactivateComponent.newInstance(), componentClass);
+        }
+        for (Class<? extends Component> componentClass : entity.components.keySet()) {
+            index.get(componentClass).remove(entity);
+        }
+        entities.remove(entity.getId());
+        entity.active = false;
+    }
+
+    /**
+     * Load an unloaded entity again. Systems are notified with {@link OnActivatedComponent} for each component.
+     *
+     * @param entity the entity to load
+     */
+    public void load(InMemoryEntityRef entity) {
+        if (entity.active) {
+            return;
+        }
+        entity.active = true;
+        entities.put(entity.getId(), entity);
+        for (Class<? extends Component> componentClass : entity.components.keySet()) {
+            index.computeIfAbsent(componentClass, c -> new LinkedHashSet<>()).add(entity);
+        }
+        for (Class<? extends Component> componentClass : new ArrayList<>(entity.components.keySet())) {
+            eventRouter.send(entity, OnActivatedComponent.newInstance(), componentClass);
+        }
+    }
+
+    void destroy(InMemoryEntityRef entity) {
+        if (!entity.active) {
+            return;
+        }
+        List<Class<? extends Component>> componentClasses = new ArrayList<>(entity.components.keySet());
+        for (Class<? extends Component> componentClass : componentClasses) {
+            eventRouter.send(entity, BeforeDeactivateComponent.newInstance(), componentClass);
+            eventRouter.send(entity, BeforeRemoveComponent.newInstance(), componentClass);
+        }
+        for (Class<? extends Component> componentClass : entity.components.keySet()) {
+            index.get(componentClass).remove(entity);
+        }
+        entity.components.clear();
+        entities.remove(entity.getId());
+        entity.active = false;
+    }
+
+    void addComponent(InMemoryEntityRef entity, Component component) {
+        final Class<? extends Component> componentClass = component.getClass();
+        if (entity.components.put(componentClass, component) != null) {
+            // Like the engine, adding a component over an existing one replaces it.
+            eventRouter.send(entity, OnChangedComponent.newInstance(), componentClass);
+            return;
+        }
+        index.computeIfAbsent(componentClass, c -> new LinkedHashSet<>()).add(entity);
+        eventRouter.send(entity, OnAddedComponent.newInstance(), componentClass);
+        eventRouter.send(entity, OnActivatedComponent.newInstance(), componentClass);
+    }
+
+    void saveComponent(InMemoryEntityRef entity, Component component) {
+        final Class<? extends Component> componentClass = component.getClass();
+        if (!entity.components.containsKey(componentClass)) {
+            addComponent(entity, component);
+            return;
+        }
+        entity.components.put(componentClass, component);
+        eventRouter.send(entity, OnChangedComponent.newInstance(), componentClass);
+    }
+
+    void removeComponent(InMemoryEntityRef entity, Class<? extends Component> componentClass) {
+        if (!entity.components.containsKey(componentClass)) {
+            return;
+        }
+        eventRouter.send(entity, BeforeDeactivateComponent.newInstance(), componentClass);
+        eventRouter.send(entity, BeforeRemoveComponent.newInstance(), componentClass);
+        entity.components.remove(componentClass);
+        index.get(componentClass).remove(entity);
+    }
+
+    private InMemoryEntityRef createFromArgs(Object[] args) {
+        if (args == null || args.length == 0) {
+            return create();
+        }
+        if (args.length == 1 && args[0] instanceof Component[]) {
+            return create((Component[]) args[0]);
+        }
+        if (args.length == 1 && args[0] instanceof Iterable) {
+            List<Component> components = new ArrayList<>();
+            for (Object component : (Iterable<?>) args[0]) {
+                components.add((Component) component);
+            }
+            return create(components.toArray(new Component[0]));
+        }
+        throw new UnsupportedOperationException("in-memory EntityManager only creates entities from components");
+    }
+
+    private static boolean hasAll(EntityRef entity, Class<? extends Component>[] componentClasses) {
+        for (Class<? extends Component> componentClass : componentClasses) {
+            if (!entity.hasComponent(componentClass)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends Component>[] componentClasses(Object[] args) {
+        if (args.length == 1 && args[0] instanceof Class[]) {
+            return (Class<? extends Component>[]) args[0];
+        }
+        // getEntitiesWith(Class, Class...) overloads pass the first class separately.
+        List<Class<? extends Component>> result = new ArrayList<>();
+        for (Object arg : args) {
+            if (arg instanceof Class[]) {
+                result.addAll(List.of((Class<? extends Component>[]) arg));
+            } else {
+                result.add((Class<? extends Component>) arg);
+            }
+        }
+        return result.toArray(new Class[0]);
+    }
+}
@@ -0,0 +1,61 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.harness;
+
+import org.terasology.engine.core.Time;
+
+import java.util.Map;
+
+/**
+ * A deterministic game clock that only moves when it is advanced.
+ * <p>
+ * Game time and real time are the same, so that runs of the harness can be repeated exactly and accelerated at will.
+ */
+public class SimulatedClock {
+    private long gameTimeInMs;
+    private long lastDeltaInMs;
+
+    private final Time time = StandIns.implement(Time.class, Map.of(
+            "getGameTimeInMs", args -> gameTimeInMs,
+            "getGameTime", args -> gameTimeInMs / 1000f,
+            "getGameDeltaInMs", args -> lastDeltaInMs,
+            "getGameDelta", args -> lastDeltaInMs / 1000f,
+            "getRealTimeInMs", args -> gameTimeInMs,
+            "getRealTime", args -> gameTimeInMs / 1000f,
+            "getRealDeltaInMs", args -> lastDeltaInMs,
+            "getRealDelta", args -> lastDeltaInMs / 1000f,
+            "isPaused", args -> false));
+
+    /**
+     * Create a clock starting at the given game time.
+     *
+     * @param startTimeInMs the initial game time in milliseconds
+     */
+    public SimulatedClock(long startTimeInMs) {
+        this.gameTimeInMs = startTimeInMs;
+    }
+
+    /**
+     * @return the {@link Time} backed by this clock
+     */
+    public Time asTime() {
+        return time;
+    }
+
+    public long getGameTimeInMs() {
+        return gameTimeInMs;
+    }
+
+    /**
+     * Move the clock forward.
+     *
+     * @param deltaInMs the number of milliseconds to advance, not negative
+     */
+    public void advance(long deltaInMs) {
+        if (deltaInMs < 0) {
+            throw new IllegalArgumentException("The clock cannot go back in time: " + deltaInMs);
+        }
+        gameTimeInMs += deltaInMs;
+        lastDeltaInMs = deltaInMs;
+    }
+}
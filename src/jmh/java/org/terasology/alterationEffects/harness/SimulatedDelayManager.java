@@ -0,0 +1,125 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.harness;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.logic.delay.DelayManager;
+import org.terasology.engine.logic.delay.DelayedActionTriggeredEvent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * A {@link DelayManager} on the simulated clock, which sends {@link DelayedActionTriggeredEvent}s when the harness
+ * fires the due actions.
+ * <p>
+ * This module schedules its own expirations in the {@code EffectExpirySystem}, and only uses the delay manager for
+ * expirations queued by earlier versions of the module. The stand-in lets the harness replay such legacy actions.
+ * Periodic actions are not used by this module and are not supported.
+ */
+public class SimulatedDelayManager implements DelayManager {
+    private final SimulatedClock clock;
+    private final PriorityQueue<DelayedAction> queue =
+            new PriorityQueue<>(Comparator.comparingLong((DelayedAction action) -> action.dueTime)
+                    .thenComparingLong(action -> action.sequence));
+    private final Map<EntityRef, Map<String, DelayedAction>> actions = new HashMap<>();
+    private long nextSequence;
+
+    public SimulatedDelayManager(SimulatedClock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public void addDelayedAction(EntityRef entity, String actionId, long delay) {
+        cancelDelayedAction(entity, actionId);
+        DelayedAction action = new DelayedAction(entity, actionId, clock.getGameTimeInMs() + delay, nextSequence++);
+        actions.computeIfAbsent(entity, e -> new HashMap<>()).put(actionId, action);
+        queue.add(action);
+    }
+
+    @Override
+    public void cancelDelayedAction(EntityRef entity, String actionId) {
+        Map<String, DelayedAction> entityActions = actions.get(entity);
+        if (entityActions != null) {
+            DelayedAction action = entityActions.remove(actionId);
+            if (action != null) {
+                action.cancelled = true;
+            }
+            if (entityActions.isEmpty()) {
+                actions.remove(entity);
+            }
+        }
+    }
+
+    @Override
+    public boolean hasDelayedAction(EntityRef entity, String actionId) {
+        Map<String, DelayedAction> entityActions = actions.get(entity);
+        return entityActions != null && entityActions.containsKey(actionId);
+    }
+
+    @Override
+    public void addPeriodicAction(EntityRef entity, String actionId, long initialDelay, long period) {
+        throw new UnsupportedOperationException("Periodic actions are not used by this module");
+    }
+
+    @Override
+    public void cancelPeriodicAction(EntityRef entity, String actionId) {
+        throw new UnsupportedOperationException("Periodic actions are not used by this module");
+    }
+
+    @Override
+    public boolean hasPeriodicAction(EntityRef entity, String actionId) {
+        return false;
+    }
+
+    /**
+     * @return the number of pending delayed actions
+     */
+    public int size() {
+        return actions.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * Send a {@link DelayedActionTriggeredEvent} for each action that is due at the current time of the clock, in the
+     * order they are due.
+     *
+     * @return the number of triggered actions
+     */
+    public int fireDueActions() {
+        final long now = clock.getGameTimeInMs();
+        List<DelayedAction> due = new ArrayList<>();
+        DelayedAction action;
+        while ((action = queue.peek()) != null && action.dueTime <= now) {
+            queue.poll();
+            if (!action.cancelled) {
+                cancelDelayedAction(action.entity, action.actionId);
+                due.add(action);
+            }
+        }
+        for (DelayedAction dueAction : due) {
+            if (dueAction.entity.exists()) {
+                dueAction.entity.send(new DelayedActionTriggeredEvent(dueAction.actionId));
+            }
+        }
+        return due.size();
+    }
+
+    private static final class DelayedAction {
+        final EntityRef entity;
+        final String actionId;
+        final long dueTime;
+        final long sequence;
+        boolean cancelled;
+
+        DelayedAction(EntityRef entity, String actionId, long dueTime, long sequence) {
+            this.entity = entity;
+            this.actionId = actionId;
+            this.dueTime = dueTime;
+            this.sequence = sequence;
+        }
+    }
+}
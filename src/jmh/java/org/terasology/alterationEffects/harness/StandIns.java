@@ -0,0 +1,50 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.harness;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Implements engine interfaces of which the systems of this module only call a few methods, e.g., {@code Time} and
+ * {@code EntityManager}.
+ * <p>
+ * Implementing these interfaces directly would tie the harness to every method the engine declares on them. Instead,
+ * only the methods used by this module are backed by the in-memory world, and calling any other method throws an
+ * {@link UnsupportedOperationException}, so that a system starting to rely on one is noticed right away.
+ */
+final class StandIns {
+    private StandIns() {
+    }
+
+    /**
+     * Create a stand-in for the given interface.
+     *
+     * @param type the interface to implement
+     * @param methods the implementation of each supported method, by name, receiving the call arguments
+     * @param <T> the type of the interface
+     * @return the stand-in
+     */
+    static <T> T implement(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        final String name = "in-memory " + type.getSimpleName();
+        InvocationHandler handler = (proxy, method, args) -> {
+            Function<Object[], Object> implementation = methods.get(method.getName());
+            if (implementation != null) {
+                return implementation.apply(args);
+            }
+            switch (method.getName()) {
+                case "toString":
+                    return name;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    throw new UnsupportedOperationException(name + " does not support " + method.getName());
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
@@ -0,0 +1,38 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.harness;
+
+import org.terasology.alterationEffects.AlterationEffects;
+
+/**
+ * The effect parameters used by the benchmarks and the load harness.
+ */
+public final class Workloads {
+    /** The ID of damage over time effects, which resolves to the module's poison damage type. */
+    public static final String DAMAGE_OVER_TIME_ID = "Poison";
+
+    /** The damage type that damage buffs and resistances refer to, matching the poison damage type prefab. */
+    public static final String DAMAGE_TYPE_ID = "PoisonDamage";
+
+    private Workloads() {
+    }
+
+    /**
+     * The ID to apply an effect type with. Effects that target a damage type get the poison damage type, all other
+     * effects are applied without an ID.
+     *
+     * @param effectType the name of the effect type
+     * @return the ID to apply the effect with
+     */
+    public static String idOf(String effectType) {
+        switch (effectType) {
+            case AlterationEffects.DAMAGE_OVER_TIME:
+                return DAMAGE_OVER_TIME_ID;
+            case AlterationEffects.BUFF_DAMAGE:
+            case AlterationEffects.RESIST_DAMAGE:
+                return DAMAGE_TYPE_ID;
+            default:
+                return "";
+        }
+    }
+}
@@ -4,6 +4,8 @@ package org.terasology.alterationEffects;
 
 import org.terasology.engine.entitySystem.entity.EntityRef;
 
+import java.util.Collection;
+
 /**
  * Interface for the application of various alteration effects (with our without an ID) over a period of time.
  */
@@ -30,4 +32,39 @@ public interface AlterationEffect {
      * @param duration      The duration of the effect.
      */
     void applyEffect(EntityRef instigator, EntityRef entity, String id, float magnitude, long duration);
+
+    /**
+     * This will apply an effect (sub-typed with an ID) on all given entities for the specified magnitude on a given
+     * duration of time, e.g., for area-of-effect application.
+     * <p>
+     * The default implementation applies the effect to each target one after the other. Implementations may override
+     * this to share work between the targets.
+     *
+     * @param instigator    The entity who applied the effect.
+     * @param targets       The entities that the effect is being applied on.
+     * @param id            The ID of this effect. This is used for determining what sub-type this effect is part of.
+     *                      Only applicable to effects that support sub-types.
+     * @param magnitude     The magnitude of the effect.
+     * @param duration      The duration of the effect.
+     */
+    default void applyEffect(EntityRef instigator, Collection<EntityRef> targets, String id, float magnitude,
+                             long duration) {
+        for (EntityRef target : targets) {
+            applyEffect(instigator, target, id, magnitude, duration);
+        }
+    }
+
+    /**
+     * This will re-apply an effect (sub-typed with an ID) on the given entity after one of its modifiers expired, so
+     * that the remaining modifiers are recalculated and applied correctly.
+     * <p>
+     * The default implementation applies the effect with zero magnitude and duration, collecting all modifiers again.
+     *
+     * @param entity        The entity that the effect is being re-applied on.
+     * @param id            The ID of this effect. This is used for determining what sub-type this effect is part of.
+     *                      Only applicable to effects that support sub-types.
+     */
+    default void reapplyEffect(EntityRef entity, String id) {
+        applyEffect(entity, entity, id, 0, 0);
+    }
 }
@@ -2,11 +2,23 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.alterationEffects;
 
+import org.terasology.alterationEffects.expiry.EffectExpiryKey;
+import org.terasology.alterationEffects.expiry.EffectExpiryManager;
+import org.terasology.alterationEffects.expiry.LazyExpiryManager;
+import org.terasology.alterationEffects.expiry.TimedEffectComponent;
+import org.terasology.alterationEffects.ledger.ModifierLedgerManager;
+import org.terasology.alterationEffects.metrics.EffectMetrics;
+import org.terasology.alterationEffects.metrics.EffectStats;
 import org.terasology.engine.context.Context;
+import org.terasology.engine.core.Time;
 import org.terasology.engine.entitySystem.entity.EntityRef;
-import org.terasology.engine.logic.delay.DelayManager;
+import org.terasology.engine.monitoring.Activity;
+import org.terasology.engine.monitoring.PerformanceMonitor;
 import org.terasology.gestalt.entitysystem.component.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -35,25 +47,47 @@ import java.util.Optional;
  */
 public abstract class ComponentBasedAlterationEffect<C extends Component> implements AlterationEffect {
 
+    /**
+     * The lazy expiry threshold used by effects that are read often and are commonly applied for very short durations.
+     */
+    protected static final long DEFAULT_LAZY_EXPIRY_THRESHOLD = 1000;
+
     /**
      * The component class of the backing component.
      */
     protected final Class<C> componentClass;
 
-    private final DelayManager delayManager;
+    private final Time time;
+    private final EffectExpiryManager expiryManager;
+    private final LazyExpiryManager lazyExpiryManager;
+    private final ModifierLedgerManager ledgerManager;
+    private final EffectStats stats;
+    private final EffectRegistry effectRegistry;
+    private final String applyActivity;
     private final String effectId;
+    private final boolean timedComponent;
+
+    /** The registered type of this effect, looked up on first use. */
+    private EffectType type;
 
     /**
      * Initialize a component-backed alteration effect for the given component class and identifier.
      *
      * @param context the game context to retrieve objects without dependency injection
      * @param componentClass the class of the backing component
-     * @param effectIdentifier the effect identifier used with the delayed expiration event
+     * @param effectIdentifier the effect identifier used for scheduling the expiration
      */
     public ComponentBasedAlterationEffect(Context context, Class<C> componentClass, String effectIdentifier) {
-        this.delayManager = context.get(DelayManager.class);
+        this.time = context.get(Time.class);
+        this.expiryManager = context.get(EffectExpiryManager.class);
+        this.lazyExpiryManager = context.get(LazyExpiryManager.class);
+        this.ledgerManager = context.get(ModifierLedgerManager.class);
+        this.stats = context.get(EffectMetrics.class).getStats(effectIdentifier);
+        this.effectRegistry = context.get(EffectRegistry.class);
+        this.applyActivity = "AlterationEffects: Apply " + effectIdentifier;
         this.componentClass = componentClass;
         this.effectId = effectIdentifier;
+        this.timedComponent = TimedEffectComponent.class.isAssignableFrom(componentClass);
     }
 
     /**
@@ -138,6 +172,19 @@ public abstract class ComponentBasedAlterationEffect<C extends Component> implem
         context.entity.removeComponent(componentClass);
     }
 
+    /**
+     * Hook method returning the longest unmodified duration for which this effect is expired lazily.
+     * <p>
+     * Lazy expiry only applies if the backing component implements {@link TimedEffectComponent}. Instead of scheduling
+     * an expiration, the end of the effect is then stored on the component, and readers of the component are expected
+     * to check it. The default implementation returns 0, i.e., expirations are always scheduled.
+     *
+     * @return the maximum duration in milliseconds for which this effect is expired lazily
+     */
+    protected long getLazyExpiryThreshold() {
+        return 0;
+    }
+
     @Override
     public void applyEffect(EntityRef instigator, EntityRef entity, float magnitude, long duration) {
         applyEffect(instigator, entity, "", magnitude, duration);
@@ -145,25 +192,89 @@ public abstract class ComponentBasedAlterationEffect<C extends Component> implem
 
     @Override
     public void applyEffect(EntityRef instigator, EntityRef entity, String id, float magnitude, long duration) {
-        final EffectContext context = new EffectContext(instigator, entity, id, magnitude, duration);
+        try (Activity ignored = PerformanceMonitor.startActivity(applyActivity)) {
+            final EffectContext context = new EffectContext(instigator, entity, id, magnitude, duration);
+            if (applyEffect(context, false)) {
+                final EffectExpiryKey expiryKey = expiryKey(subTypeOf(id), null);
+                if (expiresLazily(duration)) {
+                    expireLazily(entity, expiryKey, time.getGameTimeInMs() + duration);
+                } else {
+                    expiryManager.scheduleExpiry(entity, expiryKey, duration);
+                }
+            }
+        }
+    }
+
+    /**
+     * Apply this effect to all targets, e.g., for area-of-effect application.
+     * <p>
+     * Each target goes through the same steps as for a single entity. Targets on which no system modified the effect
+     * share a single expiry key and deadline, and their expirations are scheduled in one batch at the end.
+     */
+    @Override
+    public void applyEffect(EntityRef instigator, Collection<EntityRef> targets, String id, float magnitude,
+                            long duration) {
+        try (Activity ignored = PerformanceMonitor.startActivity(applyActivity)) {
+            final List<EntityRef> unmodifiedTargets = new ArrayList<>(targets.size());
+            for (EntityRef target : targets) {
+                if (applyEffect(new EffectContext(instigator, target, id, magnitude, duration), false)) {
+                    unmodifiedTargets.add(target);
+                }
+            }
+            if (!unmodifiedTargets.isEmpty()) {
+                final EffectExpiryKey expiryKey = expiryKey(subTypeOf(id), null);
+                if (expiresLazily(duration)) {
+                    final long expiresAt = time.getGameTimeInMs() + duration;
+                    for (EntityRef target : unmodifiedTargets) {
+                        expireLazily(target, expiryKey, expiresAt);
+                    }
+                } else {
+                    expiryManager.scheduleExpiry(unmodifiedTargets, expiryKey, duration);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void reapplyEffect(EntityRef entity, String id) {
+        try (Activity ignored = PerformanceMonitor.startActivity(applyActivity)) {
+            applyEffect(new EffectContext(entity, entity, id, 0, 0), true);
+        }
+    }
+
+    /**
+     * Apply this effect to the entity of the given context.
+     * <p>
+     * Expirations based on modifiers are scheduled right away. If the effect was not modified by any system and has a
+     * positive duration, the caller is responsible for scheduling the expiration with the requested duration.
+     *
+     * @param context the contextual information this effect is applied in
+     * @param reapply true if the effect is re-applied after one of its modifiers expired
+     * @return true if the caller needs to schedule the expiration for the unmodified duration
+     */
+    private boolean applyEffect(final EffectContext context, boolean reapply) {
+        final long startTime = System.nanoTime();
+        final EntityRef entity = context.entity;
+        final long duration = context.duration;
         // -- 1. Upsert component and send modification event ----------------------------------------------------------
         //TODO: who should be responsible for setting base magnitude and duration?
         //      can we just pass it with OnEffectModifyEvent?
-        entity.upsertComponent(componentClass, maybeComponent -> upsertComponent(maybeComponent, context));
+        entity.upsertComponent(componentClass, maybeComponent ->
+                setExpiresAt(upsertComponent(maybeComponent, context), TimedEffectComponent.NO_EXPIRY));
 
-        OnEffectModifyEvent effectModifyEvent = entity.send(
-                new OnEffectModifyEvent(instigator, entity, 0, 0, this, id)
-        );
+        OnEffectModifyEvent effectModifyEvent =
+                ledgerManager.collectModifiers(context.instigator, entity, this, effectId, context.id, reapply);
 
         long modifiedDuration = 0;
         boolean modifiersFound = false;
+        boolean scheduleUnmodified = false;
 
         // -- 2. Update component if event was modified ----------------------------------------------------------------
         // If the effect modify event is consumed, don't apply this walk speed effect
         if (!effectModifyEvent.isConsumed()) {
             modifiedDuration = effectModifyEvent.getShortestDuration();
 
-            if (!effectModifyEvent.getDurationModifiers().isEmpty() && !effectModifyEvent.getMagnitudeModifiers().isEmpty()) {
+            if (effectModifyEvent.hasDurationModifiers() && effectModifyEvent.hasMagnitudeModifiers()) {
                 entity.updateComponent(componentClass, c -> updateComponent(effectModifyEvent, c, context));
                 modifiersFound = true;
             }
@@ -174,14 +285,12 @@ public abstract class ComponentBasedAlterationEffect<C extends Component> implem
             // valid modifiers (only checks modified duration though) and definite
 
             String effectIDWithShortestDuration = effectModifyEvent.getEffectIDWithShortestDuration();
-            delayManager.addDelayedAction(entity,
-                    AlterationEffects.EXPIRE_TRIGGER_PREFIX + effectId + "|" + effectIDWithShortestDuration,
-                    modifiedDuration);
+            EffectExpiryKey expiryKey = expiryKey(subTypeOf(context.id), effectIDWithShortestDuration);
+            expiryManager.scheduleExpiry(entity, expiryKey, modifiedDuration);
         } else if (duration > 0 && !modifiersFound && !effectModifyEvent.isConsumed()) {
             // no modifiers but positive duration and definite (and not consumed)
-            // add a delayed action to the DelayManager using the old system.
-            delayManager.addDelayedAction(entity,
-                    AlterationEffects.EXPIRE_TRIGGER_PREFIX + effectId, duration);
+            // let the caller schedule the expiration using the old system.
+            scheduleUnmodified = true;
         } else if (!modifiersFound || !effectModifyEvent.getHasInfDuration()) {
             // Otherwise, if there are either no modifiers found, or none of the modifiers collected in the event
             // have infinite duration, remove the component associated with this effect.
@@ -190,5 +299,54 @@ public abstract class ComponentBasedAlterationEffect<C extends Component> implem
             // If this point is reached and none of the above if-clauses were met, that means there was at least one
             // modifier collected in the event which has infinite duration.
         }
+        stats.recordApply(System.nanoTime() - startTime, effectModifyEvent.isConsumed(), reapply);
+        effectModifyEvent.release();
+        return scheduleUnmodified;
+    }
+
+    private boolean expiresLazily(long duration) {
+        return timedComponent && duration <= getLazyExpiryThreshold();
+    }
+
+    /**
+     * Let the effect expire at the given time without scheduling an expiration. A pending expiration of the unmodified
+     * effect is cancelled, as it would end the effect too early. The component is removed later by the
+     * {@link LazyExpiryManager}, which only knows about registered effect types.
+     */
+    private void expireLazily(EntityRef entity, EffectExpiryKey expiryKey, long expiresAt) {
+        expiryManager.cancelExpiry(entity, expiryKey);
+        entity.updateComponent(componentClass, c -> setExpiresAt(c, expiresAt));
+        if (expiryKey.getType() != null) {
+            lazyExpiryManager.expireLazily(entity, expiryKey.getType(), expiresAt);
+        }
+    }
+
+    private C setExpiresAt(C component, long expiresAt) {
+        if (timedComponent) {
+            ((TimedEffectComponent) component).setExpiresAt(expiresAt);
+        }
+        return component;
+    }
+
+    /**
+     * Build the expiry key of this effect. The registered type of the effect is looked up on first use, so that the
+     * expiration is dispatched by its ordinal.
+     */
+    private EffectExpiryKey expiryKey(String id, String effectID) {
+        if (type == null) {
+            type = effectRegistry.get(effectId);
+            if (type == null) {
+                // The effect is not registered, so its expirations are resolved by name.
+                return EffectExpiryKey.of(effectId, id, effectID);
+            }
+        }
+        return EffectExpiryKey.of(type, id, effectID);
+    }
+
+    /**
+     * The sub-type ID to encode in the expiry key. Effects applied without an ID don't carry a sub-type segment.
+     */
+    private static String subTypeOf(String id) {
+        return id == null || id.isEmpty() ? null : id;
     }
 }
@@ -0,0 +1,49 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects;
+
+import org.terasology.engine.entitySystem.prefab.Prefab;
+
+/**
+ * Interning table of the damage types known to this module.
+ * <p>
+ * Damage-related effects (e.g., damage buffs and resistances) are applied with the short name of a damage type, i.e.,
+ * the name of its prefab without the module, like "poisonDamage". Each distinct short name is assigned a dense ID, and
+ * a single interned instance of the name is kept. Damage type prefabs are mapped to their ID by identity, so the short
+ * name of a prefab is only computed the first time the prefab is seen.
+ */
+public interface DamageTypeRegistry {
+    /** The ID returned for a missing damage type. */
+    int UNKNOWN = -1;
+
+    /**
+     * Get the ID of a damage type by its short name, assigning a new ID if the name was not seen before.
+     *
+     * @param name the short name of the damage type, e.g., "poisonDamage"
+     * @return the ID of the damage type
+     */
+    int intern(String name);
+
+    /**
+     * Get the ID of a damage type prefab, assigning a new ID if its short name was not seen before.
+     *
+     * @param damageType the damage type prefab, may be null
+     * @return the ID of the damage type, or {@link #UNKNOWN} if it is null
+     */
+    int getId(Prefab damageType);
+
+    /**
+     * Get the interned short name of a damage type. The same instance is returned for every call with the same ID.
+     *
+     * @param id the ID of the damage type
+     * @return the short name of the damage type, or null if the ID is {@link #UNKNOWN}
+     */
+    String getName(int id);
+
+    /**
+     * Get the number of known damage types. All IDs are smaller than this.
+     *
+     * @return the number of known damage types
+     */
+    int size();
+}
@@ -0,0 +1,75 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects;
+
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.registry.Share;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Default implementation of the {@link DamageTypeRegistry}, shared on both server and clients.
+ * <p>
+ * Short names are kept in an array indexed by ID. Prefabs are mapped to their ID by identity; a prefab that is reloaded
+ * is a new instance, and is mapped to the ID of its short name again when it is first seen.
+ */
+@RegisterSystem
+@Share(DamageTypeRegistry.class)
+public class DamageTypeRegistrySystem extends BaseComponentSystem implements DamageTypeRegistry {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int size;
+
+    private final TObjectIntMap<String> byName = new TObjectIntHashMap<>(INITIAL_CAPACITY, 0.5f, UNKNOWN);
+    private final Map<Prefab, Integer> byPrefab = new IdentityHashMap<>();
+
+    @Override
+    public int intern(String name) {
+        int id = byName.get(name);
+        if (id == UNKNOWN) {
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+            }
+            id = size++;
+            names[id] = name;
+            byName.put(name, id);
+        }
+        return id;
+    }
+
+    @Override
+    public int getId(Prefab damageType) {
+        if (damageType == null) {
+            return UNKNOWN;
+        }
+        Integer id = byPrefab.get(damageType);
+        if (id == null) {
+            id = intern(shortNameOf(damageType));
+            byPrefab.put(damageType, id);
+        }
+        return id;
+    }
+
+    @Override
+    public String getName(int id) {
+        return id == UNKNOWN ? null : names[id];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private static String shortNameOf(Prefab damageType) {
+        final String name = damageType.getName();
+        final int separator = name.indexOf(':');
+        return separator >= 0 ? name.substring(separator + 1) : name;
+    }
+}
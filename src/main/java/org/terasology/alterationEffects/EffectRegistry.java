@@ -0,0 +1,98 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects;
+
+import org.terasology.alterationEffects.expiry.EffectExpiryHandler;
+import org.terasology.alterationEffects.expiry.EffectExpiryKey;
+import org.terasology.gestalt.entitysystem.component.Component;
+
+import java.util.List;
+
+/**
+ * Registry of all alteration effect types.
+ * <p>
+ * Modules register each effect type once, usually in the {@code initialise} method of the system handling the effect.
+ * Every type is assigned a dense ordinal, and its backing component class, effect instance, and expiry handler are
+ * stored in arrays indexed by that ordinal. Lookups by name are only meant for configuration and commands; hot paths
+ * should resolve the {@link EffectType} once, or use the lookups by component class or expiry key.
+ */
+public interface EffectRegistry {
+    /**
+     * Register a new effect type.
+     *
+     * @param name the unique name of the effect type, e.g., {@link AlterationEffects#WALK_SPEED}
+     * @param componentClass the component backing the effect, or {@code null} if there is none
+     * @param effect the alteration effect applying this type
+     * @param expiryHandler the handler to call when an expiration of this type is due, or {@code null} if none
+     * @return the handle of the registered type
+     * @throws IllegalArgumentException if a type with the same name or component class is already registered
+     */
+    EffectType register(String name, Class<? extends Component> componentClass, AlterationEffect effect,
+                        EffectExpiryHandler expiryHandler);
+
+    /**
+     * Get the number of registered effect types. All ordinals are smaller than this.
+     *
+     * @return the number of registered types
+     */
+    int size();
+
+    /**
+     * Get all registered types in the order of their ordinals.
+     *
+     * @return an unmodifiable view on the registered types
+     */
+    List<EffectType> getTypes();
+
+    /**
+     * Get the effect type with the given ordinal.
+     *
+     * @param ordinal the ordinal of the type
+     * @return the effect type
+     * @throws IndexOutOfBoundsException if there is no type with this ordinal
+     */
+    EffectType get(int ordinal);
+
+    /**
+     * Get the effect type registered with the given name.
+     *
+     * @param name the name of the type
+     * @return the effect type, or {@code null} if no such type is registered
+     */
+    EffectType get(String name);
+
+    /**
+     * Get the effect type backed by the given component class.
+     *
+     * @param componentClass the component class
+     * @return the effect type, or {@code null} if no type is backed by this component
+     */
+    EffectType getByComponent(Class<? extends Component> componentClass);
+
+    /**
+     * Get the effect type an expiry key belongs to. Keys built for a registered type are resolved by its ordinal, all
+     * other keys by the name of their effect type.
+     *
+     * @param expiryKey the expiry key
+     * @return the effect type, or {@code null} if the type of the key is not registered
+     */
+    EffectType resolve(EffectExpiryKey expiryKey);
+
+    /**
+     * @param type a registered effect type
+     * @return the component class backing the effect type, or {@code null} if there is none
+     */
+    Class<? extends Component> getComponentClass(EffectType type);
+
+    /**
+     * @param type a registered effect type
+     * @return the alteration effect applying the effect type
+     */
+    AlterationEffect getEffect(EffectType type);
+
+    /**
+     * @param type a registered effect type
+     * @return the expiry handler of the effect type, or {@code null} if there is none
+     */
+    EffectExpiryHandler getExpiryHandler(EffectType type);
+}
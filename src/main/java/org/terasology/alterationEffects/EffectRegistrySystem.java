@@ -0,0 +1,133 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects;
+
+import org.terasology.alterationEffects.expiry.EffectExpiryHandler;
+import org.terasology.alterationEffects.expiry.EffectExpiryKey;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.registry.Share;
+import org.terasology.gestalt.entitysystem.component.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Default implementation of the {@link EffectRegistry}, shared on both server and clients.
+ * <p>
+ * Per-type data is kept in arrays indexed by ordinal, and component classes are mapped to their type by identity.
+ * Expiry keys built for a registered type are resolved by its ordinal. Only keys without a type, i.e., keys decoded
+ * from persisted or delayed action IDs, are resolved by the name of their effect type.
+ */
+@RegisterSystem
+@Share(EffectRegistry.class)
+public class EffectRegistrySystem extends BaseComponentSystem implements EffectRegistry {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private EffectType[] types = new EffectType[INITIAL_CAPACITY];
+    private Class<? extends Component>[] componentClasses = newComponentClassArray(INITIAL_CAPACITY);
+    private AlterationEffect[] effects = new AlterationEffect[INITIAL_CAPACITY];
+    private EffectExpiryHandler[] expiryHandlers = new EffectExpiryHandler[INITIAL_CAPACITY];
+    private int size;
+
+    private final Map<String, EffectType> byName = new HashMap<>();
+    private final Map<Class<? extends Component>, EffectType> byComponent = new IdentityHashMap<>();
+
+    @Override
+    public EffectType register(String name, Class<? extends Component> componentClass, AlterationEffect effect,
+                               EffectExpiryHandler expiryHandler) {
+        if (byName.containsKey(name)) {
+            throw new IllegalArgumentException("Effect type '" + name + "' is already registered");
+        }
+        if (componentClass != null && byComponent.containsKey(componentClass)) {
+            throw new IllegalArgumentException("Component " + componentClass.getSimpleName()
+                    + " already backs effect type '" + byComponent.get(componentClass) + "'");
+        }
+
+        if (size == types.length) {
+            final int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            componentClasses = Arrays.copyOf(componentClasses, capacity);
+            effects = Arrays.copyOf(effects, capacity);
+            expiryHandlers = Arrays.copyOf(expiryHandlers, capacity);
+        }
+
+        EffectType type = new EffectType(size, name);
+        types[size] = type;
+        componentClasses[size] = componentClass;
+        effects[size] = effect;
+        expiryHandlers[size] = expiryHandler;
+        size++;
+
+        byName.put(name, type);
+        if (componentClass != null) {
+            byComponent.put(componentClass, type);
+        }
+        return type;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<EffectType> getTypes() {
+        return Collections.unmodifiableList(Arrays.asList(types).subList(0, size));
+    }
+
+    @Override
+    public EffectType get(int ordinal) {
+        if (ordinal < 0 || ordinal >= size) {
+            throw new IndexOutOfBoundsException("No effect type with ordinal " + ordinal);
+        }
+        return types[ordinal];
+    }
+
+    @Override
+    public EffectType get(String name) {
+        return byName.get(name);
+    }
+
+    @Override
+    public EffectType getByComponent(Class<? extends Component> componentClass) {
+        return byComponent.get(componentClass);
+    }
+
+    @Override
+    public EffectType resolve(EffectExpiryKey expiryKey) {
+        final EffectType type = expiryKey.getType();
+        if (type != null) {
+            final int ordinal = type.getOrdinal();
+            // A key built for the type of another registry, e.g., of an earlier game, is resolved by name below.
+            if (ordinal < size && types[ordinal] == type) {
+                return type;
+            }
+        }
+        return byName.get(expiryKey.getEffectType());
+    }
+
+    @Override
+    public Class<? extends Component> getComponentClass(EffectType type) {
+        return componentClasses[type.getOrdinal()];
+    }
+
+    @Override
+    public AlterationEffect getEffect(EffectType type) {
+        return effects[type.getOrdinal()];
+    }
+
+    @Override
+    public EffectExpiryHandler getExpiryHandler(EffectType type) {
+        return expiryHandlers[type.getOrdinal()];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends Component>[] newComponentClassArray(int capacity) {
+        return (Class<? extends Component>[]) new Class<?>[capacity];
+    }
+}
@@ -0,0 +1,42 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects;
+
+/**
+ * Handle of an alteration effect type registered with the {@link EffectRegistry}.
+ * <p>
+ * Each type has a dense ordinal, assigned in registration order, that can be used to index per-type arrays. Types are
+ * unique per registry and can be compared by identity.
+ */
+public final class EffectType {
+    private final int ordinal;
+    private final String name;
+
+    EffectType(int ordinal, String name) {
+        this.ordinal = ordinal;
+        this.name = name;
+    }
+
+    /**
+     * Get the dense ordinal of this type, in the range {@code [0, registry.size())}.
+     *
+     * @return the ordinal of this type
+     */
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    /**
+     * Get the name this type was registered with, e.g., {@link AlterationEffects#WALK_SPEED}.
+     *
+     * @return the name of this type
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
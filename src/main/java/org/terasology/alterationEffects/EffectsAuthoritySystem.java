@@ -2,12 +2,15 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.alterationEffects;
 
-import org.terasology.alterationEffects.boost.HealthBoostAlterationEffect;
-import org.terasology.alterationEffects.boost.HealthBoostComponent;
 import org.terasology.alterationEffects.breath.WaterBreathingAlterationEffect;
 import org.terasology.alterationEffects.breath.WaterBreathingComponent;
 import org.terasology.alterationEffects.decover.DecoverAlterationEffect;
 import org.terasology.alterationEffects.decover.DecoverComponent;
+import org.terasology.alterationEffects.expiry.EffectExpiryKey;
+import org.terasology.alterationEffects.ledger.ModifierLedgerManager;
+import org.terasology.alterationEffects.metrics.EffectMetrics;
+import org.terasology.alterationEffects.metrics.EffectStats;
+import org.terasology.alterationEffects.metrics.LatencyHistogram;
 import org.terasology.alterationEffects.regenerate.RegenerationAlterationEffect;
 import org.terasology.alterationEffects.regenerate.RegenerationComponent;
 import org.terasology.alterationEffects.speed.GlueAlterationEffect;
@@ -25,121 +28,94 @@ import org.terasology.alterationEffects.speed.SwimSpeedComponent;
 import org.terasology.alterationEffects.speed.WalkSpeedAlterationEffect;
 import org.terasology.alterationEffects.speed.WalkSpeedComponent;
 import org.terasology.engine.context.Context;
+import org.terasology.engine.entitySystem.entity.EntityManager;
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
 import org.terasology.engine.entitySystem.systems.RegisterSystem;
 import org.terasology.engine.logic.console.commandSystem.annotations.Command;
 import org.terasology.engine.logic.console.commandSystem.annotations.CommandParam;
 import org.terasology.engine.logic.console.commandSystem.annotations.Sender;
-import org.terasology.engine.logic.delay.DelayedActionTriggeredEvent;
 import org.terasology.engine.logic.permission.PermissionManager;
 import org.terasology.engine.network.ClientComponent;
 import org.terasology.engine.registry.In;
 import org.terasology.gestalt.entitysystem.component.Component;
-import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Locale;
 import java.util.Optional;
-import java.util.regex.Pattern;
 
 /**
- * This authority system manages the expiration of the basic alteration effects. Other authority systems will handle the
- * more complex effects that require more than just simply removing the effect component from the entity and informing
- * other systems.
+ * This authority system registers the basic alteration effects with the {@link EffectRegistry} and manages their
+ * expiration. Other authority systems will handle the more complex effects that require more than just simply removing
+ * the effect component from the entity and informing other systems.
  */
-@RegisterSystem
+@RegisterSystem(RegisterMode.AUTHORITY)
 public class EffectsAuthoritySystem extends BaseComponentSystem {
     /**
-     * This will store the mapping of the effect constants to the effect components.
+     * This Context is necessary for all the AlterationEffects due to timing and use of the EffectExpiryManager.
      */
-    private Map<String, Class<? extends Component>> effectComponents = new HashMap<>();
+    @In
+    private Context context;
 
-    /**
-     * This will store the mapping of the effect constants to the alteration effects.
-     */
-    private Map<String, AlterationEffect> alterationEffects = new HashMap<>();
+    @In
+    private EffectRegistry effectRegistry;
 
-    /**
-     * This Context is necessary for all the AlterationEffects due to timing and use of the DelayManager.
-     */
     @In
-    private Context context;
+    private ModifierLedgerManager ledgerManager;
+
+    @In
+    private EffectMetrics effectMetrics;
+
+    @In
+    private EntityManager entityManager;
 
     /**
-     * Initialize all elements of the two maps.
+     * Register the basic effects, together with their components and the expiry handler for them.
      */
     @Override
     public void initialise() {
-        effectComponents.put(AlterationEffects.WALK_SPEED, WalkSpeedComponent.class);
-        effectComponents.put(AlterationEffects.SWIM_SPEED, SwimSpeedComponent.class);
-        effectComponents.put(AlterationEffects.JUMP_SPEED, JumpSpeedComponent.class);
-        effectComponents.put(AlterationEffects.WATER_BREATHING, WaterBreathingComponent.class);
-        effectComponents.put(AlterationEffects.REGENERATION, RegenerationComponent.class);
-        effectComponents.put(AlterationEffects.MULTI_JUMP, MultiJumpComponent.class);
-        effectComponents.put(AlterationEffects.MAX_HEALTH_BOOST, HealthBoostComponent.class);
-        effectComponents.put(AlterationEffects.ITEM_USE_SPEED, ItemUseSpeedComponent.class);
-        effectComponents.put(AlterationEffects.STUN, StunComponent.class);
-        effectComponents.put(AlterationEffects.DECOVER, DecoverComponent.class);
-        effectComponents.put(AlterationEffects.GLUE, GlueComponent.class);
-
-        alterationEffects.put(AlterationEffects.WALK_SPEED, new WalkSpeedAlterationEffect(context));
-        alterationEffects.put(AlterationEffects.SWIM_SPEED, new SwimSpeedAlterationEffect(context));
-        alterationEffects.put(AlterationEffects.JUMP_SPEED, new JumpSpeedAlterationEffect(context));
-        alterationEffects.put(AlterationEffects.WATER_BREATHING, new WaterBreathingAlterationEffect(context));
-        alterationEffects.put(AlterationEffects.REGENERATION, new RegenerationAlterationEffect(context));
-        alterationEffects.put(AlterationEffects.MULTI_JUMP, new MultiJumpAlterationEffect(context));
-        alterationEffects.put(AlterationEffects.MAX_HEALTH_BOOST, new HealthBoostAlterationEffect(context));
-        alterationEffects.put(AlterationEffects.ITEM_USE_SPEED, new ItemUseSpeedAlterationEffect(context));
-        alterationEffects.put(AlterationEffects.STUN, new StunAlterationEffect(context));
-        alterationEffects.put(AlterationEffects.DECOVER, new DecoverAlterationEffect(context));
-        alterationEffects.put(AlterationEffects.GLUE, new GlueAlterationEffect(context));
+        register(AlterationEffects.WALK_SPEED, WalkSpeedComponent.class, new WalkSpeedAlterationEffect(context));
+        register(AlterationEffects.SWIM_SPEED, SwimSpeedComponent.class, new SwimSpeedAlterationEffect(context));
+        register(AlterationEffects.JUMP_SPEED, JumpSpeedComponent.class, new JumpSpeedAlterationEffect(context));
+        register(AlterationEffects.WATER_BREATHING, WaterBreathingComponent.class,
+                new WaterBreathingAlterationEffect(context));
+        register(AlterationEffects.REGENERATION, RegenerationComponent.class,
+                new RegenerationAlterationEffect(context));
+        register(AlterationEffects.MULTI_JUMP, MultiJumpComponent.class, new MultiJumpAlterationEffect(context));
+        register(AlterationEffects.ITEM_USE_SPEED, ItemUseSpeedComponent.class,
+                new ItemUseSpeedAlterationEffect(context));
+        register(AlterationEffects.STUN, StunComponent.class, new StunAlterationEffect(context));
+        register(AlterationEffects.DECOVER, DecoverComponent.class, new DecoverAlterationEffect(context));
+        register(AlterationEffects.GLUE, GlueComponent.class, new GlueAlterationEffect(context));
+    }
+
+    private void register(String name, Class<? extends Component> componentClass, AlterationEffect effect) {
+        effectRegistry.register(name, componentClass, effect, this::expireEffect);
     }
 
     /**
      * Once a basic effect's duration has expired, remove the effect from the entity that had it, send a removal event,
      * informing the other effect systems, and then re-apply the associated alteration effect.
      *
-     * @param event Event with information of what particular effect expired.
      * @param entity The entity that had the expired effect.
+     * @param expiryKey The key of the particular effect that expired.
      */
-    @ReceiveEvent
-    public void expireEffects(DelayedActionTriggeredEvent event, EntityRef entity) {
-        final String actionId = event.getActionId();
-
-        // First, make sure this expired event is actually part of the AlterationEffects module.
-        if (actionId.startsWith(AlterationEffects.EXPIRE_TRIGGER_PREFIX)) {
-            // Remove the expire trigger prefix and store the resultant String into effectNamePlusID.
-            String effectNamePlusID = actionId.substring(AlterationEffects.EXPIRE_TRIGGER_PREFIX.length());
-
-            // Split the effectNamePlusID into two parts. The first part will contain the AlterationEffect's name, and
-            // the second part will contain the effectID.
-            String[] parts = effectNamePlusID.split(Pattern.quote("|"), 2);
-
-            // If there are two items in the parts, set the effectID accordingly.
-            String effectID = "";
-            if (parts.length == 2) {
-                effectID = parts[1];
-            }
-
-            // Set the effectName using the first String in the parts array.
-            String effectName = parts[0];
-
-            // If this DelayedActionTriggeredEvent corresponds to one of the basic alteration effects.
-            final Class<? extends Component> component = effectComponents.get(effectName);
-            if (component != null) {
-                // Remove the component corresponding to this particular effect.
-                entity.removeComponent(component);
+    private void expireEffect(EntityRef entity, EffectExpiryKey expiryKey) {
+        final EffectType type = effectRegistry.resolve(expiryKey);
+        final AlterationEffect effect = effectRegistry.getEffect(type);
+
+        // Remove the component corresponding to this particular effect, unless other stacked sources of this
+        // effect remain. In that case, the component is updated in place when the effect is re-applied below.
+        if (!ledgerManager.expireContributions(entity, type.getName(), expiryKey.getId())) {
+            entity.removeComponent(effectRegistry.getComponentClass(type));
+        }
 
-                // Send out an event alerting the other effect-related systems that this effect has been removed.
-                entity.send(new OnEffectRemoveEvent(entity, entity, alterationEffects.get(effectName), effectID, "",
-                        true));
+        // Send out an event alerting the other effect-related systems that this effect has been removed.
+        entity.send(new OnEffectRemoveEvent(entity, entity, effect, expiryKey.getEffectId(), "", true));
 
-                // Re-apply this effect so that if there are any modifiers still in effect, they'll be recalculated and
-                // reapplied to the entity correctly.
-                alterationEffects.get(effectName).applyEffect(entity, entity, 0, 0);
-            }
-        }
+        // Re-apply this effect so that if there are any modifiers still in effect, they'll be recalculated and
+        // reapplied to the entity correctly.
+        effect.reapplyEffect(entity, expiryKey.getId());
     }
 
     @Command(value = "applyEffect", shortDescription = "apply an alteration effect to self", runOnServer = true,
@@ -148,11 +124,12 @@ public class EffectsAuthoritySystem extends BaseComponentSystem {
                                 @CommandParam(value = "the effect to apply") String effectId,
                                 @CommandParam(value = "the effect magnitude (default: 3)", required = false) Integer magnitude,
                                 @CommandParam(value = "the duration in ms (default: 5000)", required = false) Long duration) {
-        if (!alterationEffects.containsKey(effectId)) {
+        EffectType type = effectRegistry.get(effectId);
+        if (type == null) {
             return "ERROR: Unknown effect id!";
         }
         EntityRef player = client.getComponent(ClientComponent.class).character;
-        AlterationEffect effect = alterationEffects.get(effectId);
+        AlterationEffect effect = effectRegistry.getEffect(type);
 
         int m = Optional.ofNullable(magnitude).orElse(3);
         long d = Optional.ofNullable(duration).orElse(5000L);
@@ -160,4 +137,60 @@ public class EffectsAuthoritySystem extends BaseComponentSystem {
         effect.applyEffect(player, player, m, d);
         return "Applied effect '" + effectId + "' with a duration of " + d / 1000f + " seconds";
     }
+
+    @Command(value = "effectStats", shortDescription = "show runtime stats of the alteration effects",
+            helpText = "Shows the active effects, applications, expirations, and their latencies per effect type "
+                    + "since the stats were last reset.", runOnServer = true,
+            requiredPermission = PermissionManager.DEBUG_PERMISSION)
+    public String effectStatsCommand(
+            @CommandParam(value = "the effect to show (default: all in use)", required = false) String effectId) {
+        final double seconds = Math.max(effectMetrics.getNanosSinceReset() / 1e9, 1e-3);
+        StringBuilder result = new StringBuilder();
+        result.append(String.format(Locale.ROOT, "Effect stats of the last %.1f s:", seconds));
+        for (EffectType type : effectRegistry.getTypes()) {
+            if (effectId != null && !effectId.equalsIgnoreCase(type.getName())) {
+                continue;
+            }
+            final Class<? extends Component> componentClass = effectRegistry.getComponentClass(type);
+            final int active = componentClass != null ? entityManager.getCountOfEntitiesWith(componentClass) : 0;
+            final EffectStats stats = effectMetrics.getStats(type.getName());
+            if (effectId == null && active == 0 && stats.getApplies() == 0 && stats.getExpiries() == 0) {
+                continue;
+            }
+
+            result.append(String.format(Locale.ROOT,
+                    "\n%s: %d active, %d applies (%.1f/s, %d consumed, %d after expiry), %d expiries (%.1f/s)",
+                    type.getName(), active, stats.getApplies(), stats.getApplies() / seconds,
+                    stats.getConsumedApplies(), stats.getReapplies(), stats.getExpiries(),
+                    stats.getExpiries() / seconds));
+            result.append("\n  apply ").append(formatLatency(stats.getApplyTime()));
+            result.append("\n  expiry ").append(formatLatency(stats.getExpiryTime()));
+            if (stats.getDamageTicks() > 0 || stats.getDamageEvents() > 0) {
+                result.append(String.format(Locale.ROOT, "\n  %d damage ticks (%.1f/s), %d damage events (%.1f/s)",
+                        stats.getDamageTicks(), stats.getDamageTicks() / seconds,
+                        stats.getDamageEvents(), stats.getDamageEvents() / seconds));
+            }
+            if (stats.getDamageUpdates() > 0) {
+                result.append(String.format(Locale.ROOT,
+                        "\n  %d damage updates, %.1f entities per update (max %d), max %d damage events per update",
+                        stats.getDamageUpdates(), (double) stats.getDamagedEntities() / stats.getDamageUpdates(),
+                        stats.getMaxDamagedEntities(), stats.getMaxUpdateDamageEvents()));
+                result.append("\n  damage update ").append(formatLatency(stats.getDamageUpdateTime()));
+            }
+        }
+        return result.toString();
+    }
+
+    @Command(value = "resetEffectStats", shortDescription = "reset the runtime stats of the alteration effects",
+            runOnServer = true, requiredPermission = PermissionManager.DEBUG_PERMISSION)
+    public String resetEffectStatsCommand() {
+        effectMetrics.reset();
+        return "Effect stats reset";
+    }
+
+    private static String formatLatency(LatencyHistogram histogram) {
+        return String.format(Locale.ROOT, "mean %.1f us, p50 <= %.1f us, p99 <= %.1f us, max %.1f us",
+                histogram.getMeanNanos() / 1e3, histogram.getPercentileNanos(50) / 1e3,
+                histogram.getPercentileNanos(99) / 1e3, histogram.getMaxNanos() / 1e3);
+    }
 }
@@ -0,0 +1,115 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects;
+
+import gnu.trove.TCollections;
+import gnu.trove.list.TDoubleList;
+import gnu.trove.list.TFloatList;
+import gnu.trove.list.array.TDoubleArrayList;
+import gnu.trove.list.array.TFloatArrayList;
+
+import java.util.Arrays;
+
+/**
+ * Collects the modifiers or multipliers of one kind for {@link OnEffectModifyEvent} and {@link OnEffectRemoveEvent}.
+ * <p>
+ * Each value is folded into a running sum and product as it is added, so computing the result of an event does not
+ * need to walk the collected values. The raw values are kept in a primitive array that is reused when the accumulator
+ * is cleared. A read-only Trove list of the values is only created if it is explicitly requested, and is kept in sync
+ * with values added afterwards. Changing the values through that list would bypass the running totals, so it throws.
+ */
+final class ModifierAccumulator {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private double[] values = new double[INITIAL_CAPACITY];
+    private int size;
+    private double sum;
+    private double product = 1;
+
+    private TFloatList floatList;
+    private TDoubleList doubleList;
+    private TFloatList floatView;
+    private TDoubleList doubleView;
+
+    /**
+     * Add a value to this accumulator.
+     *
+     * @param value the modifier or multiplier to add
+     */
+    void add(double value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+        sum += value;
+        product *= value;
+
+        if (floatList != null) {
+            floatList.add((float) value);
+        }
+        if (doubleList != null) {
+            doubleList.add(value);
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * The sum of all values added so far, or 0 if there are none.
+     */
+    double sum() {
+        return sum;
+    }
+
+    /**
+     * The product of all values added so far, or 1 if there are none.
+     */
+    double product() {
+        return product;
+    }
+
+    /**
+     * Get the added values as an unmodifiable float list. The list is created on the first call.
+     */
+    TFloatList asFloatList() {
+        if (floatList == null) {
+            floatList = new TFloatArrayList(Math.max(size, INITIAL_CAPACITY));
+            for (int i = 0; i < size; i++) {
+                floatList.add((float) values[i]);
+            }
+            floatView = TCollections.unmodifiableList(floatList);
+        }
+        return floatView;
+    }
+
+    /**
+     * Get the added values as an unmodifiable double list. The list is created on the first call.
+     */
+    TDoubleList asDoubleList() {
+        if (doubleList == null) {
+            doubleList = new TDoubleArrayList(Math.max(size, INITIAL_CAPACITY));
+            doubleList.add(values, 0, size);
+            doubleView = TCollections.unmodifiableList(doubleList);
+        }
+        return doubleView;
+    }
+
+    /**
+     * Remove all values, keeping the allocated storage for reuse.
+     */
+    void clear() {
+        size = 0;
+        sum = 0;
+        product = 1;
+        floatList = null;
+        doubleList = null;
+        floatView = null;
+        doubleView = null;
+    }
+}
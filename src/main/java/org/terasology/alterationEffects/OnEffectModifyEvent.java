@@ -2,21 +2,37 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.alterationEffects;
 
-import gnu.trove.iterator.TDoubleIterator;
-import gnu.trove.iterator.TFloatIterator;
 import gnu.trove.list.TDoubleList;
 import gnu.trove.list.TFloatList;
-import gnu.trove.list.array.TDoubleArrayList;
-import gnu.trove.list.array.TFloatArrayList;
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.entitySystem.event.ConsumableEvent;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
 /**
  * This event is sent to an entity to collect all the potential magnitude and duration modifiers for a particular
  * alteration effect. The entire event may be consumed if needed. This is intended to be called when a new effect is
  * created or a new modifier is added.
+ * <p>
+ * Modifiers and multipliers are folded into running totals as they are added, and the raw lists are only created on
+ * request. Senders that don't keep the event after handling it can {@link #obtain} a pooled instance and
+ * {@link #release()} it afterwards, so that applying an effect does not allocate a new event every time.
  */
 public class OnEffectModifyEvent implements ConsumableEvent {
+    /**
+     * The maximum number of released events kept per thread. Nested applications of effects need one event each.
+     */
+    private static final int MAX_POOLED = 16;
+
+    private static final ThreadLocal<Deque<OnEffectModifyEvent>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * Flags whether this event is currently released to the pool.
+     */
+    private boolean pooled;
+
     /**
      * Flags whether this event been consumed or not.
      */
@@ -81,24 +97,45 @@ public class OnEffectModifyEvent implements ConsumableEvent {
     private String effectIDWithZeroDuration = "";
 
     /**
-     * A list of all the multipliers for this alteration effect's magnitude.
+     * All the multipliers for this alteration effect's magnitude.
+     */
+    private final ModifierAccumulator magnitudeMultipliers = new ModifierAccumulator();
+
+    /**
+     * All the multipliers for this alteration effect's duration.
+     */
+    private final ModifierAccumulator durationMultipliers = new ModifierAccumulator();
+
+    /**
+     * All the modifiers for this alteration effect's magnitude.
+     */
+    private final ModifierAccumulator magnitudeModifiers = new ModifierAccumulator();
+
+    /**
+     * All the modifiers for this alteration effect's duration.
+     */
+    private final ModifierAccumulator durationModifiers = new ModifierAccumulator();
+
+    /**
+     * The sources of the modifiers added via {@link #addModifier(String, float, double)}, in order. Created on first
+     * use and reused afterwards.
      */
-    private TFloatList magnitudeMultipliers = new TFloatArrayList();
+    private String[] attributedEffectIDs;
 
     /**
-     * A list of all the multipliers for this alteration effect's duration.
+     * The magnitudes of the modifiers added via {@link #addModifier(String, float, double)}.
      */
-    private TFloatList durationMultipliers = new TFloatArrayList();
+    private float[] attributedMagnitudes;
 
     /**
-     * A list of all the modifiers for this alteration effect's magnitude.
+     * The durations of the modifiers added via {@link #addModifier(String, float, double)}.
      */
-    private TFloatList magnitudeModifiers = new TFloatArrayList();
+    private double[] attributedDurations;
 
     /**
-     * A list of all the modifiers for this alteration effect's duration.
+     * The number of modifiers added via {@link #addModifier(String, float, double)}.
      */
-    private TDoubleList durationModifiers = new TDoubleArrayList();
+    private int attributedCount;
 
     /**
      * Create an instance of this event with the minimum number of required parameters. Only use this for debugging.
@@ -136,6 +173,75 @@ public class OnEffectModifyEvent implements ConsumableEvent {
         this.id = id;
     }
 
+    /**
+     * Get an instance of this event with the given base values, alteration effect, and ID (if needed). The instance is
+     * taken from a per-thread pool if possible, and should be handed back using {@link #release()} once the sender is
+     * done with it.
+     *
+     * @param instigator The entity that caused this effect to be applied or modified.
+     * @param entity The entity that the effect is currently on.
+     * @param baseMagnitude The base magnitude of this effect.
+     * @param baseDuration The base duration of this effect.
+     * @param alterationEffect The original alteration effect that created this effect.
+     * @param id The optional ID of this effect. Only used for effects that support sub-types (like DOT for example).
+     * @return An event that is not in use by anyone else.
+     */
+    public static OnEffectModifyEvent obtain(EntityRef instigator, EntityRef entity, float baseMagnitude,
+                                             long baseDuration, AlterationEffect alterationEffect, String id) {
+        OnEffectModifyEvent event = POOL.get().pollFirst();
+        if (event == null) {
+            return new OnEffectModifyEvent(instigator, entity, baseMagnitude, baseDuration, alterationEffect, id);
+        }
+        event.pooled = false;
+        event.instigator = instigator;
+        event.entity = entity;
+        event.baseMagnitude = baseMagnitude;
+        event.baseDuration = baseDuration;
+        event.alterationEffect = alterationEffect;
+        event.id = id;
+        return event;
+    }
+
+    /**
+     * Hand this event back to the pool of the current thread. The event must not be used afterwards. Releasing an event
+     * more than once has no effect.
+     */
+    public void release() {
+        if (pooled) {
+            return;
+        }
+        Deque<OnEffectModifyEvent> pool = POOL.get();
+        if (pool.size() < MAX_POOLED) {
+            reset();
+            pooled = true;
+            pool.addFirst(this);
+        }
+    }
+
+    private void reset() {
+        consumed = false;
+        instigator = null;
+        entity = null;
+        alterationEffect = null;
+        id = null;
+        baseMagnitude = 0f;
+        baseDuration = 0;
+        shortestDuration = Long.MAX_VALUE;
+        effectIDWithShortestDuration = "";
+        hasInfDuration = false;
+        effectIDWithInfiniteDuration = "";
+        hasZeroDuration = false;
+        effectIDWithZeroDuration = "";
+        magnitudeMultipliers.clear();
+        durationMultipliers.clear();
+        magnitudeModifiers.clear();
+        durationModifiers.clear();
+        if (attributedCount > 0) {
+            Arrays.fill(attributedEffectIDs, 0, attributedCount, null);
+            attributedCount = 0;
+        }
+    }
+
     /**
      * Get the entity who instigated this modify event.
      *
@@ -187,39 +293,70 @@ public class OnEffectModifyEvent implements ConsumableEvent {
     }
 
     /**
-     * Get a list of all the potion effect magnitude multipliers.
+     * Get a list of all the potion effect magnitude multipliers. The list is created on request, so prefer
+     * {@link #hasMagnitudeModifiers()} or the result values where possible.
+     * <p>
+     * The list is read-only and throws {@link UnsupportedOperationException} when changed.
+     * Use {@link #multiplyMagnitude(float)} to add a multiplier.
      *
      * @return A TFloatList containing the magnitude modifiers.
      */
     public TFloatList getMagnitudeMultipliers() {
-        return magnitudeMultipliers;
+        return magnitudeMultipliers.asFloatList();
     }
 
     /**
      * Get a list of all the potion effect duration multipliers.
+     * <p>
+     * The list is read-only and throws {@link UnsupportedOperationException} when changed.
+     * Use {@link #multiplyDuration(float)} to add a multiplier.
      *
      * @return A TFloatList containing the duration modifiers.
      */
     public TFloatList getDurationMultipliers() {
-        return durationMultipliers;
+        return durationMultipliers.asFloatList();
     }
 
     /**
      * Get a list of all the potion effect magnitude (pre)modifiers.
+     * <p>
+     * The list is read-only and throws {@link UnsupportedOperationException} when changed.
+     * Use {@link #addMagnitude(float)} to add a modifier.
      *
      * @return A TFloatList containing the magnitude (pre)modifiers.
      */
     public TFloatList getMagnitudeModifiers() {
-        return magnitudeModifiers;
+        return magnitudeModifiers.asFloatList();
     }
 
     /**
      * Get a list of all the potion effect duration (pre)modifiers.
+     * <p>
+     * The list is read-only and throws {@link UnsupportedOperationException} when changed.
+     * Use {@link #addDuration(double)} to add a modifier.
      *
      * @return A TDoubleList containing the duration (pre)modifiers.
      */
     public TDoubleList getDurationModifiers() {
-        return durationModifiers;
+        return durationModifiers.asDoubleList();
+    }
+
+    /**
+     * Get whether at least one magnitude (pre)modifier has been collected.
+     *
+     * @return True if there is a magnitude (pre)modifier.
+     */
+    public boolean hasMagnitudeModifiers() {
+        return !magnitudeModifiers.isEmpty();
+    }
+
+    /**
+     * Get whether at least one duration (pre)modifier has been collected.
+     *
+     * @return True if there is a duration (pre)modifier.
+     */
+    public boolean hasDurationModifiers() {
+        return !durationModifiers.isEmpty();
     }
 
     /**
@@ -319,6 +456,97 @@ public class OnEffectModifyEvent implements ConsumableEvent {
         durationModifiers.add(amount);
     }
 
+    /**
+     * Add a magnitude and duration (pre)modifier that both stem from the given source.
+     * <p>
+     * This is equivalent to calling {@link #addMagnitude(float)} and {@link #addDuration(double, String)}, but also
+     * records which source contributed the values. If all modifiers of an effect are added this way, the effect can be
+     * recalculated from the recorded contributions when one of them expires, instead of collecting all modifiers again.
+     * <p>
+     * Recording contributions is opt-in. None of the systems of this module contribute modifiers, so the ledger only
+     * takes effect for contributors in other modules that follow this contract:
+     * <ul>
+     *     <li>every modifier of the effect is added through this method, with a source ID that is unique for the
+     *     effect; a single plain modifier or any multiplier, from any contributor, disables the ledger for the effect
+     *     </li>
+     *     <li>the contribution of a source only changes by expiring after the given duration; if it changes otherwise,
+     *     e.g., when the item granting it is unequipped, the contributor sends an
+     *     {@link org.terasology.alterationEffects.ledger.InvalidateEffectModifiersEvent} to the entity</li>
+     * </ul>
+     *
+     * @param effectID The effectID of the source contributing the modifiers.
+     * @param magnitude The value of the magnitude modifier to add.
+     * @param duration The value of the duration modifier to add. Negative for infinite duration.
+     */
+    public void addModifier(String effectID, float magnitude, double duration) {
+        addMagnitude(magnitude);
+        addDuration(duration, effectID);
+
+        if (attributedEffectIDs == null) {
+            attributedEffectIDs = new String[4];
+            attributedMagnitudes = new float[4];
+            attributedDurations = new double[4];
+        } else if (attributedCount == attributedEffectIDs.length) {
+            attributedEffectIDs = Arrays.copyOf(attributedEffectIDs, attributedCount * 2);
+            attributedMagnitudes = Arrays.copyOf(attributedMagnitudes, attributedCount * 2);
+            attributedDurations = Arrays.copyOf(attributedDurations, attributedCount * 2);
+        }
+        attributedEffectIDs[attributedCount] = effectID;
+        attributedMagnitudes[attributedCount] = magnitude;
+        attributedDurations[attributedCount] = duration;
+        attributedCount++;
+    }
+
+    /**
+     * Get whether every modifier collected in this event was added via {@link #addModifier(String, float, double)} and
+     * no multipliers were added, i.e., whether the result can be attributed to individual sources.
+     *
+     * @return True if all modifiers can be attributed to their source.
+     */
+    public boolean isFullyAttributed() {
+        return magnitudeMultipliers.isEmpty() && durationMultipliers.isEmpty()
+                && magnitudeModifiers.size() == attributedCount && durationModifiers.size() == attributedCount;
+    }
+
+    /**
+     * Get the number of modifiers added via {@link #addModifier(String, float, double)}.
+     *
+     * @return The number of attributed modifiers.
+     */
+    public int getAttributedModifierCount() {
+        return attributedCount;
+    }
+
+    /**
+     * Get the source of an attributed modifier.
+     *
+     * @param index The index of the attributed modifier, in the order they were added.
+     * @return The effectID of the source.
+     */
+    public String getAttributedEffectID(int index) {
+        return attributedEffectIDs[index];
+    }
+
+    /**
+     * Get the magnitude of an attributed modifier.
+     *
+     * @param index The index of the attributed modifier, in the order they were added.
+     * @return The magnitude contributed by the source.
+     */
+    public float getAttributedMagnitude(int index) {
+        return attributedMagnitudes[index];
+    }
+
+    /**
+     * Get the duration of an attributed modifier.
+     *
+     * @param index The index of the attributed modifier, in the order they were added.
+     * @return The duration contributed by the source. Negative for infinite duration.
+     */
+    public double getAttributedDuration(int index) {
+        return attributedDurations[index];
+    }
+
     /**
      * Add a negative (pre)modifier to the magnitude (pre)modifiers list.
      *
@@ -344,27 +572,7 @@ public class OnEffectModifyEvent implements ConsumableEvent {
      */
     public float getMagnitudeResultValue() {
         // For now, add all modifiers and multiply by all multipliers.
-
-        // First add the (pre)modifiers.
-        float result = baseMagnitude;
-        TFloatIterator modifierIter = magnitudeModifiers.iterator();
-        while (modifierIter.hasNext()) {
-            result += modifierIter.next();
-        }
-
-        // Then, multiply the multipliers.
-        TFloatIterator multiplierIter = magnitudeMultipliers.iterator();
-        while (multiplierIter.hasNext()) {
-            result *= multiplierIter.next();
-        }
-
-        /*
-        final TFloatIterator postModifierIter = postModifiers.iterator();
-        while (postModifierIter.hasNext()) {
-            result += postModifierIter.next();
-        }
-        */
-        return result;
+        return (float) ((baseMagnitude + magnitudeModifiers.sum()) * magnitudeMultipliers.product());
     }
 
     /**
@@ -375,28 +583,8 @@ public class OnEffectModifyEvent implements ConsumableEvent {
     public long getDurationResultValue() {
         // For now, add all modifiers and multiply by all multipliers. Negative modifiers cap to zero, but negative
         // multipliers remain.
-
-        // First add the (pre)modifiers.
-        double result = baseDuration;
-        TDoubleIterator modifierIter = durationModifiers.iterator();
-        while (modifierIter.hasNext()) {
-            result += modifierIter.next();
-        }
-        result = Math.max(0, result);
-
-        // Then, multiply the multipliers.
-        TFloatIterator multiplierIter = magnitudeMultipliers.iterator();
-        while (multiplierIter.hasNext()) {
-            result *= multiplierIter.next();
-        }
-
-        /*
-        final TFloatIterator postModifierIter = postModifiers.iterator();
-        while (postModifierIter.hasNext()) {
-            result += postModifierIter.next();
-        }
-        */
-        return (long) result;
+        double result = Math.max(0, baseDuration + durationModifiers.sum());
+        return (long) (result * magnitudeMultipliers.product());
     }
 
     @Override
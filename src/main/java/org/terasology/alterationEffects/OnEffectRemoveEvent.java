@@ -2,12 +2,8 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.alterationEffects;
 
-import gnu.trove.iterator.TDoubleIterator;
-import gnu.trove.iterator.TFloatIterator;
 import gnu.trove.list.TDoubleList;
 import gnu.trove.list.TFloatList;
-import gnu.trove.list.array.TDoubleArrayList;
-import gnu.trove.list.array.TFloatArrayList;
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.entitySystem.event.ConsumableEvent;
 
@@ -67,24 +63,24 @@ public class OnEffectRemoveEvent implements ConsumableEvent {
     private long shortestDuration = Long.MAX_VALUE;
 
     /**
-     * A list of all the multipliers for this effect's magnitude.
+     * All the multipliers for this effect's magnitude.
      */
-    private TFloatList magnitudeMultipliers = new TFloatArrayList();
+    private final ModifierAccumulator magnitudeMultipliers = new ModifierAccumulator();
 
     /**
-     * A list of all the multipliers for this effect's duration.
+     * All the multipliers for this effect's duration.
      */
-    private TFloatList durationMultipliers = new TFloatArrayList();
+    private final ModifierAccumulator durationMultipliers = new ModifierAccumulator();
 
     /**
-     * A list of all the modifiers for this effect's magnitude.
+     * All the modifiers for this effect's magnitude.
      */
-    private TFloatList magnitudeModifiers = new TFloatArrayList();
+    private final ModifierAccumulator magnitudeModifiers = new ModifierAccumulator();
 
     /**
-     * A list of all the modifiers for this effect's duration.
+     * All the modifiers for this effect's duration.
      */
-    private TDoubleList durationModifiers = new TDoubleArrayList();
+    private final ModifierAccumulator durationModifiers = new ModifierAccumulator();
 
     /**
      * Create an instance of this event with the given base values, alteration effect, effectID (for differentiating individual effects),
@@ -181,38 +177,68 @@ public class OnEffectRemoveEvent implements ConsumableEvent {
 
     /**
      * Get a list of all the potion effect magnitude multipliers.
+     * <p>
+     * The list is read-only and throws {@link UnsupportedOperationException} when changed.
+     * Use {@link #multiplyMagnitude(float)} to add a multiplier.
      *
      * @return A TFloatList containing the magnitude modifiers.
      */
     public TFloatList getMagnitudeMultipliers() {
-        return magnitudeMultipliers;
+        return magnitudeMultipliers.asFloatList();
     }
 
     /**
      * Get a list of all the potion effect duration multipliers.
+     * <p>
+     * The list is read-only and throws {@link UnsupportedOperationException} when changed.
+     * Use {@link #multiplyDuration(float)} to add a multiplier.
      *
      * @return A TFloatList containing the duration modifiers.
      */
     public TFloatList getDurationMultipliers() {
-        return durationMultipliers;
+        return durationMultipliers.asFloatList();
     }
 
     /**
      * Get a list of all the potion effect magnitude (pre)modifiers.
+     * <p>
+     * The list is read-only and throws {@link UnsupportedOperationException} when changed.
+     * Use {@link #addMagnitude(float)} to add a modifier.
      *
      * @return A TFloatList containing the magnitude (pre)modifiers.
      */
     public TFloatList getMagnitudeModifiers() {
-        return magnitudeModifiers;
+        return magnitudeModifiers.asFloatList();
     }
 
     /**
      * Get a list of all the potion effect duration (pre)modifiers.
+     * <p>
+     * The list is read-only and throws {@link UnsupportedOperationException} when changed.
+     * Use {@link #addDuration(double)} to add a modifier.
      *
      * @return A TDoubleList containing the duration (pre)modifiers.
      */
     public TDoubleList getDurationModifiers() {
-        return durationModifiers;
+        return durationModifiers.asDoubleList();
+    }
+
+    /**
+     * Get whether at least one magnitude (pre)modifier has been collected.
+     *
+     * @return True if there is a magnitude (pre)modifier.
+     */
+    public boolean hasMagnitudeModifiers() {
+        return !magnitudeModifiers.isEmpty();
+    }
+
+    /**
+     * Get whether at least one duration (pre)modifier has been collected.
+     *
+     * @return True if there is a duration (pre)modifier.
+     */
+    public boolean hasDurationModifiers() {
+        return !durationModifiers.isEmpty();
     }
 
     /**
@@ -284,28 +310,8 @@ public class OnEffectRemoveEvent implements ConsumableEvent {
     public float getMagnitudeResultValue() {
         // For now, add all modifiers and multiply by all multipliers. Negative modifiers cap to zero, but negative
         // multipliers remain.
-
-        // First add the (pre)modifiers.
-        float result = baseMagnitude;
-        TFloatIterator modifierIter = magnitudeModifiers.iterator();
-        while (modifierIter.hasNext()) {
-            result += modifierIter.next();
-        }
-        result = Math.max(0, result);
-
-        // Then, multiply the multipliers.
-        TFloatIterator multiplierIter = magnitudeMultipliers.iterator();
-        while (multiplierIter.hasNext()) {
-            result *= multiplierIter.next();
-        }
-
-        /*
-        final TFloatIterator postModifierIter = postModifiers.iterator();
-        while (postModifierIter.hasNext()) {
-            result += postModifierIter.next();
-        }
-        */
-        return result;
+        double result = Math.max(0, baseMagnitude + magnitudeModifiers.sum());
+        return (float) (result * magnitudeMultipliers.product());
     }
 
     /**
@@ -316,28 +322,8 @@ public class OnEffectRemoveEvent implements ConsumableEvent {
     public long getDurationResultValue() {
         // For now, add all modifiers and multiply by all multipliers. Negative modifiers cap to zero, but negative
         // multipliers remain.
-
-        // First add the (pre)modifiers.
-        double result = baseDuration;
-        TDoubleIterator modifierIter = durationModifiers.iterator();
-        while (modifierIter.hasNext()) {
-            result += modifierIter.next();
-        }
-        result = Math.max(0, result);
-
-        // Then, multiply the multipliers.
-        TFloatIterator multiplierIter = magnitudeMultipliers.iterator();
-        while (multiplierIter.hasNext()) {
-            result *= multiplierIter.next();
-        }
-
-        /*
-        final TFloatIterator postModifierIter = postModifiers.iterator();
-        while (postModifierIter.hasNext()) {
-            result += postModifierIter.next();
-        }
-        */
-        return (long) result;
+        double result = Math.max(0, baseDuration + durationModifiers.sum());
+        return (long) (result * magnitudeMultipliers.product());
     }
 
     @Override
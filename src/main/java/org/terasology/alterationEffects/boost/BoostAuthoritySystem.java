@@ -2,10 +2,17 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.alterationEffects.boost;
 
+import org.terasology.alterationEffects.AlterationEffects;
+import org.terasology.alterationEffects.EffectRegistry;
+import org.terasology.alterationEffects.OnEffectRemoveEvent;
+import org.terasology.alterationEffects.expiry.EffectExpiryKey;
+import org.terasology.alterationEffects.ledger.ModifierLedgerManager;
+import org.terasology.engine.context.Context;
 import org.terasology.engine.core.Time;
 import org.terasology.engine.entitySystem.entity.EntityManager;
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
 import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
 import org.terasology.engine.entitySystem.systems.RegisterMode;
 import org.terasology.engine.entitySystem.systems.RegisterSystem;
@@ -14,7 +21,9 @@ import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
 import org.terasology.module.health.components.HealthComponent;
 
 /**
- * This authority system manages all the health boost effects currently in-effect across all entities.
+ * This authority system manages all the health boost effects currently in-effect across all entities. By that, it
+ * handles what course of action to take when a single source of a health boost expires, and keeps the max health of
+ * entities in sync with their health boosts when they are loaded or unloaded.
  */
 @RegisterSystem(value = RegisterMode.AUTHORITY)
 public class BoostAuthoritySystem extends BaseComponentSystem {
@@ -22,20 +31,115 @@ public class BoostAuthoritySystem extends BaseComponentSystem {
     private Time time;
     @In
     private EntityManager entityManager;
+    @In
+    private Context context;
+    @In
+    private EffectRegistry effectRegistry;
+    @In
+    private ModifierLedgerManager ledgerManager;
+
+    private HealthBoostAlterationEffect healthBoostAlterationEffect;
+
+    @Override
+    public void initialise() {
+        healthBoostAlterationEffect = new HealthBoostAlterationEffect(context);
+        effectRegistry.register(AlterationEffects.MAX_HEALTH_BOOST, HealthBoostComponent.class,
+                healthBoostAlterationEffect, this::expireHealthBoost);
+    }
+
+    /**
+     * When one source of this entity's health boost expires, remove it from the health boosts and recalculate the max
+     * health of the entity from the remaining ones.
+     *
+     * @param entity Entity that has the health boost component.
+     * @param expiryKey The key of the health boost source that expired.
+     */
+    private void expireHealthBoost(EntityRef entity, EffectExpiryKey expiryKey) {
+        final HealthBoostComponent component = entity.getComponent(HealthBoostComponent.class);
+        if (component == null) {
+            return;
+        }
+
+        final String source = expiryKey.hasId() ? expiryKey.getId() : "";
+
+        // Remove the boost of this source, unless other stacked modifiers of it remain. In either case, the max health
+        // is recalculated when the source is re-applied below.
+        if (!ledgerManager.expireContributions(entity, AlterationEffects.MAX_HEALTH_BOOST, source)) {
+            component.removeBoost(source);
+        }
+
+        // Send out an event alerting the other effect-related systems that this health boost has been removed.
+        entity.send(new OnEffectRemoveEvent(entity, entity, healthBoostAlterationEffect, expiryKey.getEffectId(),
+                source, true));
+
+        // Re-apply this source of the health boost so that if there are any modifiers still in effect, they'll be
+        // recalculated and reapplied to the entity correctly. This also removes the health boost component once no
+        // boosts remain.
+        healthBoostAlterationEffect.reapplyEffect(entity, source);
+    }
+
+    /**
+     * This will apply the health boost to the max health of an entity when its health boost component is activated,
+     * e.g., when the entity is loaded.
+     *
+     * @param event Event that indicates that the HealthBoostComponent has been activated.
+     * @param entity Entity that has the health boost component.
+     * @param hBoost The health boost component.
+     */
+    @ReceiveEvent
+    public void applyHealthBoost(OnActivatedComponent event, EntityRef entity, HealthBoostComponent hBoost) {
+        HealthComponent h = entity.getComponent(HealthComponent.class);
+        if (h == null) {
+            return;
+        }
+
+        // Health boosts stored by earlier versions of this module have neither a base max health nor sources. Their
+        // max health was already restored when they were unloaded.
+        if (hBoost.boosts.isEmpty() && hBoost.boostAmount != 0) {
+            hBoost.baseMaxHealth = h.maxHealth;
+            hBoost.lastEffectiveMaxHealth = h.maxHealth;
+            hBoost.boosts.put("", hBoost.boostAmount);
+        }
+
+        // Take over changes of the max health made while the entity was stored, e.g., by a changed prefab.
+        hBoost.rebase(h.maxHealth);
+        final int maxHealth = hBoost.getEffectiveMaxHealth();
+        hBoost.lastEffectiveMaxHealth = maxHealth;
+        if (h.maxHealth != maxHealth) {
+            h.maxHealth = maxHealth;
+            if (h.currentHealth > h.maxHealth) {
+                h.currentHealth = h.maxHealth;
+            }
+            entity.saveComponent(h);
+        }
+    }
 
     /**
-     * This will remove the health boost from an entity just before its health boost component is removed.
+     * This will remove the health boost from an entity just before its health boost component is removed or the
+     * entity is unloaded.
      *
      * @param event Event that indicates that the HealthBoostComponent will be deactivated and removed.
      * @param entity Entity that has the health boost component.
-     * @param hBoost The health boost component. Used as delimiter/filter as well as for its sole variable.
+     * @param hBoost The health boost component. Used as delimiter/filter as well as for the unboosted max health.
      */
     @ReceiveEvent
     public void removeHealthBoost(BeforeDeactivateComponent event, EntityRef entity, HealthBoostComponent hBoost) {
         HealthComponent h = entity.getComponent(HealthComponent.class);
+        if (h == null) {
+            return;
+        }
 
-        // Reverse the max health boosting effect by dividing the old boost amount.
-        h.maxHealth = Math.round(h.maxHealth / (1f + 0.01f * hBoost.boostAmount));
+        // Restore the unboosted max health, including changes made by others while the boost was active. The last
+        // written max health is updated as well, so that the boost is rebased correctly when the entity is loaded
+        // again.
+        //
+        // Both components are changed in place without saving them, like the other handlers of deactivation events:
+        // when the entity is unloaded or destroyed, the engine stores the state its components have after this event.
+        // When only the health boost component is removed, the health boost effect already saved the unboosted max
+        // health before removing it.
+        hBoost.rebase(h.maxHealth);
+        h.maxHealth = hBoost.baseMaxHealth;
+        hBoost.lastEffectiveMaxHealth = hBoost.baseMaxHealth;
 
         // If the current health is greater than the new max health, set the current health value to be the max health.
         if (h.currentHealth > h.maxHealth) {
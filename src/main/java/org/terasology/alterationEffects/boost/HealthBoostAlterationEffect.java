@@ -4,50 +4,56 @@ package org.terasology.alterationEffects.boost;
 
 import org.terasology.alterationEffects.AlterationEffect;
 import org.terasology.alterationEffects.AlterationEffects;
+import org.terasology.alterationEffects.EffectRegistry;
+import org.terasology.alterationEffects.EffectType;
 import org.terasology.alterationEffects.OnEffectModifyEvent;
+import org.terasology.alterationEffects.expiry.EffectExpiryKey;
+import org.terasology.alterationEffects.expiry.EffectExpiryManager;
+import org.terasology.alterationEffects.ledger.ModifierLedgerManager;
+import org.terasology.alterationEffects.metrics.EffectMetrics;
+import org.terasology.alterationEffects.metrics.EffectStats;
 import org.terasology.engine.context.Context;
 import org.terasology.engine.core.Time;
 import org.terasology.engine.entitySystem.entity.EntityRef;
-import org.terasology.engine.logic.delay.DelayManager;
+import org.terasology.engine.monitoring.Activity;
+import org.terasology.engine.monitoring.PerformanceMonitor;
 import org.terasology.module.health.components.HealthComponent;
 import org.terasology.math.TeraMath;
 
 /**
  * This handles the application of the health boost effect, which boosts an entity's maximum health (based on the
  * magnitude) for a specified duration.
+ * <p>
+ * Each source of the effect, identified by the ID it is applied with, keeps its own boost and expiry. Applying or
+ * expiring a source updates the {@link HealthBoostComponent} in place and recomputes the max health from the unboosted
+ * base, so each change is a single write to each component.
  */
 public class HealthBoostAlterationEffect implements AlterationEffect {
 
+    /** The performance monitor activity of applying a health boost. */
+    private static final String APPLY_ACTIVITY = "AlterationEffects: Apply " + AlterationEffects.MAX_HEALTH_BOOST;
+
     private final Time time;
-    private final DelayManager delayManager;
+    private final EffectExpiryManager expiryManager;
+    private final ModifierLedgerManager ledgerManager;
+    private final EffectStats stats;
+    private final EffectRegistry effectRegistry;
+
+    /** The registered type of this effect, looked up on first use. */
+    private EffectType type;
 
     /**
      * Constructor. Instantiate an instance of this alteration effect using the provided context. This context will be used to get the time
-     * and DelayManager.
+     * and the effect expiry manager.
      *
      * @param context The context which this effect will be executed on.
      */
     public HealthBoostAlterationEffect(Context context) {
         this.time = context.get(Time.class);
-        this.delayManager = context.get(DelayManager.class);
-    }
-
-    /**
-     * Removes the effect of the given health boost from the entity.
-     *
-     * @param entity The entity which has the health boost effect.
-     * @param hBoost The health boost component.
-     */
-    private void removeBoost(EntityRef entity, HealthBoostComponent hBoost) {
-        HealthComponent h = entity.getComponent(HealthComponent.class);
-
-        // Reverse the max health boosting effect by dividing the old boost amount.
-        h.maxHealth = Math.round(h.maxHealth / (1f + 0.01f * hBoost.boostAmount));
-
-        // If the current health is greater than the new max health, set the current health value to be the max health.
-        if (h.currentHealth > h.maxHealth) {
-            h.currentHealth = h.maxHealth;
-        }
+        this.expiryManager = context.get(EffectExpiryManager.class);
+        this.ledgerManager = context.get(ModifierLedgerManager.class);
+        this.stats = context.get(EffectMetrics.class).getStats(AlterationEffects.MAX_HEALTH_BOOST);
+        this.effectRegistry = context.get(EffectRegistry.class);
     }
 
     /**
@@ -61,22 +67,53 @@ public class HealthBoostAlterationEffect implements AlterationEffect {
      */
     @Override
     public void applyEffect(EntityRef instigator, EntityRef entity, float magnitude, long duration) {
-        // First, determine if the entity already has a health boost component attached. If so, just update the boost
-        // amount. Otherwise, create a new one and attach it to the entity.
+        try (Activity ignored = PerformanceMonitor.startActivity(APPLY_ACTIVITY)) {
+            applyEffect(instigator, entity, "", magnitude, duration, false);
+        }
+    }
+
+    /**
+     * This will re-apply a single source of the health boost effect after one of its modifiers expired. The remaining
+     * modifiers are taken from the modifier ledger if possible.
+     *
+     * @param entity The entity that the health boost effect is being re-applied on.
+     * @param id The source ID of the health boost.
+     */
+    @Override
+    public void reapplyEffect(EntityRef entity, String id) {
+        try (Activity ignored = PerformanceMonitor.startActivity(APPLY_ACTIVITY)) {
+            applyEffect(entity, entity, id, 0, 0, true);
+        }
+    }
+
+    private void applyEffect(EntityRef instigator, EntityRef entity, String id, float magnitude, long duration,
+                             boolean reapply) {
+        HealthComponent h = entity.getComponent(HealthComponent.class);
+        if (h == null) {
+            return;
+        }
+        final long startTime = System.nanoTime();
+        final String source = id == null ? "" : id;
+
+        // First, determine if the entity already has a health boost component attached. If not, create a new one and
+        // remember the unboosted max health of the entity. Otherwise, take over changes of the max health made by
+        // others since the health boost last set it.
         HealthBoostComponent hbot = entity.getComponent(HealthBoostComponent.class);
-        if (hbot == null) {
+        final boolean added = hbot == null;
+        if (added) {
             hbot = new HealthBoostComponent();
-            hbot.boostAmount = TeraMath.floorToInt(magnitude);
-            entity.addComponent(hbot);
+            hbot.baseMaxHealth = h.maxHealth;
+            hbot.lastEffectiveMaxHealth = h.maxHealth;
         } else {
-            // Remove the current health boost in place.
-            removeBoost(entity, hbot);
-            hbot.boostAmount = TeraMath.floorToInt(magnitude);
+            hbot.rebase(h.maxHealth);
         }
+        int boostAmount = TeraMath.floorToInt(magnitude);
 
         // Send out this event to collect all the duration and magnitude modifiers and multipliers that can affect this
-        // health boost effect.
-        OnEffectModifyEvent effectModifyEvent = entity.send(new OnEffectModifyEvent(instigator, entity, 0, 0, this, ""));
+        // source of the health boost effect.
+        OnEffectModifyEvent effectModifyEvent =
+                ledgerManager.collectModifiers(instigator, entity, this, AlterationEffects.MAX_HEALTH_BOOST, source,
+                        reapply);
         long modifiedDuration = 0;
         boolean modifiersFound = false;
 
@@ -93,57 +130,110 @@ public class HealthBoostAlterationEffect implements AlterationEffect {
             float modifiedMagnitude = effectModifyEvent.getMagnitudeResultValue();
             modifiedDuration = effectModifyEvent.getShortestDuration();
 
-            // If there's at least one duration and magnitude modifier, set the effect's boost amount and the
+            // If there's at least one duration and magnitude modifier, set the source's boost amount and the
             // modifiersFound flag.
-            if (!effectModifyEvent.getDurationModifiers().isEmpty() && !effectModifyEvent.getMagnitudeModifiers().isEmpty()) {
-                hbot.boostAmount = (int) modifiedMagnitude;
+            if (effectModifyEvent.hasDurationModifiers() && effectModifyEvent.hasMagnitudeModifiers()) {
+                boostAmount = (int) modifiedMagnitude;
                 modifiersFound = true;
             }
         }
 
-        hbot.lastUseTime = time.getGameTimeInMs();
-
-        // Get the health component of this entity, and increase its max health using the health boost multiplier.
-        HealthComponent h = entity.getComponent(HealthComponent.class);
-        h.maxHealth = Math.round(h.maxHealth * (1 + 0.01f * hbot.boostAmount));
-
-        // Save the component so the latest changes to it don't get lost when the game's exited.
-        entity.saveComponent(hbot);
+        // Boosts without a source ID keep the expiry keys of earlier versions of this module.
+        final String expiryId = source.isEmpty() ? null : source;
 
         // If the modified duration is between the accepted values (0 and Long.MAX_VALUE), and the base duration is not infinite,
-        // add a delayed action to the DelayManager using the new system.
+        // schedule the expiration using the new system.
         if (modifiedDuration < Long.MAX_VALUE && modifiedDuration > 0 && duration != AlterationEffects.DURATION_INDEFINITE) {
             String effectID = effectModifyEvent.getEffectIDWithShortestDuration();
-            delayManager.addDelayedAction(entity,
-                    AlterationEffects.EXPIRE_TRIGGER_PREFIX + AlterationEffects.MAX_HEALTH_BOOST + "|" + effectID, modifiedDuration);
+            EffectExpiryKey expiryKey = expiryKey(expiryId, effectID);
+            expiryManager.scheduleExpiry(entity, expiryKey, modifiedDuration);
+            hbot.setBoost(source, boostAmount);
 
         } else if (duration > 0 && !modifiersFound && !effectModifyEvent.isConsumed()) {
             // Otherwise, if the duration is greater than 0, there are no modifiers found, and the effect modify event was not consumed,
-            // add a delayed action to the DelayManager using the old system.
+            // schedule the expiration using the old system.
 
-            delayManager.addDelayedAction(entity, AlterationEffects.EXPIRE_TRIGGER_PREFIX + AlterationEffects.MAX_HEALTH_BOOST, duration);
+            EffectExpiryKey expiryKey = expiryKey(expiryId, null);
+            expiryManager.scheduleExpiry(entity, expiryKey, duration);
+            hbot.setBoost(source, boostAmount);
         } else if (!modifiersFound || !effectModifyEvent.getHasInfDuration()) {
             // Otherwise, if there are either no modifiers found, or none of the modifiers collected in the event have infinite
-            // duration, remove the component associated with this health boost effect.
+            // duration, remove this source of the health boost effect.
+
+            hbot.removeBoost(source);
+        } else {
+            // If this point is reached, there was at least one modifier collected in the event which has infinite
+            // duration.
+            hbot.setBoost(source, boostAmount);
+        }
+        final boolean consumed = effectModifyEvent.isConsumed();
+        effectModifyEvent.release();
+
+        // Recompute the max health from the unboosted max health and the boosts of all sources, and write both
+        // components once.
+        if (hbot.boosts.isEmpty()) {
+            if (!added) {
+                setMaxHealth(entity, h, hbot.baseMaxHealth);
+                entity.removeComponent(HealthBoostComponent.class);
+            }
+        } else {
+            hbot.lastUseTime = time.getGameTimeInMs();
+            hbot.lastEffectiveMaxHealth = hbot.getEffectiveMaxHealth();
+            setMaxHealth(entity, h, hbot.lastEffectiveMaxHealth);
+            if (added) {
+                entity.addComponent(hbot);
+            } else {
+                entity.saveComponent(hbot);
+            }
+        }
+        stats.recordApply(System.nanoTime() - startTime, consumed, reapply);
+    }
+
+    /**
+     * Set the max health of the entity, and cap its current health accordingly.
+     */
+    private static void setMaxHealth(EntityRef entity, HealthComponent h, int maxHealth) {
+        if (h.maxHealth == maxHealth) {
+            return;
+        }
+        h.maxHealth = maxHealth;
 
-            entity.removeComponent(HealthBoostComponent.class);
+        // If the current health is greater than the new max health, set the current health value to be the max health.
+        if (h.currentHealth > h.maxHealth) {
+            h.currentHealth = h.maxHealth;
         }
-        // If this point is reached and none of the above if-clauses were met, that means there was at least one modifier
-        // collected in the event which has infinite duration.
+        entity.saveComponent(h);
     }
 
     /**
-     * This will apply the health boost effect on the given entity by calling the method {@link #applyEffect(EntityRef, EntityRef, float,
-     * long)}.
+     * This will apply a single source of the health boost effect on the given entity. Boosts of different sources stack
+     * additively, while applying a source again replaces its previous boost.
      *
      * @param instigator The entity who applied the health boost effect.
      * @param entity The entity that the health boost effect is being applied on.
-     * @param id Inapplicable to the health boost effect.
+     * @param id The source ID of the health boost.
      * @param magnitude The magnitude of the health boost effect.
      * @param duration The duration of the health boost effect.
      */
     @Override
     public void applyEffect(EntityRef instigator, EntityRef entity, String id, float magnitude, long duration) {
-        applyEffect(instigator, entity, magnitude, duration);
+        try (Activity ignored = PerformanceMonitor.startActivity(APPLY_ACTIVITY)) {
+            applyEffect(instigator, entity, id, magnitude, duration, false);
+        }
+    }
+
+    /**
+     * Build the expiry key of this effect. The registered type of the effect is looked up on first use, so that the
+     * expiration is dispatched by its ordinal.
+     */
+    private EffectExpiryKey expiryKey(String id, String effectID) {
+        if (type == null) {
+            type = effectRegistry.get(AlterationEffects.MAX_HEALTH_BOOST);
+            if (type == null) {
+                // The effect is not registered, so its expirations are resolved by name.
+                return EffectExpiryKey.of(AlterationEffects.MAX_HEALTH_BOOST, id, effectID);
+            }
+        }
+        return EffectExpiryKey.of(type, id, effectID);
     }
 }
@@ -2,24 +2,96 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.alterationEffects.boost;
 
+import com.google.common.collect.Maps;
 import org.terasology.gestalt.entitysystem.component.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * This is the component added to entities with the health boost effect.
+ * <p>
+ * The boosts of all sources are stacked additively. The boosted max health is always computed from the unboosted
+ * {@link #baseMaxHealth}, so applying and removing boosts any number of times does not accumulate rounding errors.
+ * Changes of the max health made by others while the boost is active (e.g., by a level-up) are detected by comparing
+ * the max health of the entity with the {@link #lastEffectiveMaxHealth}, and carried over to the base, see
+ * {@link #rebase(int)}.
  */
 public class HealthBoostComponent implements Component<HealthBoostComponent> {
-    /** The amount the max health should be boosted by. 1 is equivalent to +1% max health on the applied entity. */
+    /**
+     * The total amount the max health should be boosted by, i.e., the sum of all {@link #boosts}. 1 is equivalent to
+     * +1% max health on the applied entity.
+     */
     public int boostAmount;
 
+    /** The max health of the entity without any health boost. */
+    public int baseMaxHealth;
+
+    /** The max health last written to the entity by the health boost effect. */
+    public int lastEffectiveMaxHealth;
+
+    /** The boost amounts by source ID. Boosts applied without an ID are stored under the empty string. */
+    public Map<String, Integer> boosts = new HashMap<>();
+
     /**
      * The last time this health boost was applied on the entity. This is also modified when the effect itself is
      * modified.
      */
     public long lastUseTime;
 
+    /**
+     * Set the boost amount of a single source, and update the total {@link #boostAmount} accordingly.
+     *
+     * @param source the source ID of the boost
+     * @param amount the new boost amount of the source
+     */
+    public void setBoost(String source, int amount) {
+        Integer previous = boosts.put(source, amount);
+        boostAmount += amount - (previous == null ? 0 : previous);
+    }
+
+    /**
+     * Remove the boost of a single source, and update the total {@link #boostAmount} accordingly.
+     *
+     * @param source the source ID of the boost
+     */
+    public void removeBoost(String source) {
+        Integer previous = boosts.remove(source);
+        if (previous != null) {
+            boostAmount -= previous;
+        }
+    }
+
+    /**
+     * Carry a change of the max health of the entity that was not made by the health boost effect over to the
+     * {@link #baseMaxHealth}. The difference to the {@link #lastEffectiveMaxHealth} is added to the base, so that the
+     * boosts apply on top of the changed max health.
+     *
+     * @param maxHealth the current max health of the entity
+     * @return whether the max health was changed by others
+     */
+    public boolean rebase(int maxHealth) {
+        if (maxHealth == lastEffectiveMaxHealth) {
+            return false;
+        }
+        baseMaxHealth = Math.max(0, baseMaxHealth + maxHealth - lastEffectiveMaxHealth);
+        lastEffectiveMaxHealth = maxHealth;
+        return true;
+    }
+
+    /**
+     * @return the max health of the entity with all boosts applied
+     */
+    public int getEffectiveMaxHealth() {
+        return Math.round(baseMaxHealth * (1 + 0.01f * boostAmount));
+    }
+
     @Override
     public void copyFrom(HealthBoostComponent other) {
         this.boostAmount = other.boostAmount;
+        this.baseMaxHealth = other.baseMaxHealth;
+        this.lastEffectiveMaxHealth = other.lastEffectiveMaxHealth;
+        this.boosts = Maps.newHashMap(other.boosts);
         this.lastUseTime = other.lastUseTime;
     }
 }
@@ -18,7 +18,7 @@ public class WaterBreathingAlterationEffect extends ComponentBasedAlterationEffe
 
     /**
      * Constructor. Instantiate an instance of this alteration effect using the provided context. This context will be
-     * used to get the DelayManager.
+     * used to get the EffectExpiryManager.
      *
      * @param context The context which this effect will be executed on.
      */
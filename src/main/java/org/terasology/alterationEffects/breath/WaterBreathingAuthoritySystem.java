@@ -2,32 +2,33 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.alterationEffects.breath;
 
+import org.terasology.alterationEffects.damage.CollectDamageModifiersEvent;
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
 import org.terasology.engine.entitySystem.systems.RegisterMode;
 import org.terasology.engine.entitySystem.systems.RegisterSystem;
-import org.terasology.engine.world.block.BlockComponent;
 import org.terasology.engine.world.block.BlockUri;
 import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
-import org.terasology.module.health.events.BeforeDamagedEvent;
 
 /**
  * This authority system manages all the water breathing effects currently in-effect across all entities.
  */
 @RegisterSystem(RegisterMode.AUTHORITY)
 public class WaterBreathingAuthoritySystem extends BaseComponentSystem {
+    /** The block whose damage is prevented by water breathing. */
+    private static final BlockUri WATER = new BlockUri("CoreAssets:Water");
+
     /**
-     * Cancel any potential oncoming water or drowning damage when the water breathing effect is currently in-effect.
+     * Cancel any potential oncoming water or drowning damage when the water breathing effect is currently in-effect,
+     * by making the entity immune to damage instigated by water.
      *
-     * @param event         Event with information of the incoming damage.
-     * @param entity        Entity that the damage was going to be dealt to.
+     * @param event         Event collecting the damage modifiers of the entity.
+     * @param entity        Entity that the damage is going to be dealt to.
      * @param component     Reference to the entity's water breathing component. Used as a delimiter/filter.
      */
     @ReceiveEvent
-    public void cancelDamageFromWater(BeforeDamagedEvent event, EntityRef entity, WaterBreathingComponent component) {
-        final BlockComponent block = event.getInstigator().getComponent(BlockComponent.class);
-        if (block != null && block.getBlock().getURI().equals(new BlockUri("CoreAssets:Water"))) {
-            event.consume();
-        }
+    public void collectWaterImmunity(CollectDamageModifiersEvent event, EntityRef entity,
+                                     WaterBreathingComponent component) {
+        event.getTable().addBlockImmunity(WATER);
     }
 }
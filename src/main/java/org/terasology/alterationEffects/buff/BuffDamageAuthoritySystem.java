@@ -3,18 +3,21 @@
 package org.terasology.alterationEffects.buff;
 
 import org.terasology.alterationEffects.AlterationEffects;
+import org.terasology.alterationEffects.EffectRegistry;
 import org.terasology.alterationEffects.OnEffectRemoveEvent;
+import org.terasology.alterationEffects.damage.CollectDamageModifiersEvent;
+import org.terasology.alterationEffects.damage.DamageModifierTable;
+import org.terasology.alterationEffects.expiry.EffectExpiryKey;
+import org.terasology.alterationEffects.ledger.ModifierLedgerManager;
 import org.terasology.engine.context.Context;
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
 import org.terasology.engine.entitySystem.systems.RegisterMode;
 import org.terasology.engine.entitySystem.systems.RegisterSystem;
-import org.terasology.engine.logic.delay.DelayedActionTriggeredEvent;
 import org.terasology.engine.registry.In;
 import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
-import org.terasology.module.health.events.BeforeDamagedEvent;
 
-import java.util.regex.Pattern;
+import java.util.Map;
 
 /**
  * This authority system manages all the buff damage effects currently in-effect across all entities. By that, it
@@ -24,89 +27,69 @@ import java.util.regex.Pattern;
 public class BuffDamageAuthoritySystem extends BaseComponentSystem {
     @In
     private Context context;
+    @In
+    private EffectRegistry effectRegistry;
+    @In
+    private ModifierLedgerManager ledgerManager;
+
+    private BuffDamageAlterationEffect buffDamageAlterationEffect;
+
+    @Override
+    public void initialise() {
+        buffDamageAlterationEffect = new BuffDamageAlterationEffect(context);
+        effectRegistry.register(AlterationEffects.BUFF_DAMAGE, BuffDamageComponent.class, buffDamageAlterationEffect,
+                this::expireBuffDamage);
+    }
 
     /**
      * When one of this entity's buff damage effects expire, remove it from the damage buff effects map and recalculate the total magnitude
      * for this damage type.
      *
-     * @param event Event that indicates that the delayed action has expired.
      * @param entity Entity that has the buff damage component.
-     * @param component Stores information of all the entity's current damage buffs.
+     * @param expiryKey The key of the buff damage effect that expired.
      */
-    @ReceiveEvent
-    public void expireBuffDamageEffect(DelayedActionTriggeredEvent event, EntityRef entity, BuffDamageComponent component) {
-        final String actionId = event.getActionId();
-
-        // First, make sure this expired event is actually part of the AlterationEffects module.
-        if (actionId.startsWith(AlterationEffects.EXPIRE_TRIGGER_PREFIX)) {
-            // Make sure that this effect actionID actually has four parts to it (before the effectID). If not, return,
-            // as this is the wrong format for this kind of AlterationEffect.
-            String[] split = actionId.split(":");
-            if (split.length != 4) {
-                return;
-            }
-
-            // Remove the expire trigger prefix and store the resultant String into effectNamePlusID.
-            String effectNamePlusID = actionId.substring(AlterationEffects.EXPIRE_TRIGGER_PREFIX.length());
-
-            // Split the effectNamePlusID into two parts. The first part will contain the AlterationEffect's name and
-            // the ID, and the second part will contain the effectID.
-            String[] parts = effectNamePlusID.split(Pattern.quote("|"), 2);
-
-            String effectID = "";
-            String damageID = "";
+    private void expireBuffDamage(EntityRef entity, EffectExpiryKey expiryKey) {
+        final BuffDamageComponent component = entity.getComponent(BuffDamageComponent.class);
+        if (component == null || !expiryKey.hasId()) {
+            return;
+        }
 
-            // If there are two items in the parts, set the damageID and effectID accordingly.
-            if (parts.length == 2) {
-                // Split parts[0] into two items using ':' as a delimiter. The first item will contain the
-                // AlterationEffect name, and the second item will contain the damage type (or ID).
-                damageID = parts[0].split(":")[1];
-                effectID = parts[1];
-            }
+        final String damageID = expiryKey.getId();
+        final String effectID = expiryKey.getEffectId();
 
-            // If this DelayedActionTriggeredEvent corresponds to this particular BuffDamage effect.
-            if (split[2].equalsIgnoreCase(AlterationEffects.BUFF_DAMAGE)) {
-                // Remove the BuffDamageEffect from the damage buffs map.
-                component.bdes.remove(damageID);
+        // Remove the BuffDamageEffect from the damage buffs map, unless other stacked sources of this effect remain.
+        // In that case, it is updated in place when the effect is re-applied below.
+        if (!ledgerManager.expireContributions(entity, AlterationEffects.BUFF_DAMAGE, damageID)) {
+            component.bdes.remove(damageID);
+        }
 
-                // Create a new resist damage alteration effect using the current context. Then, send out an event
-                // alerting the other effect-related systems that this particular buff damage effect has been
-                // removed.
-                BuffDamageAlterationEffect buffDamageAlterationEffect = new BuffDamageAlterationEffect(context);
-                entity.send(new OnEffectRemoveEvent(entity, entity, buffDamageAlterationEffect, effectID, damageID));
+        // Send out an event alerting the other effect-related systems that this particular buff damage effect has
+        // been removed.
+        entity.send(new OnEffectRemoveEvent(entity, entity, buffDamageAlterationEffect, effectID, damageID));
 
-                // Re-apply the buff damage effect of this particular effect type so that if there are any modifiers
-                // still in effect, they'll be recalculated and reapplied to the entity correctly.
-                buffDamageAlterationEffect.applyEffect(entity, entity, damageID, 0, 0);
+        // Re-apply the buff damage effect of this particular effect type so that if there are any modifiers
+        // still in effect, they'll be recalculated and reapplied to the entity correctly.
+        buffDamageAlterationEffect.reapplyEffect(entity, damageID);
 
-                // If the size of the damage buffs map is zero and the buff damage component doesn't exist
-                // anymore, remove it from the entity.
-                if (component.bdes.size() == 0) {
-                    entity.removeComponent(BuffDamageComponent.class);
-                }
-            }
+        // If the size of the damage buffs map is zero, remove the buff damage component from the entity.
+        if (component.bdes.size() == 0) {
+            entity.removeComponent(BuffDamageComponent.class);
         }
     }
 
     /**
-     * Upon getting a damage event and the entity on the sending end has a damage buff, check to see if the incoming damage type matches the
-     * buff's type. If so, increase the damage by the buff's amount.
+     * Add the damage buffs of the entity to its damage modifiers. The buffs increase damage of the matching type by
+     * their amount.
      *
-     * @param event Event with information of the outgoing damage.
-     * @param entity Entity that's dealing the damage.
+     * @param event Event collecting the damage modifiers of the entity.
+     * @param entity Entity that the damage is going to be dealt to.
      * @param component Stores information of all the entity's current damage buffs.
      */
     @ReceiveEvent
-    public void buffDamageOfType(BeforeDamagedEvent event, EntityRef entity, BuffDamageComponent component) {
-        String damageType = event.getDamageType().getName();
-
-        // If the damage type matches one of the buffs.
-        if (component.bdes.containsKey(damageType.split(":", 2)[1])) {
-            // Get the details of the buff.
-            BuffDamageEffect bdEffect = component.bdes.get(damageType.split(":", 2)[1]);
-
-            // Add the buff amount to the damage.
-            event.add(bdEffect.buffAmount);
+    public void collectDamageBuffs(CollectDamageModifiersEvent event, EntityRef entity, BuffDamageComponent component) {
+        final DamageModifierTable table = event.getTable();
+        for (Map.Entry<String, BuffDamageEffect> entry : component.bdes.entrySet()) {
+            table.addBonus(entry.getKey(), entry.getValue().buffAmount);
         }
     }
 }
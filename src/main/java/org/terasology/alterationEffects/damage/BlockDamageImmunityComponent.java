@@ -0,0 +1,23 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.damage;
+
+import com.google.common.collect.Lists;
+import org.terasology.gestalt.entitysystem.component.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entities with this component take no damage instigated by blocks of the listed block families, e.g., for lava-walking
+ * boots.
+ */
+public class BlockDamageImmunityComponent implements Component<BlockDamageImmunityComponent> {
+    /** The URIs of the block families whose damage is prevented, e.g., "CoreAssets:Lava". */
+    public List<String> blockFamilies = new ArrayList<>();
+
+    @Override
+    public void copyFrom(BlockDamageImmunityComponent other) {
+        this.blockFamilies = Lists.newArrayList(other.blockFamilies);
+    }
+}
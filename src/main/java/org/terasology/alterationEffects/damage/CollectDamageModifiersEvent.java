@@ -0,0 +1,27 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.damage;
+
+import org.terasology.gestalt.entitysystem.event.Event;
+
+/**
+ * This event is sent to an entity with a {@link DamageModifiersComponent} whenever its damage modifiers need to be
+ * compiled. Systems contribute their modifiers by adding them to the {@link DamageModifierTable} of the event.
+ * <p>
+ * This event is only sent after a contributing effect changed, not on every damage event, so contributors do not need
+ * to be particularly cheap.
+ */
+public class CollectDamageModifiersEvent implements Event {
+    private final DamageModifierTable table;
+
+    public CollectDamageModifiersEvent(DamageModifierTable table) {
+        this.table = table;
+    }
+
+    /**
+     * @return the table to add modifiers to
+     */
+    public DamageModifierTable getTable() {
+        return table;
+    }
+}
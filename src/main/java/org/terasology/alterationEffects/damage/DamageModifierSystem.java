@@ -0,0 +1,227 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.damage;
+
+import org.terasology.alterationEffects.DamageTypeRegistry;
+import org.terasology.alterationEffects.breath.WaterBreathingComponent;
+import org.terasology.alterationEffects.buff.BuffDamageComponent;
+import org.terasology.alterationEffects.resist.ResistDamageComponent;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeRemoveComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnChangedComponent;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.world.block.BlockComponent;
+import org.terasology.engine.world.block.BlockManager;
+import org.terasology.engine.world.block.BlockUri;
+import org.terasology.engine.world.block.family.BlockFamily;
+import org.terasology.gestalt.entitysystem.component.Component;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+import org.terasology.module.health.events.BeforeDamagedEvent;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This authority system applies the damage modifiers of all alteration effects on an entity with a single
+ * {@link BeforeDamagedEvent} handler.
+ * <p>
+ * The modifiers are collected into a {@link DamageModifierTable} via {@link CollectDamageModifiersEvent} on the first
+ * damage event after one of the contributing effects was applied, changed, or removed. All further damage events only
+ * read the table. New kinds of damage modifiers are added by contributing to the table, not by adding handlers to the
+ * damage pipeline.
+ * <p>
+ * The table is rebuilt rather than patched when a contributing effect changes. Multipliers and immunities cannot be
+ * taken back out of a table without tracking every contribution separately, and contributions of other modules are
+ * only known through the event. A rebuild costs one event per change, only happens if the entity is damaged again
+ * before its next change, and all damage events in between only read the table.
+ * <p>
+ * Block families that entities are immune to are resolved against an index of all registered block families, which is
+ * built once and shared by all entities. Looking up a family that is not registered is a miss in that index, and never
+ * makes the {@link BlockManager} register the family. The index is rebuilt when the number of registered block families
+ * changes, e.g., when families are registered or reloaded after the world was loaded, and compiled tables resolve
+ * their block families again on their next damage event.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+public class DamageModifierSystem extends BaseComponentSystem {
+    @In
+    private DamageTypeRegistry damageTypeRegistry;
+    @In
+    private BlockManager blockManager;
+
+    /** All registered block families, by URI. */
+    private Map<BlockUri, BlockFamily> blockFamilies = Collections.emptyMap();
+
+    /** The number of registered block families when {@link #blockFamilies} was built, or -1 if it was not built yet. */
+    private int indexedBlockFamilyCount = -1;
+
+    /** Incremented whenever {@link #blockFamilies} is rebuilt, so that compiled tables resolve their families again. */
+    private int blockFamilyGeneration;
+
+    /**
+     * Apply the damage modifiers of the entity to incoming damage.
+     *
+     * @param event Event with information of the incoming damage.
+     * @param entity Entity that the damage is going to be dealt to.
+     * @param component The compiled damage modifiers of the entity.
+     */
+    @ReceiveEvent
+    public void modifyDamage(BeforeDamagedEvent event, EntityRef entity, DamageModifiersComponent component) {
+        DamageModifierTable table = component.table;
+        if (table == null) {
+            table = new DamageModifierTable(damageTypeRegistry);
+            entity.send(new CollectDamageModifiersEvent(table));
+            component.table = table;
+        }
+
+        BlockFamily instigatorFamily = null;
+        if (table.hasBlockImmunities()) {
+            updateBlockFamilies();
+            if (table.getBlockFamilyGeneration() != blockFamilyGeneration) {
+                table.resolveBlockImmunities(blockFamilies::get, blockFamilyGeneration);
+            }
+            final BlockComponent block = event.getInstigator().getComponent(BlockComponent.class);
+            if (block != null) {
+                instigatorFamily = block.getBlock().getBlockFamily();
+            }
+        }
+        table.apply(event, damageTypeRegistry.getId(event.getDamageType()), instigatorFamily);
+    }
+
+    /**
+     * Add the block families listed in the entity's {@link BlockDamageImmunityComponent} to its damage modifiers.
+     *
+     * @param event Event collecting the damage modifiers of the entity.
+     * @param entity Entity that the damage is going to be dealt to.
+     * @param component The block families the entity is immune to.
+     */
+    @ReceiveEvent
+    public void collectBlockDamageImmunities(CollectDamageModifiersEvent event, EntityRef entity,
+                                             BlockDamageImmunityComponent component) {
+        for (String blockFamily : component.blockFamilies) {
+            event.getTable().addBlockImmunity(new BlockUri(blockFamily));
+        }
+    }
+
+    // -- Buff damage --------------------------------------------------------------------------------------------------
+
+    @ReceiveEvent(components = BuffDamageComponent.class)
+    public void onBuffDamageActivated(OnActivatedComponent event, EntityRef entity) {
+        invalidateModifiers(entity);
+    }
+
+    @ReceiveEvent(components = BuffDamageComponent.class)
+    public void onBuffDamageChanged(OnChangedComponent event, EntityRef entity) {
+        invalidateModifiers(entity);
+    }
+
+    @ReceiveEvent(components = BuffDamageComponent.class)
+    public void onBuffDamageRemoved(BeforeRemoveComponent event, EntityRef entity) {
+        removeModifiers(entity, BuffDamageComponent.class);
+    }
+
+    // -- Resist damage ------------------------------------------------------------------------------------------------
+
+    @ReceiveEvent(components = ResistDamageComponent.class)
+    public void onResistDamageActivated(OnActivatedComponent event, EntityRef entity) {
+        invalidateModifiers(entity);
+    }
+
+    @ReceiveEvent(components = ResistDamageComponent.class)
+    public void onResistDamageChanged(OnChangedComponent event, EntityRef entity) {
+        invalidateModifiers(entity);
+    }
+
+    @ReceiveEvent(components = ResistDamageComponent.class)
+    public void onResistDamageRemoved(BeforeRemoveComponent event, EntityRef entity) {
+        removeModifiers(entity, ResistDamageComponent.class);
+    }
+
+    // -- Water breathing ----------------------------------------------------------------------------------------------
+
+    @ReceiveEvent(components = WaterBreathingComponent.class)
+    public void onWaterBreathingActivated(OnActivatedComponent event, EntityRef entity) {
+        invalidateModifiers(entity);
+    }
+
+    @ReceiveEvent(components = WaterBreathingComponent.class)
+    public void onWaterBreathingChanged(OnChangedComponent event, EntityRef entity) {
+        invalidateModifiers(entity);
+    }
+
+    @ReceiveEvent(components = WaterBreathingComponent.class)
+    public void onWaterBreathingRemoved(BeforeRemoveComponent event, EntityRef entity) {
+        removeModifiers(entity, WaterBreathingComponent.class);
+    }
+
+    // -- Block damage immunity ----------------------------------------------------------------------------------------
+
+    @ReceiveEvent(components = BlockDamageImmunityComponent.class)
+    public void onBlockDamageImmunityActivated(OnActivatedComponent event, EntityRef entity) {
+        invalidateModifiers(entity);
+    }
+
+    @ReceiveEvent(components = BlockDamageImmunityComponent.class)
+    public void onBlockDamageImmunityChanged(OnChangedComponent event, EntityRef entity) {
+        invalidateModifiers(entity);
+    }
+
+    @ReceiveEvent(components = BlockDamageImmunityComponent.class)
+    public void onBlockDamageImmunityRemoved(BeforeRemoveComponent event, EntityRef entity) {
+        removeModifiers(entity, BlockDamageImmunityComponent.class);
+    }
+
+    /**
+     * Rebuild the index of registered block families if their number changed since it was last built. Only registered
+     * families are indexed, as looking up a family by URI would register it if it is not registered yet.
+     */
+    private void updateBlockFamilies() {
+        final int blockFamilyCount = blockManager.getBlockFamilyCount();
+        if (blockFamilyCount == indexedBlockFamilyCount) {
+            return;
+        }
+        Map<BlockUri, BlockFamily> index = new HashMap<>();
+        for (BlockFamily blockFamily : blockManager.listRegisteredBlockFamilies()) {
+            index.put(blockFamily.getURI(), blockFamily);
+        }
+        blockFamilies = index;
+        indexedBlockFamilyCount = blockFamilyCount;
+        blockFamilyGeneration++;
+    }
+
+    /**
+     * Make sure the entity has a {@link DamageModifiersComponent}, and drop its compiled modifiers.
+     */
+    private void invalidateModifiers(EntityRef entity) {
+        DamageModifiersComponent component = entity.getComponent(DamageModifiersComponent.class);
+        if (component == null) {
+            entity.addComponent(new DamageModifiersComponent());
+        } else {
+            component.invalidate();
+        }
+    }
+
+    /**
+     * Drop the compiled modifiers of the entity when a contributing component is about to be removed, or remove the
+     * {@link DamageModifiersComponent} if it was the last one.
+     */
+    private void removeModifiers(EntityRef entity, Class<? extends Component> removed) {
+        if (hasOther(entity, BuffDamageComponent.class, removed)
+                || hasOther(entity, ResistDamageComponent.class, removed)
+                || hasOther(entity, WaterBreathingComponent.class, removed)
+                || hasOther(entity, BlockDamageImmunityComponent.class, removed)) {
+            invalidateModifiers(entity);
+        } else if (entity.hasComponent(DamageModifiersComponent.class)) {
+            entity.removeComponent(DamageModifiersComponent.class);
+        }
+    }
+
+    private static boolean hasOther(EntityRef entity, Class<? extends Component> componentClass,
+                                    Class<? extends Component> removed) {
+        return componentClass != removed && entity.hasComponent(componentClass);
+    }
+}
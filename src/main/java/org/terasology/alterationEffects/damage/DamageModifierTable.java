@@ -0,0 +1,201 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.damage;
+
+import org.terasology.alterationEffects.DamageTypeRegistry;
+import org.terasology.engine.world.block.BlockUri;
+import org.terasology.engine.world.block.family.BlockFamily;
+import org.terasology.module.health.events.BeforeDamagedEvent;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The combined damage modifiers of all effects on a single entity.
+ * <p>
+ * Modifiers are stored in arrays indexed by the ID assigned to each damage type by the {@link DamageTypeRegistry}, so
+ * applying them to a damage event costs a few array reads no matter how many effects contributed. Per damage type, a
+ * table holds a flat bonus, a flat resistance, a multiplier, and an immunity. In addition, an entity can be immune to
+ * damage instigated by blocks of certain block families. These are resolved to their {@link BlockFamily} instances
+ * once, so checking an instigating block is a single identity lookup.
+ * <p>
+ * A table is filled once by the contributors of a {@link CollectDamageModifiersEvent} and only read afterwards. Only
+ * its block families are resolved again when the registered block families change.
+ */
+public final class DamageModifierTable {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final DamageTypeRegistry damageTypeRegistry;
+
+    private int[] bonuses = new int[INITIAL_CAPACITY];
+    private int[] resistances = new int[INITIAL_CAPACITY];
+    private boolean[] resisted = new boolean[INITIAL_CAPACITY];
+    private float[] multipliers = newMultipliers(INITIAL_CAPACITY);
+    private boolean[] immunities = new boolean[INITIAL_CAPACITY];
+
+    private final Set<BlockUri> blockImmunities = new HashSet<>();
+    private Set<BlockFamily> immuneBlockFamilies = Collections.emptySet();
+    private int blockFamilyGeneration = -1;
+
+    public DamageModifierTable(DamageTypeRegistry damageTypeRegistry) {
+        this.damageTypeRegistry = damageTypeRegistry;
+    }
+
+    /**
+     * Add a flat amount to all damage of the given type.
+     *
+     * @param damageType the short name of the damage type, e.g., "poisonDamage"
+     * @param amount the amount to add
+     */
+    public void addBonus(String damageType, int amount) {
+        final int id = index(damageType);
+        bonuses[id] += amount;
+    }
+
+    /**
+     * Subtract a flat amount from all damage of the given type. The damage never drops below zero by resistances.
+     *
+     * @param damageType the short name of the damage type
+     * @param amount the amount to subtract
+     */
+    public void addResistance(String damageType, int amount) {
+        final int id = index(damageType);
+        resistances[id] += amount;
+        resisted[id] = true;
+    }
+
+    /**
+     * Multiply all damage of the given type, e.g., by 0.75 for a resistance of 25%.
+     *
+     * @param damageType the short name of the damage type
+     * @param factor the factor to multiply the damage by
+     */
+    public void addMultiplier(String damageType, float factor) {
+        final int id = index(damageType);
+        multipliers[id] *= factor;
+    }
+
+    /**
+     * Prevent all damage of the given type.
+     *
+     * @param damageType the short name of the damage type
+     */
+    public void addImmunity(String damageType) {
+        final int id = index(damageType);
+        immunities[id] = true;
+    }
+
+    /**
+     * Prevent all damage instigated by blocks of the given block family.
+     *
+     * @param blockFamily the URI of the block family, e.g., "CoreAssets:Water"
+     */
+    public void addBlockImmunity(BlockUri blockFamily) {
+        blockImmunities.add(blockFamily);
+    }
+
+    /**
+     * Check whether damage needs to be checked against instigating blocks, see {@link #addBlockImmunity(BlockUri)}.
+     */
+    public boolean hasBlockImmunities() {
+        return !blockImmunities.isEmpty();
+    }
+
+    /**
+     * @return the generation of the block families this table's block immunities were last resolved against, or -1
+     *         if they were not resolved yet
+     */
+    int getBlockFamilyGeneration() {
+        return blockFamilyGeneration;
+    }
+
+    /**
+     * Resolve the block families added by {@link #addBlockImmunity(BlockUri)}, replacing the ones resolved before.
+     * Families that cannot be resolved are ignored.
+     *
+     * @param resolver resolves the URI of a block family to the family, or null if it is not registered
+     * @param generation the generation of the block families the resolver looks up
+     */
+    void resolveBlockImmunities(Function<BlockUri, BlockFamily> resolver, int generation) {
+        blockFamilyGeneration = generation;
+        if (blockImmunities.isEmpty()) {
+            return;
+        }
+        immuneBlockFamilies = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (BlockUri uri : blockImmunities) {
+            BlockFamily blockFamily = resolver.apply(uri);
+            if (blockFamily != null) {
+                immuneBlockFamilies.add(blockFamily);
+            }
+        }
+    }
+
+    /**
+     * Apply the modifiers for the damage type to a damage event.
+     * <p>
+     * Immunities consume the event. Otherwise, the bonus is added first, then the resistance is subtracted, and then
+     * the multiplier is applied.
+     *
+     * @param event the damage event to modify
+     * @param damageTypeId the ID of the damage type of the event, or {@link DamageTypeRegistry#UNKNOWN}
+     * @param instigatorFamily the block family of the block that instigated the damage, or null if there is none
+     */
+    public void apply(BeforeDamagedEvent event, int damageTypeId, BlockFamily instigatorFamily) {
+        if (instigatorFamily != null && immuneBlockFamilies.contains(instigatorFamily)) {
+            event.consume();
+            return;
+        }
+        if (damageTypeId < 0 || damageTypeId >= bonuses.length) {
+            return;
+        }
+        if (immunities[damageTypeId]) {
+            event.consume();
+            return;
+        }
+
+        if (bonuses[damageTypeId] != 0) {
+            event.add(bonuses[damageTypeId]);
+        }
+        if (resisted[damageTypeId]) {
+            // If the resistance amount is greater than the total damage amount, nullify all of the damage. Otherwise,
+            // subtract the resistance from the damage.
+            if (resistances[damageTypeId] >= event.getResultValue()) {
+                event.multiply(0);
+            } else {
+                event.add(-resistances[damageTypeId]);
+            }
+        }
+        if (multipliers[damageTypeId] != 1) {
+            event.multiply(multipliers[damageTypeId]);
+        }
+    }
+
+    /**
+     * Get the ID of the damage type, and grow the arrays to hold it if necessary. Callers must read the arrays only
+     * after calling this method, as they may be replaced.
+     */
+    private int index(String damageType) {
+        final int id = damageTypeRegistry.intern(damageType);
+        if (id >= bonuses.length) {
+            final int oldCapacity = bonuses.length;
+            final int capacity = Math.max(oldCapacity * 2, id + 1);
+            bonuses = Arrays.copyOf(bonuses, capacity);
+            resistances = Arrays.copyOf(resistances, capacity);
+            resisted = Arrays.copyOf(resisted, capacity);
+            multipliers = Arrays.copyOf(multipliers, capacity);
+            Arrays.fill(multipliers, oldCapacity, capacity, 1);
+            immunities = Arrays.copyOf(immunities, capacity);
+        }
+        return id;
+    }
+
+    private static float[] newMultipliers(int capacity) {
+        float[] values = new float[capacity];
+        Arrays.fill(values, 1);
+        return values;
+    }
+}
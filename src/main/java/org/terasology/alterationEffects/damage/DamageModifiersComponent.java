@@ -0,0 +1,33 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.damage;
+
+import org.terasology.gestalt.entitysystem.component.Component;
+
+/**
+ * This component marks entities whose incoming damage is modified by alteration effects.
+ * <p>
+ * It is added and removed by the {@link DamageModifierSystem} along with the damage buff, resistance, and water
+ * breathing effects, and the {@link BlockDamageImmunityComponent}. Other modules can add it to have their contributions
+ * to {@link CollectDamageModifiersEvent} taken into account. The combined modifiers are compiled into a
+ * {@link DamageModifierTable} on the first damage event, and compiled again after the table was invalidated; the table
+ * itself is never persisted.
+ */
+public class DamageModifiersComponent implements Component<DamageModifiersComponent> {
+    /** The compiled modifiers, or null if they need to be collected again. */
+    transient DamageModifierTable table;
+
+    /**
+     * Drop the compiled modifiers, so that they are collected again on the next damage event.
+     */
+    public void invalidate() {
+        table = null;
+    }
+
+    @Override
+    public void copyFrom(DamageModifiersComponent other) {
+        // Compiled tables are only modified to resolve their block families again, which gives the same result for all
+        // entities sharing them, so they can be shared.
+        this.table = other.table;
+    }
+}
@@ -5,6 +5,8 @@ package org.terasology.alterationEffects.damageOverTime;
 import org.terasology.alterationEffects.AlterationEffect;
 import org.terasology.alterationEffects.AlterationEffects;
 import org.terasology.alterationEffects.OnEffectRemoveEvent;
+import org.terasology.alterationEffects.expiry.EffectExpiryKey;
+import org.terasology.alterationEffects.expiry.EffectExpiryManager;
 import org.terasology.engine.context.Context;
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.logic.delay.DelayManager;
@@ -17,17 +19,19 @@ import java.util.Map;
  */
 public class CureAllDamageOverTimeAlterationEffect implements AlterationEffect {
 
+    private final EffectExpiryManager expiryManager;
     private final DelayManager delayManager;
     private Context context;
 
     /**
      * Constructor. Instantiate an instance of this alteration effect using the provided context. This context will be
-     * used to get the DelayManager.
+     * used to get the EffectExpiryManager and DelayManager.
      *
      * @param context       The context which this effect will be executed on.
      */
     public CureAllDamageOverTimeAlterationEffect(Context context) {
         this.context = context;
+        this.expiryManager = context.get(EffectExpiryManager.class);
         this.delayManager = context.get(DelayManager.class);
     }
 
@@ -50,8 +54,8 @@ public class CureAllDamageOverTimeAlterationEffect implements AlterationEffect {
             for (Map.Entry<String, Map<String, Boolean>> dotType : dot.effectIDMap.entrySet()) {
                 // Cure all sources of this type of DOT effect.
                 for (Map.Entry<String, Boolean> dotSource : dotType.getValue().entrySet()) {
-                    delayManager.cancelDelayedAction(entity, AlterationEffects.EXPIRE_TRIGGER_PREFIX +
-                            AlterationEffects.DAMAGE_OVER_TIME + ":" + dotType.getKey() + "|" + dotSource.getKey());
+                    cancelExpiry(entity, EffectExpiryKey.of(AlterationEffects.DAMAGE_OVER_TIME, dotType.getKey(),
+                            dotSource.getKey()));
                 }
 
                 // Send an event to remove the temporary source effects that caused this DOT effect. This is intended to
@@ -84,4 +88,15 @@ public class CureAllDamageOverTimeAlterationEffect implements AlterationEffect {
     public void applyEffect(EntityRef instigator, EntityRef entity, String id, float magnitude, long duration) {
         applyEffect(instigator, entity, magnitude, duration);
     }
+
+    /**
+     * Cancel the pending expiration for the given key. Expirations scheduled with the DelayManager by earlier versions
+     * of this module are cancelled as well.
+     */
+    private void cancelExpiry(EntityRef entity, EffectExpiryKey expiryKey) {
+        expiryManager.cancelExpiry(entity, expiryKey);
+        if (delayManager.hasDelayedAction(entity, expiryKey.getActionId())) {
+            delayManager.cancelDelayedAction(entity, expiryKey.getActionId());
+        }
+    }
 }
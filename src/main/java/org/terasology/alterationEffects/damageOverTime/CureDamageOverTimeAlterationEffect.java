@@ -5,6 +5,8 @@ package org.terasology.alterationEffects.damageOverTime;
 import org.terasology.alterationEffects.AlterationEffect;
 import org.terasology.alterationEffects.AlterationEffects;
 import org.terasology.alterationEffects.OnEffectRemoveEvent;
+import org.terasology.alterationEffects.expiry.EffectExpiryKey;
+import org.terasology.alterationEffects.expiry.EffectExpiryManager;
 import org.terasology.engine.context.Context;
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.logic.delay.DelayManager;
@@ -17,17 +19,19 @@ import java.util.Map;
  */
 public class CureDamageOverTimeAlterationEffect implements AlterationEffect {
 
+    private final EffectExpiryManager expiryManager;
     private final DelayManager delayManager;
     private Context context;
 
     /**
      * Constructor. Instantiate an instance of this alteration effect using the provided context. This context will be
-     * used to get the DelayManager.
+     * used to get the EffectExpiryManager and DelayManager.
      *
      * @param context       The context which this effect will be executed on.
      */
     public CureDamageOverTimeAlterationEffect(Context context) {
         this.context = context;
+        this.expiryManager = context.get(EffectExpiryManager.class);
         this.delayManager = context.get(DelayManager.class);
     }
 
@@ -72,12 +76,13 @@ public class CureDamageOverTimeAlterationEffect implements AlterationEffect {
         if (dot.dots.get(id) != null) {
             dot.dots.remove(id);
 
-            // Cure all sources of this type of DOT.
-            for (Map.Entry<String, Boolean> entry : dot.effectIDMap.get(id).entrySet()) {
-                delayManager.cancelDelayedAction(entity, AlterationEffects.EXPIRE_TRIGGER_PREFIX +
-                        AlterationEffects.DAMAGE_OVER_TIME + ":" + id + "|" + entry.getKey());
+            // Cure all sources of this type of DOT. There are none if no source with a finite duration is left.
+            Map<String, Boolean> effectIDs = dot.effectIDMap.remove(id);
+            if (effectIDs != null) {
+                for (Map.Entry<String, Boolean> entry : effectIDs.entrySet()) {
+                    cancelExpiry(entity, EffectExpiryKey.of(AlterationEffects.DAMAGE_OVER_TIME, id, entry.getKey()));
+                }
             }
-            dot.effectIDMap.remove(id);
 
             // Send an event to remove the temporary source effects that caused this DOT effect. This is intended to
             // remove temporary effects like from potions, but not from equipment or more permanent sources.
@@ -94,4 +99,15 @@ public class CureDamageOverTimeAlterationEffect implements AlterationEffect {
             }
         }
     }
+
+    /**
+     * Cancel the pending expiration for the given key. Expirations scheduled with the DelayManager by earlier versions
+     * of this module are cancelled as well.
+     */
+    private void cancelExpiry(EntityRef entity, EffectExpiryKey expiryKey) {
+        expiryManager.cancelExpiry(entity, expiryKey);
+        if (delayManager.hasDelayedAction(entity, expiryKey.getActionId())) {
+            delayManager.cancelDelayedAction(entity, expiryKey.getActionId());
+        }
+    }
 }
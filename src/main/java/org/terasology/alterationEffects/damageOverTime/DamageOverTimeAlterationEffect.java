@@ -2,35 +2,84 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.alterationEffects.damageOverTime;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.terasology.alterationEffects.AlterationEffect;
 import org.terasology.alterationEffects.AlterationEffects;
+import org.terasology.alterationEffects.EffectRegistry;
+import org.terasology.alterationEffects.EffectType;
 import org.terasology.alterationEffects.OnEffectModifyEvent;
+import org.terasology.alterationEffects.expiry.EffectExpiryKey;
+import org.terasology.alterationEffects.expiry.EffectExpiryManager;
+import org.terasology.alterationEffects.ledger.ModifierLedgerManager;
+import org.terasology.alterationEffects.metrics.EffectMetrics;
+import org.terasology.alterationEffects.metrics.EffectStats;
 import org.terasology.engine.context.Context;
 import org.terasology.engine.core.Time;
 import org.terasology.engine.entitySystem.entity.EntityRef;
-import org.terasology.engine.logic.delay.DelayManager;
+import org.terasology.engine.monitoring.Activity;
+import org.terasology.engine.monitoring.PerformanceMonitor;
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.utilities.Assets;
 import org.terasology.math.TeraMath;
 
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * This handles the application of the damage over time (or DOT) effect, which deals damage to an entity for the given
  * magnitude per second for a specified duration.
+ * <p>
+ * The damage type is derived from the ID of the DOT effect: an ID like "Poison" refers to the damage type prefab
+ * "AlterationEffects:PoisonDamage", while an ID containing a ':' is taken as the full name of a damage type prefab. IDs
+ * without a matching prefab fall back to {@link #DEFAULT_DAMAGE_TYPE} with a warning, except for effects applied
+ * without an ID.
+ * <p>
+ * Only IDs that refer to a damage type prefab are cached, so the cache is bounded by the number of such prefabs, no
+ * matter which IDs callers apply effects with. It is capped at {@link #MAX_CACHED_DAMAGE_TYPES} all the same.
  */
 public class DamageOverTimeAlterationEffect implements AlterationEffect {
+    /** The damage type used for DOT effects whose ID does not refer to a damage type prefab. */
+    public static final String DEFAULT_DAMAGE_TYPE = "AlterationEffects:PoisonDamage";
+
+    private static final Logger logger = LoggerFactory.getLogger(DamageOverTimeAlterationEffect.class);
+
+    /** The ID of DOT effects applied without an ID, which use the {@link #DEFAULT_DAMAGE_TYPE}. */
+    private static final String DEFAULT_ID = "Default";
+
+    /** The maximum number of DOT effect IDs whose damage type prefab is cached. */
+    private static final int MAX_CACHED_DAMAGE_TYPES = 256;
+
+    /** The performance monitor activity of applying a DOT effect. */
+    private static final String APPLY_ACTIVITY = "AlterationEffects: Apply " + AlterationEffects.DAMAGE_OVER_TIME;
 
     private final Time time;
-    private final DelayManager delayManager;
+    private final EffectExpiryManager expiryManager;
+    private final ModifierLedgerManager ledgerManager;
+    private final EffectStats stats;
+    private final EffectRegistry effectRegistry;
+
+    /** The registered type of this effect, looked up on first use. */
+    private EffectType type;
+
+    /** The damage type prefab resolved for each DOT effect ID that refers to one. */
+    private final Map<String, Prefab> damageTypes = new HashMap<>();
+
+    /** The prefab of the {@link #DEFAULT_DAMAGE_TYPE}, looked up on first use. */
+    private Prefab defaultDamageType;
 
     /**
      * Constructor. Instantiate an instance of this alteration effect using the provided context. This context will be used to get the
-     * DelayManager and current time.
+     * EffectExpiryManager and current time.
      *
      * @param context The context which this effect will be executed on.
      */
     public DamageOverTimeAlterationEffect(Context context) {
         this.time = context.get(Time.class);
-        this.delayManager = context.get(DelayManager.class);
+        this.expiryManager = context.get(EffectExpiryManager.class);
+        this.ledgerManager = context.get(ModifierLedgerManager.class);
+        this.stats = context.get(EffectMetrics.class).getStats(AlterationEffects.DAMAGE_OVER_TIME);
+        this.effectRegistry = context.get(EffectRegistry.class);
     }
 
     /**
@@ -44,7 +93,7 @@ public class DamageOverTimeAlterationEffect implements AlterationEffect {
      */
     @Override
     public void applyEffect(EntityRef instigator, EntityRef entity, float magnitude, long duration) {
-        applyEffect(instigator, entity, "Default", magnitude, duration);
+        applyEffect(instigator, entity, DEFAULT_ID, magnitude, duration);
     }
 
     /**
@@ -59,18 +108,35 @@ public class DamageOverTimeAlterationEffect implements AlterationEffect {
      * @param duration The duration of the damage over time effect.
      */
     public void applyEffect(EntityRef instigator, EntityRef entity, String id, float magnitude, long duration) {
-        // First, determine if the entity already has a DOT component attached. If so, just replace the damage amount
-        // and last damage time, then save the component. Otherwise, create a new one and attach it to the entity.
+        try (Activity ignored = PerformanceMonitor.startActivity(APPLY_ACTIVITY)) {
+            applyEffect(instigator, entity, id, magnitude, duration, false);
+        }
+    }
+
+    /**
+     * This will re-apply the damage over time effect of the given ID after one of its modifiers expired. The remaining modifiers
+     * are taken from the modifier ledger if possible.
+     *
+     * @param entity The entity that the damage over time effect is being re-applied on.
+     * @param id The ID of the damage over time effect.
+     */
+    @Override
+    public void reapplyEffect(EntityRef entity, String id) {
+        try (Activity ignored = PerformanceMonitor.startActivity(APPLY_ACTIVITY)) {
+            applyEffect(entity, entity, id, 0, 0, true);
+        }
+    }
+
+    private void applyEffect(EntityRef instigator, EntityRef entity, String id, float magnitude, long duration,
+                             boolean reapply) {
+        final long startTime = System.nanoTime();
+
+        // First, determine if the entity already has a DOT component attached. If not, create a new one. It is attached
+        // to the entity below, before the modifiers are collected.
         DamageOverTimeComponent dot = entity.getComponent(DamageOverTimeComponent.class);
-        if (dot == null) {
+        final boolean isNew = dot == null;
+        if (isNew) {
             dot = new DamageOverTimeComponent();
-            //dot.damageAmount = TeraMath.floorToInt(magnitude);
-            //dot.lastDamageTime = time.getGameTimeInMs();
-            entity.addComponent(dot);
-        } else {
-            //dot.damageAmount = TeraMath.floorToInt(magnitude);
-            //dot.lastDamageTime = time.getGameTimeInMs();
-            entity.saveComponent(dot);
         }
 
         // Create a new DOT effect instance and assign the damage amount, type, and last damage time based on the
@@ -78,8 +144,12 @@ public class DamageOverTimeAlterationEffect implements AlterationEffect {
         DamageOverTimeEffect dotEffect = new DamageOverTimeEffect();
         dotEffect.damageAmount = TeraMath.floorToInt(magnitude);
         dotEffect.lastDamageTime = time.getGameTimeInMs();
-        // TODO: Temporary until more damage prefabs are added.
-        dotEffect.damageType = "AlterationEffects:PoisonDamage";
+        Prefab damageType = resolveDamageType(id);
+        if (damageType != null) {
+            dotEffect.setDamageType(damageType);
+        } else {
+            dotEffect.damageType = DEFAULT_DAMAGE_TYPE;
+        }
 
         // If the current DOT type doesn't already exist, add the dotEffect into the map directly. Otherwise, replace
         // the older one.
@@ -89,9 +159,16 @@ public class DamageOverTimeAlterationEffect implements AlterationEffect {
             dot.dots.replace(id, dotEffect);
         }
 
+        // A new DOT component has to be attached before the modifiers are collected, as the systems contributing them
+        // may look it up on the entity. Changes to an existing one are only saved once at the end.
+        if (isNew) {
+            entity.addComponent(dot);
+        }
+
         // Send out this event to collect all the duration and magnitude modifiers and multipliers that can affect this
         // DOT effect. The ID is also sent to distinguish it from other possible DOT effects.
-        OnEffectModifyEvent effectModifyEvent = entity.send(new OnEffectModifyEvent(instigator, entity, 0, 0, this, id));
+        OnEffectModifyEvent effectModifyEvent =
+                ledgerManager.collectModifiers(instigator, entity, this, AlterationEffects.DAMAGE_OVER_TIME, id, reapply);
         long modifiedDuration = 0;
         boolean modifiersFound = false;
 
@@ -109,17 +186,14 @@ public class DamageOverTimeAlterationEffect implements AlterationEffect {
             modifiedDuration = effectModifyEvent.getShortestDuration();
 
             // If there's at least one duration and magnitude modifier, set the effect's magnitude and the modifiersFound flag.
-            if (!effectModifyEvent.getDurationModifiers().isEmpty() && !effectModifyEvent.getMagnitudeModifiers().isEmpty()) {
+            if (effectModifyEvent.hasDurationModifiers() && effectModifyEvent.hasMagnitudeModifiers()) {
                 dotEffect.damageAmount = (int) modifiedMagnitude;
                 modifiersFound = true;
             }
         }
 
-        // Save the component so the latest changes to it don't get lost when the game's exited.
-        entity.saveComponent(dot);
-
         // If the modified duration is between the accepted values (0 and Long.MAX_VALUE), and the base duration is not infinite,
-        // add a delayed action to the DelayManager using the new system.
+        // schedule the expiration using the new system.
         if (modifiedDuration < Long.MAX_VALUE && modifiedDuration > 0 && duration != AlterationEffects.DURATION_INDEFINITE) {
             String effectID = effectModifyEvent.getEffectIDWithShortestDuration();
 
@@ -130,13 +204,13 @@ public class DamageOverTimeAlterationEffect implements AlterationEffect {
             }
             dot.effectIDMap.get(id).put(effectID, true);
 
-            delayManager.addDelayedAction(entity, AlterationEffects.EXPIRE_TRIGGER_PREFIX + AlterationEffects.DAMAGE_OVER_TIME
-                    + ":" + id + "|" + effectID, modifiedDuration);
+            EffectExpiryKey expiryKey = expiryKey(id, effectID);
+            expiryManager.scheduleExpiry(entity, expiryKey, modifiedDuration);
         } else if (duration > 0 && !modifiersFound && !effectModifyEvent.isConsumed()) {
             // Otherwise, if the duration is greater than 0, there are no modifiers found, and the effect modify event was not consumed,
-            // add a delayed action to the DelayManager using the old system.
-            delayManager.addDelayedAction(entity, AlterationEffects.EXPIRE_TRIGGER_PREFIX + AlterationEffects.DAMAGE_OVER_TIME
-                    + ":" + id, duration);
+            // schedule the expiration using the old system.
+            EffectExpiryKey expiryKey = expiryKey(id, null);
+            expiryManager.scheduleExpiry(entity, expiryKey, duration);
         } else if (!modifiersFound || !effectModifyEvent.getHasInfDuration()) {
             // Otherwise, if there are either no modifiers found, or none of the modifiers collected in the event have infinite
             // duration, remove the resist effect from the DOT component.
@@ -144,5 +218,62 @@ public class DamageOverTimeAlterationEffect implements AlterationEffect {
         }
         // If this point is reached and none of the above if-clauses were met, that means there was at least one modifier
         // collected in the event which has infinite duration.
+        final boolean consumed = effectModifyEvent.isConsumed();
+        effectModifyEvent.release();
+
+        // Save the component so the latest changes to it don't get lost when the game's exited. This is done once for
+        // all changes above, so that only a single change notification is sent per application.
+        entity.saveComponent(dot);
+        stats.recordApply(System.nanoTime() - startTime, consumed, reapply);
+    }
+
+    /**
+     * Resolve the damage type prefab for the given DOT effect ID. The result is cached until the prefab is disposed,
+     * unless the ID does not refer to a damage type prefab.
+     *
+     * @param id the ID of the DOT effect
+     * @return the damage type prefab, or null if neither a matching nor the default damage type exists
+     */
+    private Prefab resolveDamageType(String id) {
+        Prefab prefab = damageTypes.get(id);
+        if (prefab == null || prefab.isDisposed()) {
+            String damageType = id.indexOf(':') >= 0 ? id : "AlterationEffects:" + id + "Damage";
+            prefab = Assets.getPrefab(damageType).orElse(null);
+            if (prefab == null) {
+                // Misses are not cached, so that the IDs chosen by callers cannot grow the cache.
+                damageTypes.remove(id);
+                if (!DEFAULT_ID.equals(id)) {
+                    logger.warn("No damage type prefab '{}' for DOT effect '{}', using {} instead", damageType, id,
+                            DEFAULT_DAMAGE_TYPE);
+                }
+                return getDefaultDamageType();
+            }
+            if (damageTypes.size() < MAX_CACHED_DAMAGE_TYPES || damageTypes.containsKey(id)) {
+                damageTypes.put(id, prefab);
+            }
+        }
+        return prefab;
+    }
+
+    private Prefab getDefaultDamageType() {
+        if (defaultDamageType == null || defaultDamageType.isDisposed()) {
+            defaultDamageType = Assets.getPrefab(DEFAULT_DAMAGE_TYPE).orElse(null);
+        }
+        return defaultDamageType;
+    }
+
+    /**
+     * Build the expiry key of this effect. The registered type of the effect is looked up on first use, so that the
+     * expiration is dispatched by its ordinal.
+     */
+    private EffectExpiryKey expiryKey(String id, String effectID) {
+        if (type == null) {
+            type = effectRegistry.get(AlterationEffects.DAMAGE_OVER_TIME);
+            if (type == null) {
+                // The effect is not registered, so its expirations are resolved by name.
+                return EffectExpiryKey.of(AlterationEffects.DAMAGE_OVER_TIME, id, effectID);
+            }
+        }
+        return EffectExpiryKey.of(type, id, effectID);
     }
 }
@@ -2,118 +2,160 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.alterationEffects.damageOverTime;
 
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
 import org.terasology.alterationEffects.AlterationEffects;
+import org.terasology.alterationEffects.EffectRegistry;
 import org.terasology.alterationEffects.OnEffectRemoveEvent;
+import org.terasology.alterationEffects.expiry.EffectExpiryKey;
+import org.terasology.alterationEffects.ledger.ModifierLedgerManager;
+import org.terasology.alterationEffects.metrics.EffectMetrics;
+import org.terasology.alterationEffects.metrics.EffectStats;
 import org.terasology.engine.context.Context;
 import org.terasology.engine.core.Time;
-import org.terasology.engine.entitySystem.entity.EntityManager;
 import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnChangedComponent;
+import org.terasology.engine.entitySystem.prefab.Prefab;
 import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
 import org.terasology.engine.entitySystem.systems.RegisterMode;
 import org.terasology.engine.entitySystem.systems.RegisterSystem;
 import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
-import org.terasology.engine.logic.delay.DelayedActionTriggeredEvent;
+import org.terasology.engine.monitoring.Activity;
+import org.terasology.engine.monitoring.PerformanceMonitor;
 import org.terasology.engine.registry.In;
-import org.terasology.engine.utilities.Assets;
 import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
 import org.terasology.module.health.components.HealthComponent;
 import org.terasology.module.health.events.DoDamageEvent;
 
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 /**
  * This authority system manages all the damage over time (DOT) effects currently in-effect across all entities. By
  * that, it handles what course of action to take when one expires, and applies the DOT damage at regular intervals.
+ * <p>
+ * The next damage tick of every DOT effect of every active entity is kept in a min-heap ordered by time, so that each
+ * update only touches the DOT effects that are actually due. Ticks are validated against the
+ * {@link DamageOverTimeComponent} when they are due; DOT effects that were cured or replaced in the meantime are
+ * dropped or rescheduled at that point.
+ * <p>
+ * Changes to the {@link DamageOverTimeComponent} of an entity made while applying the due ticks of an update are
+ * saved once at the end of that update, no matter how many of its DOT effects dealt damage. Likewise, the damage of
+ * all DOT effects of an entity that are due in the same update is summed up per damage type, and sent as a single
+ * {@link DoDamageEvent} per damage type. Entities with a {@link PerSourceDamageOverTimeComponent} receive a separate
+ * event for each DOT effect instead.
+ * <p>
+ * Each update runs in two phases: the due ticks are collected and validated against the entities first, and then
+ * their damage is computed, written back and dealt, so that damage events sent for one tick cannot change which ticks
+ * are due in the same update.
  */
 @RegisterSystem(RegisterMode.AUTHORITY)
 public class DamageOverTimeAuthoritySystem extends BaseComponentSystem implements UpdateSubscriberSystem {
-    /** Integer storing when to check each effect. */
-    private static final int CHECK_INTERVAL = 100;
-
     /** Integer storing when to apply DOT damage */
     private static final int DAMAGE_TICK = 1000;
 
-    /** Last time the list of DOT effects were checked. */
-    private long lastUpdated;
+    /** The name of the performance monitor activity covering the damage ticks of a single update. */
+    private static final String DAMAGE_TICK_ACTIVITY = "AlterationEffects: Damage over time";
 
     @In
     private Time time;
     @In
-    private EntityManager entityManager;
-    @In
     private Context context;
+    @In
+    private EffectRegistry effectRegistry;
+    @In
+    private ModifierLedgerManager ledgerManager;
+    @In
+    private EffectMetrics effectMetrics;
+
+    private DamageOverTimeAlterationEffect dotAlterationEffect;
+    private EffectStats stats;
+
+    /** The pending damage ticks of all active DOT effects, ordered by the time they are due. */
+    private final PriorityQueue<DamageTick> tickQueue = new PriorityQueue<>(Comparator.comparingLong(t -> t.dueTime));
+
+    /** The pending damage tick of each DOT effect, by entity and damage type ID. */
+    private final Map<EntityRef, Map<String, DamageTick>> ticks = new HashMap<>();
+
+    /** Reused buffers for the ticks that are due in a single update, and their DOT effects. */
+    private final List<DamageTick> dueTicks = new ArrayList<>();
+    private final List<DamageOverTimeEffect> dueEffects = new ArrayList<>();
+
+    /** Reused buffer for the entities whose DOT component was changed in a single update. */
+    private final Set<EntityRef> dirtyEntities = new LinkedHashSet<>();
+
+    /** The number of damage events sent in the current update. */
+    private int sentDamageEvents;
+
+    /** The damage dealt in a single update that is not sent yet, by entity and damage type. */
+    private final Map<EntityRef, TObjectIntMap<Prefab>> pendingDamage = new LinkedHashMap<>();
+
+    @Override
+    public void initialise() {
+        dotAlterationEffect = new DamageOverTimeAlterationEffect(context);
+        stats = effectMetrics.getStats(AlterationEffects.DAMAGE_OVER_TIME);
+        effectRegistry.register(AlterationEffects.DAMAGE_OVER_TIME, DamageOverTimeComponent.class, dotAlterationEffect,
+                this::expireDamageOverTime);
+    }
 
     /**
      * When one of this entity's DOT effects expire, remove it from the DOT effects map and recalculate the total
      * magnitude for this damage type.
      *
-     * @param event         Event that indicates that the delayed action has expired.
      * @param entity        Entity that has the damage over time component.
-     * @param component     Stores information of all the entity's current DOTs.
+     * @param expiryKey     The key of the DOT effect that expired.
      */
-    @ReceiveEvent
-    public void expireDOTEffect(DelayedActionTriggeredEvent event, EntityRef entity, DamageOverTimeComponent component) {
-        final String actionId = event.getActionId();
-
-        // First, make sure this expired event is actually part of the AlterationEffects module.
-        if (actionId.startsWith(AlterationEffects.EXPIRE_TRIGGER_PREFIX)) {
-            // Make sure that this effect actionID actually has four parts to it (before the effectID). If not, return,
-            // as this is the wrong format for this kind of AlterationEffect.
-            String[] split = actionId.split(":");
-            if (split.length != 4) {
-                return;
-            }
-
-            // Remove the expire trigger prefix and store the resultant String into effectNamePlusID.
-            String effectNamePlusID = actionId.substring(AlterationEffects.EXPIRE_TRIGGER_PREFIX.length());
+    private void expireDamageOverTime(EntityRef entity, EffectExpiryKey expiryKey) {
+        final DamageOverTimeComponent component = entity.getComponent(DamageOverTimeComponent.class);
+        if (component == null || !expiryKey.hasId()) {
+            return;
+        }
 
-            // Split the effectNamePlusID into two parts. The first part will contain the AlterationEffect's name and
-            // the ID, and the second part will contain the effectID.
-            String[] parts = effectNamePlusID.split(Pattern.quote("|"), 2);
+        final String damageID = expiryKey.getId();
+        final String effectID = expiryKey.getEffectId();
 
-            String effectID = "";
-            String damageID = "";
+        // Remove the DamageOverTimeEffect from the ailments map, unless other stacked sources of this effect remain.
+        // In that case, it is updated in place when the effect is re-applied below.
+        if (!ledgerManager.expireContributions(entity, AlterationEffects.DAMAGE_OVER_TIME, damageID)) {
+            component.dots.remove(damageID);
+        }
 
-            // If there are two items in the parts, set the damageID and effectID accordingly.
-            if (parts.length == 2) {
-                // Split parts[0] into two items using ':' as a delimiter. The first item will contain the
-                // AlterationEffect name, and the second item will contain the damage type (or ID).
-                damageID = parts[0].split(":")[1];
-                effectID = parts[1];
+        // Remove the corresponding effectID from the DOT effectIDMap. As this particular modifier is expiring,
+        // we don't need to store it here anymore. If the DOT effect itself is gone as well, drop the empty submap, so
+        // that it does not linger on the entity.
+        Map<String, Boolean> effectIDs = component.effectIDMap.get(damageID);
+        if (effectIDs != null) {
+            effectIDs.remove(effectID);
+            if (effectIDs.isEmpty() && !component.dots.containsKey(damageID)) {
+                component.effectIDMap.remove(damageID);
             }
+        }
 
-            // If this DelayedActionTriggeredEvent corresponds to this particular DamageOverTime effect.
-            if (split[2].equalsIgnoreCase(AlterationEffects.DAMAGE_OVER_TIME)) {
-                // Remove the DamageOverTimeEffect from the ailments map.
-                component.dots.remove(damageID);
-
-                // Remove the corresponding effectID from the DOT effectIDMap. As this particular modifier is expiring,
-                // we don't need to store it here anymore.
-                if (component.effectIDMap.get(damageID) != null) {
-                    component.effectIDMap.get(damageID).remove(effectID);
-                }
-
-                // Create a new DOT alteration effect using the current context. Then, send out an event alerting the
-                // other effect-related systems that this particular resist damage effect has been removed.
-                DamageOverTimeAlterationEffect dotAlterationEffect = new DamageOverTimeAlterationEffect(context);
-                entity.send(new OnEffectRemoveEvent(entity, entity, dotAlterationEffect, effectID, damageID));
+        // Send out an event alerting the other effect-related systems that this particular DOT effect has been
+        // removed.
+        entity.send(new OnEffectRemoveEvent(entity, entity, dotAlterationEffect, effectID, damageID));
 
-                // Re-apply the DOT effect of this particular effect type so that if there are any modifiers still in
-                // effect, they'll be recalculated and reapplied to the entity correctly.
-                dotAlterationEffect.applyEffect(entity, entity, damageID, 0, 0);
+        // Re-apply the DOT effect of this particular effect type so that if there are any modifiers still in
+        // effect, they'll be recalculated and reapplied to the entity correctly.
+        dotAlterationEffect.reapplyEffect(entity, damageID);
 
-                // If the size of the ongoing damages map is zero and the DamageOverTime component doesn't exist
-                // anymore, remove it from the entity.
-                if (component.dots.size() == 0 && component != null) {
-                    entity.removeComponent(DamageOverTimeComponent.class);
-                }
-            }
+        // If the size of the ongoing damages map is zero, remove the DamageOverTime component from the entity.
+        if (component.dots.size() == 0) {
+            entity.removeComponent(DamageOverTimeComponent.class);
         }
     }
 
     /**
-     * For every update, check to see if the time's been over the CHECK_INTERVAL. If so, verify if a DAMAGE_TICK has
-     * passed for every DOT effect.
+     * For every update, apply the DOT damage of all DOT effects whose next DAMAGE_TICK has passed.
      *
      * @param delta The time (in seconds) since the last engine update.
      */
@@ -121,33 +163,226 @@ public class DamageOverTimeAuthoritySystem extends BaseComponentSystem implement
     public void update(float delta) {
         final long currentTime = time.getGameTimeInMs();
 
-        // If the current time passes the CHECK_INTERVAL threshold, continue.
-        if (currentTime >= lastUpdated + CHECK_INTERVAL) {
-            // Set the lastUpdated time to be the currentTime.
-            lastUpdated = currentTime;
-
-            // For every entity with the health and DOT components, check to see if they have passed a DAMAGE_TICK. If
-            // so, apply a heal event to the applicable entities with the given damageAmount.
-            for (EntityRef entity : entityManager.getEntitiesWith(DamageOverTimeComponent.class, HealthComponent.class)) {
-                final DamageOverTimeComponent component = entity.getComponent(DamageOverTimeComponent.class);
-
-                // Iterate through all of the DOT effects present on thie entity, and apply them to the entity.
-                for (DamageOverTimeEffect dotEffect : component.dots.values()) {
-                    if (currentTime >= dotEffect.lastDamageTime + DAMAGE_TICK) {
-                        // Calculate this multiplier to account for time delays.
-                        int multiplier = (int) (currentTime - dotEffect.lastDamageTime) / DAMAGE_TICK;
-                        dotEffect.lastDamageTime = dotEffect.lastDamageTime + DAMAGE_TICK * multiplier;
-
-                        // Save the DOT component so that the latest changes don't get lost during exit.
-                        entity.saveComponent(component);
-
-                        // Now send the damage event to this entity with the magnitude being the damage amount times
-                        // the multiplier.
-                        entity.send(new DoDamageEvent(dotEffect.damageAmount * multiplier,
-                                Assets.getPrefab(dotEffect.damageType).get()));
-                    }
+        // -- 1. Collect the due ticks of all DOT effects that are still present ---------------------------------------
+        DamageTick tick;
+        while ((tick = tickQueue.peek()) != null && tick.dueTime <= currentTime) {
+            tickQueue.poll();
+            if (!tick.cancelled) {
+                collectDamageTick(tick, currentTime);
+            }
+        }
+        if (dueTicks.isEmpty()) {
+            return;
+        }
+
+        try (Activity ignored = PerformanceMonitor.startActivity(DAMAGE_TICK_ACTIVITY)) {
+            final long startTime = System.nanoTime();
+            sentDamageEvents = 0;
+
+            // -- 2. Compute and deal the damage of all due ticks ------------------------------------------------------
+            for (int i = 0; i < dueTicks.size(); i++) {
+                applyDamageTick(dueTicks.get(i), dueEffects.get(i), currentTime);
+            }
+            dueTicks.clear();
+            dueEffects.clear();
+
+            if (!pendingDamage.isEmpty()) {
+                sendPendingDamage();
+            }
+            // Entities are marked dirty once per update when their DOT effects deal damage.
+            final int damagedEntities = dirtyEntities.size();
+            if (!dirtyEntities.isEmpty()) {
+                flushDirtyComponents();
+            }
+            if (damagedEntities > 0) {
+                stats.recordDamageUpdate(System.nanoTime() - startTime, damagedEntities, sentDamageEvents);
+            }
+        }
+    }
+
+    /**
+     * Schedule the damage ticks of the DOT effects of an entity when it is loaded or gets its first DOT effect.
+     *
+     * @param event the activation event
+     * @param entity the entity that got activated
+     * @param component the DOT effects of the entity
+     */
+    @ReceiveEvent
+    public void onActivated(OnActivatedComponent event, EntityRef entity, DamageOverTimeComponent component) {
+        scheduleDamageTicks(entity, component);
+    }
+
+    /**
+     * Schedule the damage ticks of DOT effects that were added to an entity.
+     *
+     * @param event the change event
+     * @param entity the entity whose DOT effects changed
+     * @param component the DOT effects of the entity
+     */
+    @ReceiveEvent
+    public void onChanged(OnChangedComponent event, EntityRef entity, DamageOverTimeComponent component) {
+        scheduleDamageTicks(entity, component);
+    }
+
+    /**
+     * Drop the damage ticks of an entity when it is unloaded or destroyed, or when its last DOT effect is removed.
+     *
+     * @param event the deactivation event
+     * @param entity the entity that is about to be deactivated
+     * @param component the DOT effects of the entity
+     */
+    @ReceiveEvent
+    public void onDeactivated(BeforeDeactivateComponent event, EntityRef entity, DamageOverTimeComponent component) {
+        Map<String, DamageTick> entityTicks = ticks.remove(entity);
+        if (entityTicks != null) {
+            // Cancelled ticks are skipped when they are due, which is cheaper than removing them from the heap.
+            entityTicks.values().forEach(tick -> tick.cancelled = true);
+        }
+    }
+
+    private void scheduleDamageTicks(EntityRef entity, DamageOverTimeComponent component) {
+        if (component.dots.isEmpty()) {
+            return;
+        }
+        Map<String, DamageTick> entityTicks = ticks.computeIfAbsent(entity, e -> new HashMap<>());
+        for (Map.Entry<String, DamageOverTimeEffect> entry : component.dots.entrySet()) {
+            if (!entityTicks.containsKey(entry.getKey())) {
+                DamageTick tick = new DamageTick(entity, entry.getKey());
+                tick.dueTime = entry.getValue().lastDamageTime + DAMAGE_TICK;
+                entityTicks.put(entry.getKey(), tick);
+                tickQueue.add(tick);
+            }
+        }
+    }
+
+    /**
+     * Add a due tick to the batch of this update if the DOT effect is still present and the entity can take damage.
+     * Otherwise, the tick is dropped or rescheduled right away.
+     */
+    private void collectDamageTick(DamageTick tick, long currentTime) {
+        final EntityRef entity = tick.entity;
+        final DamageOverTimeComponent component = entity.getComponent(DamageOverTimeComponent.class);
+        final DamageOverTimeEffect dotEffect = component != null ? component.dots.get(tick.damageID) : null;
+        if (dotEffect == null) {
+            removeDamageTick(tick);
+        } else if (!entity.hasComponent(HealthComponent.class)) {
+            // Only entities with health take damage.
+            rescheduleDamageTick(tick, dotEffect, currentTime);
+        } else {
+            dueTicks.add(tick);
+            dueEffects.add(dotEffect);
+        }
+    }
+
+    /**
+     * Deal the damage of a due tick, including all ticks it has to catch up on, and schedule its next tick.
+     */
+    private void applyDamageTick(DamageTick tick, DamageOverTimeEffect dotEffect, long currentTime) {
+        // A damage event sent for an earlier tick may have destroyed the entity, which cancels all of its ticks.
+        if (tick.cancelled) {
+            return;
+        }
+        final EntityRef entity = tick.entity;
+
+        // The DOT effect was possibly re-applied since this tick was scheduled, in which case its next tick is later
+        // than this one.
+        final long elapsed = currentTime - dotEffect.lastDamageTime;
+        if (elapsed >= DAMAGE_TICK) {
+            // The multiplier accounts for time delays, i.e., the number of full ticks since the last damage.
+            final int multiplier = (int) (elapsed / DAMAGE_TICK);
+            dotEffect.lastDamageTime += (long) DAMAGE_TICK * multiplier;
+
+            // Mark the DOT component to be saved at the end of this update, so that the latest changes don't get lost
+            // during exit.
+            dirtyEntities.add(entity);
+            stats.recordDamageTick();
+
+            // Now deal damage to this entity with the magnitude being the damage amount times the multiplier. The
+            // damage type prefab was resolved when the effect was applied.
+            final int damage = dotEffect.damageAmount * multiplier;
+            final Prefab damageType = dotEffect.getDamageTypePrefab();
+            if (damageType != null) {
+                if (entity.hasComponent(PerSourceDamageOverTimeComponent.class)) {
+                    entity.send(new DoDamageEvent(damage, damageType));
+                    stats.recordDamageEvent();
+                    sentDamageEvents++;
+                } else {
+                    pendingDamage.computeIfAbsent(entity, e -> new TObjectIntHashMap<>())
+                            .adjustOrPutValue(damageType, damage, damage);
+                }
+            }
+        }
+
+        rescheduleDamageTick(tick, dotEffect, currentTime);
+    }
+
+    private void rescheduleDamageTick(DamageTick tick, DamageOverTimeEffect dotEffect, long currentTime) {
+        // The damage event may have destroyed the entity, which cancels all of its ticks.
+        if (!tick.cancelled) {
+            tick.dueTime = dotEffect.lastDamageTime + DAMAGE_TICK;
+            if (tick.dueTime <= currentTime) {
+                tick.dueTime = currentTime + DAMAGE_TICK;
+            }
+            tickQueue.add(tick);
+        }
+    }
+
+    /**
+     * Send the damage summed up during this update, once per entity and damage type.
+     */
+    private void sendPendingDamage() {
+        for (Map.Entry<EntityRef, TObjectIntMap<Prefab>> entry : pendingDamage.entrySet()) {
+            final EntityRef entity = entry.getKey();
+            entry.getValue().forEachEntry((damageType, amount) -> {
+                // An earlier damage event may have destroyed the entity already.
+                if (entity.exists()) {
+                    entity.send(new DoDamageEvent(amount, damageType));
+                    stats.recordDamageEvent();
+                    sentDamageEvents++;
                 }
+                return true;
+            });
+        }
+        pendingDamage.clear();
+    }
+
+    /**
+     * Save the DOT components changed during this update, once per entity.
+     */
+    private void flushDirtyComponents() {
+        for (EntityRef entity : dirtyEntities) {
+            // The entity may have been destroyed by the damage, or have lost its last DOT effect.
+            DamageOverTimeComponent component = entity.exists()
+                    ? entity.getComponent(DamageOverTimeComponent.class) : null;
+            if (component != null) {
+                entity.saveComponent(component);
+            }
+        }
+        dirtyEntities.clear();
+    }
+
+    private void removeDamageTick(DamageTick tick) {
+        Map<String, DamageTick> entityTicks = ticks.get(tick.entity);
+        if (entityTicks != null && entityTicks.get(tick.damageID) == tick) {
+            entityTicks.remove(tick.damageID);
+            if (entityTicks.isEmpty()) {
+                ticks.remove(tick.entity);
             }
         }
     }
+
+    /**
+     * The next damage tick of a single DOT effect on an entity.
+     */
+    private static final class DamageTick {
+        final EntityRef entity;
+        final String damageID;
+        long dueTime;
+        boolean cancelled;
+
+        DamageTick(EntityRef entity, String damageID) {
+            this.entity = entity;
+            this.damageID = damageID;
+        }
+    }
 }
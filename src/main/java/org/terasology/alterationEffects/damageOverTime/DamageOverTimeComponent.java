@@ -23,11 +23,33 @@ public class DamageOverTimeComponent implements Component<DamageOverTimeComponen
      */
     public Map<String, Map<String, Boolean>> effectIDMap = new HashMap<String, Map<String, Boolean>>();
 
+    /**
+     * Copy the state of another DOT component into this one.
+     * <p>
+     * The DOT effects and source maps already held by this component are updated in place where possible, so that
+     * copying a component that hardly changed does not allocate a new object for every DOT effect and source.
+     */
     @Override
     public void copyFrom(DamageOverTimeComponent other) {
-        dots.clear();
-        other.dots.forEach((k, v) -> this.dots.put(k, v.copy()));
-        effectIDMap.clear();
-        other.effectIDMap.forEach((k, v) -> this.effectIDMap.put(k, Maps.newHashMap(v)));
+        dots.keySet().retainAll(other.dots.keySet());
+        other.dots.forEach((k, v) -> {
+            DamageOverTimeEffect dotEffect = dots.get(k);
+            if (dotEffect != null) {
+                dotEffect.copyFrom(v);
+            } else {
+                dots.put(k, v.copy());
+            }
+        });
+
+        effectIDMap.keySet().retainAll(other.effectIDMap.keySet());
+        other.effectIDMap.forEach((k, v) -> {
+            Map<String, Boolean> effectIDs = effectIDMap.get(k);
+            if (effectIDs != null) {
+                effectIDs.keySet().retainAll(v.keySet());
+                effectIDs.putAll(v);
+            } else {
+                effectIDMap.put(k, Maps.newHashMap(v));
+            }
+        });
     }
 }
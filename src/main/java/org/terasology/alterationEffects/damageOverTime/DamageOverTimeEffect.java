@@ -2,6 +2,8 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.alterationEffects.damageOverTime;
 
+import org.terasology.engine.entitySystem.prefab.Prefab;
+import org.terasology.engine.utilities.Assets;
 import org.terasology.reflection.MappedContainer;
 
 /**
@@ -24,11 +26,54 @@ public class DamageOverTimeEffect {
      */
     public long lastDamageTime;
 
+    /**
+     * The prefab of the damage type, cached so that damage ticks do not need an asset lookup.
+     */
+    private transient Prefab damageTypePrefab;
+
+    /**
+     * Whether the damage type has been looked up, so that a damage type that does not exist is only looked up once.
+     */
+    private transient boolean damageTypeResolved;
+
+    /**
+     * Get the prefab of the damage type. It is looked up once if it has not been resolved yet (e.g., after loading),
+     * falling back to the {@link DamageOverTimeAlterationEffect#DEFAULT_DAMAGE_TYPE default damage type} if it does not
+     * exist. It is looked up again only if the cached prefab was disposed in the meantime.
+     *
+     * @return the damage type prefab, or null if neither the damage type nor the default damage type exists
+     */
+    public Prefab getDamageTypePrefab() {
+        if (!damageTypeResolved || damageTypePrefab != null && damageTypePrefab.isDisposed()) {
+            damageTypePrefab = Assets.getPrefab(damageType)
+                    .orElseGet(() -> Assets.getPrefab(DamageOverTimeAlterationEffect.DEFAULT_DAMAGE_TYPE).orElse(null));
+            damageTypeResolved = true;
+        }
+        return damageTypePrefab;
+    }
+
+    /**
+     * Set the damage type to the given, already resolved prefab.
+     *
+     * @param prefab the damage type prefab
+     */
+    public void setDamageType(Prefab prefab) {
+        this.damageType = prefab.getUrn().toString();
+        this.damageTypePrefab = prefab;
+        this.damageTypeResolved = true;
+    }
+
     public DamageOverTimeEffect copy() {
         DamageOverTimeEffect dotEffect = new DamageOverTimeEffect();
-        dotEffect.damageType = this.damageType;
-        dotEffect.damageAmount = this.damageAmount;
-        dotEffect.lastDamageTime = this.lastDamageTime;
+        dotEffect.copyFrom(this);
         return dotEffect;
     }
+
+    public void copyFrom(DamageOverTimeEffect other) {
+        this.damageType = other.damageType;
+        this.damageAmount = other.damageAmount;
+        this.lastDamageTime = other.lastDamageTime;
+        this.damageTypePrefab = other.damageTypePrefab;
+        this.damageTypeResolved = other.damageTypeResolved;
+    }
 }
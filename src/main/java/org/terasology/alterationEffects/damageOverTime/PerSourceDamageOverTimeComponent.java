@@ -0,0 +1,12 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.damageOverTime;
+
+import org.terasology.gestalt.entitysystem.component.EmptyComponent;
+
+/**
+ * Entities with this component receive a separate damage event for every damage over time (DOT) effect that deals
+ * damage, instead of a single damage event per damage type and tick.
+ */
+public class PerSourceDamageOverTimeComponent extends EmptyComponent<PerSourceDamageOverTimeComponent> {
+}
@@ -0,0 +1,25 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.expiry;
+
+import org.terasology.gestalt.entitysystem.component.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This component stores the pending effect expirations of an entity, so that they survive saving and loading.
+ * <p>
+ * The {@link EffectExpirySystem} keeps all pending expirations of active entities in memory. The deadlines are only
+ * written to this component when the entity is unloaded or the game is saved, and are cleared again once they have
+ * been restored, so the map is empty while the entity is active.
+ */
+public class EffectExpiryComponent implements Component<EffectExpiryComponent> {
+    /** The game time (in milliseconds) at which each pending expiration is due, by action ID. */
+    public Map<String, Long> expiries = new HashMap<>();
+
+    @Override
+    public void copyFrom(EffectExpiryComponent other) {
+        this.expiries = new HashMap<>(other.expiries);
+    }
+}
@@ -0,0 +1,22 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.expiry;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+/**
+ * Callback invoked when a scheduled effect expiration of a specific effect type is due.
+ * <p>
+ * Handlers are registered per effect type with the {@link org.terasology.alterationEffects.EffectRegistry} and are
+ * called directly by the {@link EffectExpiryManager}, without sending any event.
+ */
+@FunctionalInterface
+public interface EffectExpiryHandler {
+    /**
+     * Called when the effect denoted by the key expired on the given entity.
+     *
+     * @param entity the entity the effect expired on
+     * @param expiryKey the key the expiration was scheduled with
+     */
+    void onEffectExpired(EntityRef entity, EffectExpiryKey expiryKey);
+}
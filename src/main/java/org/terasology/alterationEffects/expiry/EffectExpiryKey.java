@@ -0,0 +1,238 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.expiry;
+
+import org.terasology.alterationEffects.AlterationEffects;
+import org.terasology.alterationEffects.EffectRegistry;
+import org.terasology.alterationEffects.EffectType;
+
+import java.util.Objects;
+
+/**
+ * Immutable, pre-parsed identifier of a scheduled effect expiration.
+ * <p>
+ * An expiry key consists of the effect type (e.g., {@link AlterationEffects#DAMAGE_OVER_TIME}), an optional sub-type ID
+ * (e.g., the damage type of a DOT effect), and an optional source ID (the effectID of the modifier that will expire).
+ * Keys are compared by value and can be used as map keys directly, so scheduling and dispatching an expiration never
+ * needs to concatenate or parse strings.
+ * <p>
+ * The action ID used to persist an expiration, or to route it through the
+ * {@link org.terasology.engine.logic.delay.DelayManager}, is only built when it is first requested. Action IDs are
+ * parsed from the format
+ * <pre>
+ * {@code AlterationEffects:Expire:<effectType>[:<id>][|<effectID>]}
+ * </pre>
+ * which is also used by earlier versions of this module.
+ * <p>
+ * Keys are not interned and hold no global state, so source IDs of expired modifiers are not retained.
+ * <p>
+ * Keys built for a registered {@link EffectType} carry that type, so that {@link EffectRegistry#resolve} finds the
+ * handler of an expiration by its ordinal. Keys built from a name or decoded from an action ID are resolved by name.
+ * The type is not part of the identity of a key.
+ */
+public final class EffectExpiryKey {
+    private final String effectType;
+    private final EffectType type;
+    private final String id;
+    private final String effectId;
+    private final int hash;
+
+    /** The action ID, built on first use. */
+    private String actionId;
+
+    private EffectExpiryKey(String effectType, EffectType type, String id, String effectId, String actionId) {
+        this.effectType = Objects.requireNonNull(effectType, "effectType");
+        this.type = type;
+        this.id = id;
+        this.effectId = effectId;
+        this.actionId = actionId;
+        this.hash = Objects.hash(effectType, id, effectId);
+    }
+
+    /**
+     * Get the key for an effect without sub-type ID or source.
+     *
+     * @param effectType the effect type, e.g., {@link AlterationEffects#STUN}
+     * @return the expiry key
+     */
+    public static EffectExpiryKey of(String effectType) {
+        return new EffectExpiryKey(effectType, null, null, null, null);
+    }
+
+    /**
+     * Get the key for a registered effect type without sub-type ID or source.
+     *
+     * @param type the effect type
+     * @return the expiry key
+     */
+    public static EffectExpiryKey of(EffectType type) {
+        return new EffectExpiryKey(type.getName(), type, null, null, null);
+    }
+
+    /**
+     * Get the key for the given effect type, sub-type ID and source.
+     * <p>
+     * A {@code null} sub-type ID or source is omitted from the action ID, whereas an empty string is kept as an empty
+     * segment. This mirrors the action IDs produced by earlier versions of this module.
+     *
+     * @param effectType the effect type, e.g., {@link AlterationEffects#DAMAGE_OVER_TIME}
+     * @param id the sub-type ID (e.g., damage type), or {@code null} if the effect has no sub-types
+     * @param effectId the ID of the modifier source that will expire, or {@code null} if unknown
+     * @return the expiry key
+     */
+    public static EffectExpiryKey of(String effectType, String id, String effectId) {
+        return new EffectExpiryKey(effectType, null, id, effectId, null);
+    }
+
+    /**
+     * Get the key for the given registered effect type, sub-type ID and source.
+     *
+     * @param type the effect type
+     * @param id the sub-type ID (e.g., damage type), or {@code null} if the effect has no sub-types
+     * @param effectId the ID of the modifier source that will expire, or {@code null} if unknown
+     * @return the expiry key
+     * @see #of(String, String, String)
+     */
+    public static EffectExpiryKey of(EffectType type, String id, String effectId) {
+        return new EffectExpiryKey(type.getName(), type, id, effectId, null);
+    }
+
+    /**
+     * Decode the action ID of a persisted expiration or a delayed action into an expiry key.
+     *
+     * @param actionId the action ID
+     * @return the expiry key, or {@code null} if the action ID does not belong to this module
+     */
+    public static EffectExpiryKey decode(String actionId) {
+        if (actionId == null || !actionId.startsWith(AlterationEffects.EXPIRE_TRIGGER_PREFIX)
+                || actionId.length() == AlterationEffects.EXPIRE_TRIGGER_PREFIX.length()) {
+            return null;
+        }
+        final int start = AlterationEffects.EXPIRE_TRIGGER_PREFIX.length();
+
+        // The source (effectID) is everything after the first '|', the sub-type ID is separated by the first ':'.
+        final int sourceSeparator = actionId.indexOf('|', start);
+        final int typeEnd = sourceSeparator < 0 ? actionId.length() : sourceSeparator;
+        final int idSeparator = actionId.indexOf(':', start);
+
+        String effectType;
+        String id = null;
+        if (idSeparator >= 0 && idSeparator < typeEnd) {
+            effectType = actionId.substring(start, idSeparator);
+            id = actionId.substring(idSeparator + 1, typeEnd);
+        } else {
+            effectType = actionId.substring(start, typeEnd);
+        }
+        String effectId = sourceSeparator < 0 ? null : actionId.substring(sourceSeparator + 1);
+
+        return new EffectExpiryKey(effectType, null, id, effectId, actionId);
+    }
+
+    /**
+     * Get an equal key that carries the given effect type, e.g., for a decoded key that is kept for a while.
+     *
+     * @param resolvedType the effect type of this key
+     * @return the key carrying the effect type
+     */
+    public EffectExpiryKey withType(EffectType resolvedType) {
+        if (type == resolvedType) {
+            return this;
+        }
+        if (!effectType.equals(resolvedType.getName())) {
+            throw new IllegalArgumentException("Key of effect type '" + effectType + "' cannot carry type '"
+                    + resolvedType + "'");
+        }
+        return new EffectExpiryKey(effectType, resolvedType, id, effectId, actionId);
+    }
+
+    /**
+     * Get the effect type this key belongs to, e.g., {@link AlterationEffects#DAMAGE_OVER_TIME}.
+     *
+     * @return the effect type
+     */
+    public String getEffectType() {
+        return effectType;
+    }
+
+    /**
+     * Get the registered effect type this key was built for.
+     *
+     * @return the effect type, or {@code null} if the key was built from a name or decoded from an action ID
+     */
+    public EffectType getType() {
+        return type;
+    }
+
+    /**
+     * Check whether this key carries a sub-type ID.
+     *
+     * @return true if a sub-type ID is present
+     */
+    public boolean hasId() {
+        return id != null;
+    }
+
+    /**
+     * Get the sub-type ID, e.g., the damage type of a DOT effect.
+     *
+     * @return the sub-type ID, or the empty string if absent
+     */
+    public String getId() {
+        return id == null ? "" : id;
+    }
+
+    /**
+     * Get the ID of the modifier source whose expiry this key denotes.
+     *
+     * @return the source ID, or the empty string if absent
+     */
+    public String getEffectId() {
+        return effectId == null ? "" : effectId;
+    }
+
+    /**
+     * Get the action ID to be used with the {@link org.terasology.engine.logic.delay.DelayManager}.
+     *
+     * @return the action ID
+     */
+    public String getActionId() {
+        String result = actionId;
+        if (result == null) {
+            StringBuilder builder = new StringBuilder(AlterationEffects.EXPIRE_TRIGGER_PREFIX).append(effectType);
+            if (id != null) {
+                builder.append(':').append(id);
+            }
+            if (effectId != null) {
+                builder.append('|').append(effectId);
+            }
+            result = builder.toString();
+            actionId = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EffectExpiryKey)) {
+            return false;
+        }
+        EffectExpiryKey other = (EffectExpiryKey) o;
+        return hash == other.hash
+                && effectType.equals(other.effectType)
+                && Objects.equals(id, other.id)
+                && Objects.equals(effectId, other.effectId);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return getActionId();
+    }
+}
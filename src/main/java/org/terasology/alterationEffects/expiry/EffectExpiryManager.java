@@ -0,0 +1,53 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.expiry;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+import java.util.Collection;
+
+/**
+ * Schedules the expiration of alteration effects.
+ * <p>
+ * Each pending expiration is identified by the entity and its {@link EffectExpiryKey}. Scheduling an expiration for a
+ * pair that is already pending replaces the previous deadline. Due expirations are passed directly to the
+ * {@link EffectExpiryHandler} registered for the effect type of the key with the
+ * {@link org.terasology.alterationEffects.EffectRegistry}.
+ */
+public interface EffectExpiryManager {
+    /**
+     * Schedule the expiration of an effect on the given entity. Replaces any pending expiration with the same key.
+     *
+     * @param entity the entity the effect is applied on
+     * @param expiryKey the key identifying the effect (and modifier source) that expires
+     * @param delay the time in milliseconds until the effect expires
+     */
+    void scheduleExpiry(EntityRef entity, EffectExpiryKey expiryKey, long delay);
+
+    /**
+     * Schedule the same expiration on all given entities, e.g., for an effect applied to an area. Replaces any pending
+     * expiration with the same key on each of the entities.
+     *
+     * @param entities the entities the effect is applied on
+     * @param expiryKey the key identifying the effect (and modifier source) that expires
+     * @param delay the time in milliseconds until the effect expires
+     */
+    void scheduleExpiry(Collection<EntityRef> entities, EffectExpiryKey expiryKey, long delay);
+
+    /**
+     * Cancel a pending expiration. Does nothing if no such expiration is pending.
+     *
+     * @param entity the entity the effect is applied on
+     * @param expiryKey the key the expiration was scheduled with
+     */
+    void cancelExpiry(EntityRef entity, EffectExpiryKey expiryKey);
+
+    /**
+     * Check whether an expiration is pending for the given entity and key.
+     *
+     * @param entity the entity the effect is applied on
+     * @param expiryKey the key the expiration was scheduled with
+     * @return true if the expiration is pending
+     */
+    boolean hasExpiry(EntityRef entity, EffectExpiryKey expiryKey);
+}
@@ -0,0 +1,291 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.expiry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.alterationEffects.EffectRegistry;
+import org.terasology.alterationEffects.EffectType;
+import org.terasology.alterationEffects.metrics.EffectMetrics;
+import org.terasology.alterationEffects.metrics.EffectStats;
+import org.terasology.engine.core.Time;
+import org.terasology.engine.entitySystem.entity.EntityManager;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.engine.logic.delay.DelayedActionTriggeredEvent;
+import org.terasology.engine.monitoring.Activity;
+import org.terasology.engine.monitoring.PerformanceMonitor;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This authority system owns the expiration schedule of all alteration effects.
+ * <p>
+ * Pending expirations of active entities are kept in a {@link TimingWheel}, which is advanced once per update. All
+ * expirations due in that update are collected first and then handed directly to the {@link EffectExpiryHandler}
+ * registered for their effect type in the {@link EffectRegistry}.
+ * <p>
+ * The wheel is the only record of pending expirations while an entity is active, so scheduling, cancelling and firing
+ * an expiration does not touch any component. Entities with pending expirations carry an
+ * {@link EffectExpiryComponent}, which is added along with the first expiration. Its deadlines are only written when
+ * the entity is unloaded and before the game is saved, and are read back when the entity is loaded again.
+ * <p>
+ * This system is also the single receiver of this module's {@link DelayedActionTriggeredEvent}s. Each action ID is
+ * decoded once via {@link EffectExpiryKey#decode(String)} and routed to the handler of its effect type, instead of
+ * every effect system parsing every triggered action on its own.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+@Share(EffectExpiryManager.class)
+public class EffectExpirySystem extends BaseComponentSystem implements UpdateSubscriberSystem, EffectExpiryManager {
+    private static final Logger logger = LoggerFactory.getLogger(EffectExpirySystem.class);
+
+    /** The name of the performance monitor activity covering the expirations of a single update. */
+    private static final String EXPIRY_ACTIVITY = "AlterationEffects: Expire effects";
+
+    @In
+    private Time time;
+
+    @In
+    private EntityManager entityManager;
+
+    @In
+    private EffectRegistry effectRegistry;
+
+    @In
+    private EffectMetrics effectMetrics;
+
+    /** The stats of each effect type, by ordinal. */
+    private EffectStats[] stats = new EffectStats[0];
+
+    /** The timers of all pending expirations, by entity and key. */
+    private final Map<EntityRef, Map<EffectExpiryKey, TimingWheel.Timer>> timers = new HashMap<>();
+
+    /** Reused buffer for the timers that expire in a single update. */
+    private final List<TimingWheel.Timer> dueTimers = new ArrayList<>();
+
+    private TimingWheel wheel;
+
+    @Override
+    public void update(float delta) {
+        if (wheel == null) {
+            return;
+        }
+
+        // Advance the wheel even while it is empty, which only moves it to the current time. Otherwise, the first
+        // expiration scheduled after a long idle period would make the wheel step through every tick of that period.
+        wheel.advance(time.getGameTimeInMs(), dueTimers);
+        if (dueTimers.isEmpty()) {
+            return;
+        }
+
+        // Remove the whole batch from the schedule first, so that handlers are free to schedule new expirations.
+        for (TimingWheel.Timer timer : dueTimers) {
+            removeTimer(timer);
+        }
+        try (Activity ignored = PerformanceMonitor.startActivity(EXPIRY_ACTIVITY)) {
+            for (TimingWheel.Timer timer : dueTimers) {
+                if (timer.entity.exists()) {
+                    dispatch(timer.entity, timer.key);
+                }
+            }
+        }
+        dueTimers.clear();
+    }
+
+    @Override
+    public void scheduleExpiry(EntityRef entity, EffectExpiryKey expiryKey, long delay) {
+        scheduleAt(entity, expiryKey, time.getGameTimeInMs() + delay);
+    }
+
+    @Override
+    public void scheduleExpiry(Collection<EntityRef> entities, EffectExpiryKey expiryKey, long delay) {
+        final long deadline = time.getGameTimeInMs() + delay;
+        for (EntityRef entity : entities) {
+            scheduleAt(entity, expiryKey, deadline);
+        }
+    }
+
+    @Override
+    public void cancelExpiry(EntityRef entity, EffectExpiryKey expiryKey) {
+        Map<EffectExpiryKey, TimingWheel.Timer> entityTimers = timers.get(entity);
+        if (entityTimers != null) {
+            TimingWheel.Timer timer = entityTimers.remove(expiryKey);
+            if (timer != null) {
+                wheel.cancel(timer);
+            }
+            if (entityTimers.isEmpty()) {
+                timers.remove(entity);
+            }
+        }
+    }
+
+    @Override
+    public boolean hasExpiry(EntityRef entity, EffectExpiryKey expiryKey) {
+        Map<EffectExpiryKey, TimingWheel.Timer> entityTimers = timers.get(entity);
+        return entityTimers != null && entityTimers.containsKey(expiryKey);
+    }
+
+    /**
+     * Write the pending expirations of all active entities to their {@link EffectExpiryComponent}s before the game is
+     * saved. Components of entities without pending expirations are removed.
+     */
+    @Override
+    public void preSave() {
+        List<EntityRef> idle = new ArrayList<>();
+        for (EntityRef entity : entityManager.getEntitiesWith(EffectExpiryComponent.class)) {
+            EffectExpiryComponent component = entity.getComponent(EffectExpiryComponent.class);
+            if (timers.containsKey(entity)) {
+                writeExpiries(entity, component);
+            } else {
+                idle.add(entity);
+            }
+        }
+        for (EntityRef entity : idle) {
+            entity.removeComponent(EffectExpiryComponent.class);
+        }
+    }
+
+    /**
+     * Restore the pending expirations of an entity when it is loaded. From then on, the schedule is the only record of
+     * them until the entity is unloaded or the game is saved.
+     *
+     * @param event the activation event
+     * @param entity the entity that got activated
+     * @param component the persisted pending expirations of the entity
+     */
+    @ReceiveEvent
+    public void onActivated(OnActivatedComponent event, EntityRef entity, EffectExpiryComponent component) {
+        for (Map.Entry<String, Long> entry : component.expiries.entrySet()) {
+            EffectExpiryKey expiryKey = EffectExpiryKey.decode(entry.getKey());
+            if (expiryKey != null) {
+                // Resolve the effect type by name once, so that dispatching the expiration does not need to.
+                EffectType type = effectRegistry.resolve(expiryKey);
+                scheduleTimer(entity, type != null ? expiryKey.withType(type) : expiryKey, entry.getValue());
+            }
+        }
+        component.expiries.clear();
+    }
+
+    /**
+     * Route an expiration that is still queued in the {@link org.terasology.engine.logic.delay.DelayManager} (e.g.,
+     * from a game saved by an earlier version of this module) to the handler of its effect type.
+     * <p>
+     * Actions of other modules are rejected by a prefix check.
+     *
+     * @param event the event holding the action ID of the triggered delayed action
+     * @param entity the entity the delayed action was scheduled on
+     */
+    @ReceiveEvent
+    public void onDelayedActionTriggered(DelayedActionTriggeredEvent event, EntityRef entity) {
+        EffectExpiryKey expiryKey = EffectExpiryKey.decode(event.getActionId());
+        if (expiryKey != null) {
+            dispatch(entity, expiryKey);
+        }
+    }
+
+    /**
+     * Move the pending expirations of an entity from the schedule to its {@link EffectExpiryComponent} when it is
+     * unloaded or destroyed.
+     * <p>
+     * The component is updated in place without saving it: the entity is stored with the state its components have
+     * after deactivation, and saving a component of an entity that is being deactivated would only send change events
+     * to systems that are about to drop the entity as well.
+     *
+     * @param event the deactivation event
+     * @param entity the entity that is about to be deactivated
+     * @param component the persisted pending expirations of the entity
+     */
+    @ReceiveEvent
+    public void onDeactivated(BeforeDeactivateComponent event, EntityRef entity, EffectExpiryComponent component) {
+        writeExpiries(entity, component);
+        Map<EffectExpiryKey, TimingWheel.Timer> entityTimers = timers.remove(entity);
+        if (entityTimers != null && wheel != null) {
+            for (TimingWheel.Timer timer : entityTimers.values()) {
+                wheel.cancel(timer);
+            }
+        }
+    }
+
+    private void scheduleAt(EntityRef entity, EffectExpiryKey expiryKey, long deadline) {
+        // The component is only needed to persist the expirations of the entity. It is added along with the first
+        // pending expiration, and kept until the next save so that effects applied in quick succession don't add and
+        // remove it over and over.
+        if (!timers.containsKey(entity) && !entity.hasComponent(EffectExpiryComponent.class)) {
+            entity.addComponent(new EffectExpiryComponent());
+        }
+        scheduleTimer(entity, expiryKey, deadline);
+    }
+
+    private void scheduleTimer(EntityRef entity, EffectExpiryKey expiryKey, long deadline) {
+        if (wheel == null) {
+            wheel = new TimingWheel(time.getGameTimeInMs());
+        }
+        Map<EffectExpiryKey, TimingWheel.Timer> entityTimers = timers.computeIfAbsent(entity, e -> new HashMap<>());
+        TimingWheel.Timer timer = entityTimers.get(expiryKey);
+        if (timer == null) {
+            timer = new TimingWheel.Timer(entity, expiryKey);
+            entityTimers.put(expiryKey, timer);
+        }
+        wheel.schedule(timer, deadline);
+    }
+
+    private void removeTimer(TimingWheel.Timer timer) {
+        Map<EffectExpiryKey, TimingWheel.Timer> entityTimers = timers.get(timer.entity);
+        if (entityTimers != null && entityTimers.get(timer.key) == timer) {
+            entityTimers.remove(timer.key);
+            if (entityTimers.isEmpty()) {
+                timers.remove(timer.entity);
+            }
+        }
+    }
+
+    /**
+     * Replace the persisted expirations of the entity with its pending ones. The component is changed in place, see
+     * {@link #onDeactivated(BeforeDeactivateComponent, EntityRef, EffectExpiryComponent)} and {@link #preSave()}.
+     */
+    private void writeExpiries(EntityRef entity, EffectExpiryComponent component) {
+        component.expiries.clear();
+        Map<EffectExpiryKey, TimingWheel.Timer> entityTimers = timers.get(entity);
+        if (entityTimers != null) {
+            for (TimingWheel.Timer timer : entityTimers.values()) {
+                component.expiries.put(timer.key.getActionId(), timer.deadline);
+            }
+        }
+    }
+
+    private void dispatch(EntityRef entity, EffectExpiryKey expiryKey) {
+        EffectType type = effectRegistry.resolve(expiryKey);
+        EffectExpiryHandler handler = type != null ? effectRegistry.getExpiryHandler(type) : null;
+        if (handler != null) {
+            final long startTime = System.nanoTime();
+            handler.onEffectExpired(entity, expiryKey);
+            statsOf(type).recordExpiry(System.nanoTime() - startTime);
+        } else {
+            logger.warn("No expiry handler registered for effect type '{}'", expiryKey.getEffectType());
+        }
+    }
+
+    private EffectStats statsOf(EffectType type) {
+        final int ordinal = type.getOrdinal();
+        if (ordinal >= stats.length) {
+            stats = Arrays.copyOf(stats, effectRegistry.size());
+        }
+        if (stats[ordinal] == null) {
+            stats[ordinal] = effectMetrics.getStats(type.getName());
+        }
+        return stats[ordinal];
+    }
+}
@@ -0,0 +1,18 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.expiry;
+
+import org.terasology.gestalt.entitysystem.component.Component;
+
+/**
+ * Marks an entity that may carry lazily expiring effects, so that the {@link LazyExpirySystem} tracks them again when
+ * the entity is loaded.
+ * <p>
+ * The end times themselves are stored on the {@link TimedEffectComponent}s of the effects. The marker is added along
+ * with the first lazily expiring effect, and only removed when the entity is loaded without any.
+ */
+public class LazyExpiryComponent implements Component<LazyExpiryComponent> {
+    @Override
+    public void copyFrom(LazyExpiryComponent other) {
+    }
+}
@@ -0,0 +1,23 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.expiry;
+
+import org.terasology.alterationEffects.EffectType;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+/**
+ * Keeps track of lazily expiring effects, i.e., effects whose end time is stored on their {@link TimedEffectComponent}
+ * instead of being scheduled, so that their components are removed some time after they ended.
+ */
+public interface LazyExpiryManager {
+    /**
+     * Remove the component of an effect some time after the given end time, unless it was applied again since.
+     * <p>
+     * The end time must already be stored on the {@link TimedEffectComponent} of the effect.
+     *
+     * @param entity the entity the effect is applied on
+     * @param type the registered effect type, which is backed by a {@link TimedEffectComponent}
+     * @param expiresAt the game time (in milliseconds) at which the effect ends
+     */
+    void expireLazily(EntityRef entity, EffectType type, long expiresAt);
+}
@@ -0,0 +1,162 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.expiry;
+
+import org.terasology.alterationEffects.EffectRegistry;
+import org.terasology.alterationEffects.EffectType;
+import org.terasology.engine.core.Time;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
+import org.terasology.gestalt.entitysystem.component.Component;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * This authority system removes lazily expired effects, i.e., components implementing {@link TimedEffectComponent}
+ * whose end time has passed.
+ * <p>
+ * Readers already ignore such components, so there is no need to remove them exactly on time. Instead, each effect
+ * passed to {@link #expireLazily(EntityRef, EffectType, long)} is kept in a queue ordered by end time, and the queue is
+ * drained up to the current time once every {@link #SWEEP_INTERVAL} milliseconds. Each expired effect is handed to the
+ * {@link EffectExpiryHandler} registered for its type, just like a scheduled expiration. A sweep only visits the
+ * effects that ended since the last one, regardless of how many entities carry effects.
+ * <p>
+ * Effects applied again after being queued leave a stale entry behind, which is dropped when it comes up, as the
+ * component no longer ends at that time. Entities unloaded before their effects end are dropped as well, and queued
+ * again from their {@link LazyExpiryComponent} when they are loaded.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+@Share(LazyExpiryManager.class)
+public class LazyExpirySystem extends BaseComponentSystem implements UpdateSubscriberSystem, LazyExpiryManager {
+    /** The time between two sweeps in milliseconds. */
+    private static final long SWEEP_INTERVAL = 1000;
+
+    @In
+    private Time time;
+
+    @In
+    private EffectRegistry effectRegistry;
+
+    /** The lazily expiring effects, by end time. */
+    private final PriorityQueue<LazyExpiry> queue = new PriorityQueue<>(Comparator.comparingLong(e -> e.expiresAt));
+
+    /** Reused buffer for the effects that ended before a single sweep. */
+    private final List<LazyExpiry> dueExpiries = new ArrayList<>();
+
+    /** The registered effect types backed by a {@link TimedEffectComponent}. */
+    private final List<EffectType> timedTypes = new ArrayList<>();
+
+    private int knownTypes = -1;
+    private long nextSweep;
+
+    @Override
+    public void expireLazily(EntityRef entity, EffectType type, long expiresAt) {
+        // The marker is kept once added, so that effects applied in quick succession don't add and remove it over and
+        // over. Adding it queues the effect as well, see onActivated.
+        if (!entity.hasComponent(LazyExpiryComponent.class)) {
+            entity.addComponent(new LazyExpiryComponent());
+        } else {
+            queue.add(new LazyExpiry(entity, type, expiresAt));
+        }
+    }
+
+    @Override
+    public void update(float delta) {
+        final long now = time.getGameTimeInMs();
+        if (now < nextSweep) {
+            return;
+        }
+        nextSweep = now + SWEEP_INTERVAL;
+
+        // Collect first, as the handlers remove the expired components and may queue effects again.
+        while (!queue.isEmpty() && queue.peek().expiresAt <= now) {
+            dueExpiries.add(queue.poll());
+        }
+        for (LazyExpiry expiry : dueExpiries) {
+            EffectExpiryHandler handler = effectRegistry.getExpiryHandler(expiry.type);
+            if (handler != null && expiry.entity.isActive() && hasEnded(expiry.entity, expiry.type, now)) {
+                handler.onEffectExpired(expiry.entity, EffectExpiryKey.of(expiry.type));
+            }
+        }
+        dueExpiries.clear();
+    }
+
+    /**
+     * Queue the lazily expiring effects of an entity when it is loaded, or when the marker is added along with its
+     * first lazily expiring effect. The marker is removed again from loaded entities without such effects.
+     *
+     * @param event the activation event
+     * @param entity the entity that got activated
+     * @param component the marker of entities with lazily expiring effects
+     */
+    @ReceiveEvent
+    public void onActivated(OnActivatedComponent event, EntityRef entity, LazyExpiryComponent component) {
+        if (knownTypes != effectRegistry.size()) {
+            updateTimedTypes();
+        }
+        boolean found = false;
+        for (EffectType type : timedTypes) {
+            Component effect = entity.getComponent(effectRegistry.getComponentClass(type));
+            if (effect != null) {
+                final long expiresAt = ((TimedEffectComponent) effect).getExpiresAt();
+                if (expiresAt != TimedEffectComponent.NO_EXPIRY) {
+                    queue.add(new LazyExpiry(entity, type, expiresAt));
+                    found = true;
+                }
+            }
+        }
+        if (!found) {
+            entity.removeComponent(LazyExpiryComponent.class);
+        }
+    }
+
+    /**
+     * Check whether the effect of the given type still ends lazily at or before the given time. Effects applied again
+     * since they were queued either end later or have their expiration scheduled.
+     */
+    private boolean hasEnded(EntityRef entity, EffectType type, long now) {
+        Component component = entity.getComponent(effectRegistry.getComponentClass(type));
+        if (component == null) {
+            return false;
+        }
+        final long expiresAt = ((TimedEffectComponent) component).getExpiresAt();
+        return expiresAt != TimedEffectComponent.NO_EXPIRY && expiresAt <= now;
+    }
+
+    private void updateTimedTypes() {
+        timedTypes.clear();
+        for (EffectType type : effectRegistry.getTypes()) {
+            final Class<? extends Component> componentClass = effectRegistry.getComponentClass(type);
+            if (componentClass != null && TimedEffectComponent.class.isAssignableFrom(componentClass)
+                    && effectRegistry.getExpiryHandler(type) != null) {
+                timedTypes.add(type);
+            }
+        }
+        knownTypes = effectRegistry.size();
+    }
+
+    /**
+     * A lazily expiring effect on an entity, and the time at which it ends.
+     */
+    private static final class LazyExpiry {
+        final EntityRef entity;
+        final EffectType type;
+        final long expiresAt;
+
+        LazyExpiry(EntityRef entity, EffectType type, long expiresAt) {
+            this.entity = entity;
+            this.type = type;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.expiry;
+
+/**
+ * A component of an alteration effect that can carry its own absolute expiry time.
+ * <p>
+ * Very short effects without modifiers may be expired lazily: instead of scheduling an expiration, the game time at
+ * which the effect ends is stored on the component. Readers have to check {@link #isActive(TimedEffectComponent, long)}
+ * and ignore the component once that time has passed. The component itself is removed some time later by the
+ * {@link LazyExpiryManager}.
+ */
+public interface TimedEffectComponent {
+    /** Marker value for components whose expiration is scheduled, or which do not expire at all. */
+    long NO_EXPIRY = 0;
+
+    /**
+     * @return the game time (in milliseconds) at which the effect ends, or {@link #NO_EXPIRY}
+     */
+    long getExpiresAt();
+
+    /**
+     * @param expiresAt the game time (in milliseconds) at which the effect ends, or {@link #NO_EXPIRY}
+     */
+    void setExpiresAt(long expiresAt);
+
+    /**
+     * Check whether the effect of a component is in effect at the given time.
+     *
+     * @param component the component, may be null
+     * @param now the current game time in milliseconds
+     * @return true if the component is present and has not expired yet
+     */
+    static boolean isActive(TimedEffectComponent component, long now) {
+        return component != null && (component.getExpiresAt() == NO_EXPIRY || now < component.getExpiresAt());
+    }
+}
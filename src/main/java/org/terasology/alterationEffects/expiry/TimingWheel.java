@@ -0,0 +1,197 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.expiry;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel holding the pending effect expirations.
+ * <p>
+ * Time is divided into ticks of {@link #TICK_MS} milliseconds. The wheel consists of {@link #LEVELS} levels with
+ * {@link #SLOTS} slots each, where every slot on level {@code n} spans {@code SLOTS^n} ticks. A timer is placed on the
+ * lowest level that can hold its deadline and moves down ("cascades") as time advances. Scheduling, rescheduling and
+ * cancelling a timer are O(1); advancing the wheel costs O(1) per tick plus the number of timers touched.
+ * <p>
+ * Deadlines further in the future than the wheel can represent (about 46 hours of game time) are parked in the last
+ * slot of the top level and re-evaluated when that slot cascades.
+ * <p>
+ * This class is not thread-safe and is expected to be used from the main thread only.
+ */
+final class TimingWheel {
+    /** The length of a single tick in milliseconds of game time. */
+    static final long TICK_MS = 10;
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    /**
+     * A single scheduled expiration, linked into exactly one slot of the wheel while pending.
+     */
+    static final class Timer {
+        final EntityRef entity;
+        final EffectExpiryKey key;
+        long deadline;
+
+        private long deadlineTick;
+        private int level = -1;
+        private int slot;
+        private Timer prev;
+        private Timer next;
+
+        Timer(EntityRef entity, EffectExpiryKey key) {
+            this.entity = entity;
+            this.key = key;
+        }
+
+        boolean isScheduled() {
+            return level >= 0;
+        }
+    }
+
+    private final Timer[][] wheel = new Timer[LEVELS][SLOTS];
+
+    /** The last tick that has been fully processed. */
+    private long currentTick;
+    private int size;
+
+    /**
+     * Create an empty wheel starting at the given game time.
+     *
+     * @param startTime the current game time in milliseconds
+     */
+    TimingWheel(long startTime) {
+        this.currentTick = startTime / TICK_MS;
+    }
+
+    /**
+     * The number of timers currently scheduled.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Schedule the timer to expire at the given game time. If the timer is already scheduled, it is moved.
+     *
+     * @param timer the timer to schedule
+     * @param deadline the game time in milliseconds at which the timer expires
+     */
+    void schedule(Timer timer, long deadline) {
+        if (timer.isScheduled()) {
+            unlink(timer);
+        } else {
+            size++;
+        }
+        timer.deadline = deadline;
+        // Round up, so that timers never fire early.
+        timer.deadlineTick = Math.max(currentTick + 1, (deadline + TICK_MS - 1) / TICK_MS);
+        insert(timer);
+    }
+
+    /**
+     * Remove the timer from the wheel. Does nothing if the timer is not scheduled.
+     *
+     * @param timer the timer to cancel
+     */
+    void cancel(Timer timer) {
+        if (timer.isScheduled()) {
+            unlink(timer);
+            size--;
+        }
+    }
+
+    /**
+     * Advance the wheel to the given game time and collect all timers that expired on the way.
+     * <p>
+     * Expired timers are removed from the wheel and appended to {@code expired} in order of their tick.
+     *
+     * @param now the current game time in milliseconds
+     * @param expired the list to append expired timers to
+     */
+    void advance(long now, List<Timer> expired) {
+        final long targetTick = now / TICK_MS;
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                currentTick = targetTick;
+                return;
+            }
+            currentTick++;
+
+            // Move timers from higher levels down whenever a lower level completed a full rotation.
+            for (int level = 1; level < LEVELS; level++) {
+                if (((currentTick >>> (SLOT_BITS * (level - 1))) & SLOT_MASK) != 0) {
+                    break;
+                }
+                cascade(level, (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+            }
+
+            final int index = (int) (currentTick & SLOT_MASK);
+            Timer timer = wheel[0][index];
+            wheel[0][index] = null;
+            while (timer != null) {
+                Timer next = timer.next;
+                timer.prev = null;
+                timer.next = null;
+                timer.level = -1;
+                size--;
+                expired.add(timer);
+                timer = next;
+            }
+        }
+    }
+
+    private void cascade(int level, int index) {
+        Timer timer = wheel[level][index];
+        wheel[level][index] = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            insert(timer);
+            timer = next;
+        }
+    }
+
+    private void insert(Timer timer) {
+        long delta = timer.deadlineTick - currentTick;
+        long tick = timer.deadlineTick;
+        if (delta > MAX_DELTA) {
+            tick = currentTick + MAX_DELTA;
+            delta = MAX_DELTA;
+        }
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        final int index = (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+        timer.level = level;
+        timer.slot = index;
+        timer.prev = null;
+        timer.next = wheel[level][index];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        wheel[level][index] = timer;
+    }
+
+    private void unlink(Timer timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            wheel[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.level = -1;
+    }
+}
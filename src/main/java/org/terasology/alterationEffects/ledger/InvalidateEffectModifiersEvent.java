@@ -0,0 +1,47 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.ledger;
+
+import org.terasology.gestalt.entitysystem.event.Event;
+
+/**
+ * Send this event to an entity if a modifier source changed its contribution to an alteration effect outside of an
+ * {@link org.terasology.alterationEffects.OnEffectModifyEvent}. The recorded modifier ledger is dropped, and the next
+ * recalculation of the effect collects all modifiers again.
+ */
+public class InvalidateEffectModifiersEvent implements Event {
+    private final String effectType;
+    private final String id;
+
+    /**
+     * Invalidate the modifier ledgers of all alteration effects on the entity.
+     */
+    public InvalidateEffectModifiersEvent() {
+        this(null, null);
+    }
+
+    /**
+     * Invalidate the modifier ledger of a single alteration effect on the entity.
+     *
+     * @param effectType the effect type, e.g., {@link org.terasology.alterationEffects.AlterationEffects#WALK_SPEED}
+     * @param id the sub-type ID of the effect, or {@code null} or the empty string if it has no sub-types
+     */
+    public InvalidateEffectModifiersEvent(String effectType, String id) {
+        this.effectType = effectType;
+        this.id = id;
+    }
+
+    /**
+     * @return the effect type to invalidate, or {@code null} to invalidate all effects
+     */
+    public String getEffectType() {
+        return effectType;
+    }
+
+    /**
+     * @return the sub-type ID of the effect to invalidate
+     */
+    public String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,42 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.ledger;
+
+import org.terasology.reflection.MappedContainer;
+
+/**
+ * The contribution of a single source (effectID) to the modifiers of an alteration effect.
+ */
+@MappedContainer
+public class ModifierContribution {
+    /**
+     * Marker value of {@link #expiresAt} for contributions with infinite duration.
+     */
+    public static final long INFINITE = -1;
+
+    /**
+     * The magnitude this source adds to the effect.
+     */
+    public float magnitude;
+
+    /**
+     * The game time (in milliseconds) at which this contribution expires, or {@link #INFINITE}.
+     */
+    public long expiresAt;
+
+    public ModifierContribution() {
+    }
+
+    public ModifierContribution(float magnitude, long expiresAt) {
+        this.magnitude = magnitude;
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isInfinite() {
+        return expiresAt < 0;
+    }
+
+    public ModifierContribution copy() {
+        return new ModifierContribution(magnitude, expiresAt);
+    }
+}
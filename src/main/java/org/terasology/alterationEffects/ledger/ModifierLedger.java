@@ -0,0 +1,214 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.ledger;
+
+import gnu.trove.map.TObjectIntMap;
+import gnu.trove.map.hash.TObjectIntHashMap;
+import org.terasology.reflection.MappedContainer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The modifier contributions of all sources to a single alteration effect (and sub-type) on an entity.
+ * <p>
+ * Only {@link #contributions} is persisted. The aggregate magnitude, the set of sources with infinite duration, and an
+ * indexed min-heap of the finite contributions ordered by expiry are derived from it on first use and then kept up to
+ * date on every change. Adding or removing a contribution costs O(log n); the aggregate magnitude and the next expiring
+ * contribution are available in O(1).
+ */
+@MappedContainer
+public class ModifierLedger {
+    /**
+     * The contribution of each source, by effectID.
+     */
+    public Map<String, ModifierContribution> contributions = new HashMap<>();
+
+    private transient boolean indexed;
+    private transient double magnitude;
+    private transient Set<String> infiniteSources;
+    private transient String[] heap;
+    private transient int heapSize;
+    private transient TObjectIntMap<String> heapIndex;
+
+    /**
+     * Add or replace the contribution of a source.
+     *
+     * @param effectID the source of the contribution
+     * @param contribution the contributed magnitude and expiry
+     */
+    public void put(String effectID, ModifierContribution contribution) {
+        ensureIndexed();
+        remove(effectID);
+        contributions.put(effectID, contribution);
+        index(effectID, contribution);
+    }
+
+    /**
+     * Remove the contribution of a source. Does nothing if the source has no contribution.
+     *
+     * @param effectID the source of the contribution
+     */
+    public void remove(String effectID) {
+        ensureIndexed();
+        ModifierContribution contribution = contributions.remove(effectID);
+        if (contribution == null) {
+            return;
+        }
+        magnitude -= contribution.magnitude;
+        if (contribution.isInfinite()) {
+            infiniteSources.remove(effectID);
+        } else {
+            heapRemove(heapIndex.get(effectID));
+        }
+        if (contributions.isEmpty()) {
+            // Avoid carrying rounding errors over to future contributions.
+            magnitude = 0;
+        }
+    }
+
+    /**
+     * Remove all finite contributions that expired at or before the given time.
+     *
+     * @param now the current game time in milliseconds
+     * @return true if any contribution was removed
+     */
+    public boolean removeExpired(long now) {
+        ensureIndexed();
+        boolean removed = false;
+        while (heapSize > 0 && contributions.get(heap[0]).expiresAt <= now) {
+            remove(heap[0]);
+            removed = true;
+        }
+        return removed;
+    }
+
+    public boolean isEmpty() {
+        return contributions.isEmpty();
+    }
+
+    /**
+     * The sum of the magnitudes of all contributions.
+     */
+    public float getMagnitude() {
+        ensureIndexed();
+        return (float) magnitude;
+    }
+
+    /**
+     * The source of the finite contribution that expires next, or {@code null} if there is none.
+     */
+    public String getNextExpiringSource() {
+        ensureIndexed();
+        return heapSize > 0 ? heap[0] : null;
+    }
+
+    /**
+     * The game time at which the next finite contribution expires, or {@link Long#MAX_VALUE} if there is none.
+     */
+    public long getNextExpiry() {
+        ensureIndexed();
+        return heapSize > 0 ? contributions.get(heap[0]).expiresAt : Long.MAX_VALUE;
+    }
+
+    /**
+     * Any source with a contribution of infinite duration, or {@code null} if there is none.
+     */
+    public String getInfiniteSource() {
+        ensureIndexed();
+        return infiniteSources.isEmpty() ? null : infiniteSources.iterator().next();
+    }
+
+    public ModifierLedger copy() {
+        ModifierLedger ledger = new ModifierLedger();
+        contributions.forEach((k, v) -> ledger.contributions.put(k, v.copy()));
+        return ledger;
+    }
+
+    private void ensureIndexed() {
+        if (indexed) {
+            return;
+        }
+        indexed = true;
+        magnitude = 0;
+        infiniteSources = new HashSet<>();
+        heap = new String[Math.max(4, contributions.size())];
+        heapSize = 0;
+        heapIndex = new TObjectIntHashMap<>();
+        contributions.forEach(this::index);
+    }
+
+    private void index(String effectID, ModifierContribution contribution) {
+        magnitude += contribution.magnitude;
+        if (contribution.isInfinite()) {
+            infiniteSources.add(effectID);
+        } else {
+            if (heapSize == heap.length) {
+                heap = Arrays.copyOf(heap, heapSize * 2);
+            }
+            heap[heapSize] = effectID;
+            heapIndex.put(effectID, heapSize);
+            heapSize++;
+            siftUp(heapSize - 1);
+        }
+    }
+
+    private void heapRemove(int position) {
+        heapIndex.remove(heap[position]);
+        heapSize--;
+        if (position != heapSize) {
+            heap[position] = heap[heapSize];
+            heapIndex.put(heap[position], position);
+            heap[heapSize] = null;
+            siftDown(position);
+            siftUp(position);
+        } else {
+            heap[heapSize] = null;
+        }
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (expiryAt(parent) <= expiryAt(position)) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < heapSize && expiryAt(left) < expiryAt(smallest)) {
+                smallest = left;
+            }
+            if (right < heapSize && expiryAt(right) < expiryAt(smallest)) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private long expiryAt(int position) {
+        return contributions.get(heap[position]).expiresAt;
+    }
+
+    private void swap(int a, int b) {
+        String effectID = heap[a];
+        heap[a] = heap[b];
+        heap[b] = effectID;
+        heapIndex.put(heap[a], a);
+        heapIndex.put(heap[b], b);
+    }
+}
@@ -0,0 +1,65 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.ledger;
+
+import org.terasology.gestalt.entitysystem.component.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds the modifier ledgers of all alteration effects on an entity whose modifiers could be attributed to their
+ * sources.
+ */
+public class ModifierLedgerComponent implements Component<ModifierLedgerComponent> {
+    /**
+     * The modifier ledger of each effect, by effect type and sub-type ID. Effects without sub-types are stored under
+     * the empty ID. The maps are nested so that looking up a ledger does not need to build a combined key.
+     */
+    public Map<String, Map<String, ModifierLedger>> ledgers = new HashMap<>();
+
+    @Override
+    public void copyFrom(ModifierLedgerComponent other) {
+        ledgers.clear();
+        other.ledgers.forEach((effectType, byId) -> {
+            Map<String, ModifierLedger> copy = new HashMap<>();
+            byId.forEach((id, ledger) -> copy.put(id, ledger.copy()));
+            this.ledgers.put(effectType, copy);
+        });
+    }
+
+    /**
+     * @param effectType the effect type
+     * @param id the sub-type ID of the effect, or the empty string if it has none
+     * @return the ledger of the effect, or null if none is recorded
+     */
+    ModifierLedger get(String effectType, String id) {
+        Map<String, ModifierLedger> byId = ledgers.get(effectType);
+        return byId != null ? byId.get(id) : null;
+    }
+
+    /**
+     * @param effectType the effect type
+     * @param id the sub-type ID of the effect, or the empty string if it has none
+     * @param ledger the ledger to record for the effect
+     */
+    void put(String effectType, String id, ModifierLedger ledger) {
+        ledgers.computeIfAbsent(effectType, k -> new HashMap<>()).put(id, ledger);
+    }
+
+    /**
+     * @param effectType the effect type
+     * @param id the sub-type ID of the effect, or the empty string if it has none
+     * @return true if a ledger was recorded for the effect
+     */
+    boolean remove(String effectType, String id) {
+        Map<String, ModifierLedger> byId = ledgers.get(effectType);
+        if (byId == null || byId.remove(id) == null) {
+            return false;
+        }
+        if (byId.isEmpty()) {
+            ledgers.remove(effectType);
+        }
+        return true;
+    }
+}
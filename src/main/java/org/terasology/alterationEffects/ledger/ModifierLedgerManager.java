@@ -0,0 +1,57 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.ledger;
+
+import org.terasology.alterationEffects.AlterationEffect;
+import org.terasology.alterationEffects.OnEffectModifyEvent;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+/**
+ * Collects the modifiers of alteration effects and keeps a ledger of the contribution of each source.
+ * <p>
+ * When an effect is applied, its modifiers are collected by sending an {@link OnEffectModifyEvent} as usual. If all
+ * collected modifiers were added with {@link OnEffectModifyEvent#addModifier(String, float, double)}, the contributions
+ * are recorded in a {@link ModifierLedger}. When the effect is re-applied because one of its modifiers expired, the
+ * modifiers are taken from the ledger instead of being collected again.
+ */
+public interface ModifierLedgerManager {
+    /**
+     * Collect the modifiers of an effect on the given entity.
+     * <p>
+     * The returned event was obtained via {@link OnEffectModifyEvent#obtain} and should be released by the caller.
+     *
+     * @param instigator the entity that applied the effect
+     * @param entity the entity the effect is applied on
+     * @param effect the alteration effect being applied
+     * @param effectType the effect type, e.g., {@link org.terasology.alterationEffects.AlterationEffects#WALK_SPEED}
+     * @param id the sub-type ID of the effect, may be null or empty
+     * @param reapply true if the effect is re-applied after one of its modifiers expired
+     * @return the event holding the collected modifiers
+     */
+    OnEffectModifyEvent collectModifiers(EntityRef instigator, EntityRef entity, AlterationEffect effect,
+                                         String effectType, String id, boolean reapply);
+
+    /**
+     * Remove the contributions of an effect that have expired by now.
+     * <p>
+     * If the effect is backed by a ledger and contributions of other sources remain, the effect stays in place and only
+     * needs to be updated with the remaining aggregate via
+     * {@link org.terasology.alterationEffects.AlterationEffect#reapplyEffect(EntityRef, String)}. Otherwise, the effect
+     * has to be torn down and rebuilt from all modifiers.
+     *
+     * @param entity the entity the effect is applied on
+     * @param effectType the effect type
+     * @param id the sub-type ID of the effect, may be null or empty
+     * @return true if the effect is backed by a ledger with remaining contributions
+     */
+    boolean expireContributions(EntityRef entity, String effectType, String id);
+
+    /**
+     * Drop the modifier ledger of an effect, so that its modifiers are collected again on the next recalculation.
+     *
+     * @param entity the entity the effect is applied on
+     * @param effectType the effect type
+     * @param id the sub-type ID of the effect, may be null or empty
+     */
+    void invalidate(EntityRef entity, String effectType, String id);
+}
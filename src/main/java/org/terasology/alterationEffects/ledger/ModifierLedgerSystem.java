@@ -0,0 +1,163 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.ledger;
+
+import org.terasology.alterationEffects.AlterationEffect;
+import org.terasology.alterationEffects.OnEffectModifyEvent;
+import org.terasology.engine.core.Time;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterMode;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.registry.In;
+import org.terasology.engine.registry.Share;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+
+/**
+ * This authority system keeps the {@link ModifierLedger}s of all entities up to date.
+ * <p>
+ * A ledger is recorded whenever the modifiers collected for an effect can be attributed to their sources, and dropped
+ * whenever they cannot. Each source stacks with its own magnitude and expiry. When one of them expires, it is popped
+ * from the ledger's expiry heap and the aggregate is updated; the effect then stays on the entity and is updated in
+ * place by replaying the aggregate into a local event, without dispatching an {@link OnEffectModifyEvent} to all
+ * contributors again.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+@Share(ModifierLedgerManager.class)
+public class ModifierLedgerSystem extends BaseComponentSystem implements ModifierLedgerManager {
+    @In
+    private Time time;
+
+    @Override
+    public OnEffectModifyEvent collectModifiers(EntityRef instigator, EntityRef entity, AlterationEffect effect,
+                                                String effectType, String id, boolean reapply) {
+        final String ledgerId = ledgerId(id);
+        final long now = time.getGameTimeInMs();
+
+        if (reapply) {
+            ModifierLedgerComponent component = entity.getComponent(ModifierLedgerComponent.class);
+            ModifierLedger ledger = component != null ? component.get(effectType, ledgerId) : null;
+            if (ledger != null) {
+                OnEffectModifyEvent event = OnEffectModifyEvent.obtain(instigator, entity, 0, 0, effect, id);
+                if (ledger.removeExpired(now)) {
+                    if (ledger.isEmpty()) {
+                        component.remove(effectType, ledgerId);
+                    }
+                    save(entity, component);
+                }
+                replay(ledger, event, now);
+                return event;
+            }
+        }
+
+        OnEffectModifyEvent event = entity.send(OnEffectModifyEvent.obtain(instigator, entity, 0, 0, effect, id));
+        record(entity, effectType, ledgerId, event, now);
+        return event;
+    }
+
+    @Override
+    public boolean expireContributions(EntityRef entity, String effectType, String id) {
+        ModifierLedgerComponent component = entity.getComponent(ModifierLedgerComponent.class);
+        if (component == null) {
+            return false;
+        }
+        final String ledgerId = ledgerId(id);
+        ModifierLedger ledger = component.get(effectType, ledgerId);
+        if (ledger == null) {
+            return false;
+        }
+        if (ledger.removeExpired(time.getGameTimeInMs())) {
+            if (ledger.isEmpty()) {
+                component.remove(effectType, ledgerId);
+            }
+            save(entity, component);
+        }
+        return !ledger.isEmpty();
+    }
+
+    @Override
+    public void invalidate(EntityRef entity, String effectType, String id) {
+        ModifierLedgerComponent component = entity.getComponent(ModifierLedgerComponent.class);
+        if (component != null && component.remove(effectType, ledgerId(id))) {
+            save(entity, component);
+        }
+    }
+
+    /**
+     * Drop the modifier ledgers a contributor asked to invalidate.
+     *
+     * @param event the event naming the effect to invalidate, if any
+     * @param entity the entity the effect is applied on
+     * @param component the modifier ledgers of the entity
+     */
+    @ReceiveEvent
+    public void onInvalidateModifiers(InvalidateEffectModifiersEvent event, EntityRef entity,
+                                      ModifierLedgerComponent component) {
+        if (event.getEffectType() == null) {
+            entity.removeComponent(ModifierLedgerComponent.class);
+        } else {
+            invalidate(entity, event.getEffectType(), event.getId());
+        }
+    }
+
+    /**
+     * Fill the event with the aggregate of the ledger, as if all remaining contributors had added their modifiers.
+     */
+    private void replay(ModifierLedger ledger, OnEffectModifyEvent event, long now) {
+        if (ledger.isEmpty()) {
+            return;
+        }
+        event.addMagnitude(ledger.getMagnitude());
+
+        String nextExpiringSource = ledger.getNextExpiringSource();
+        if (nextExpiringSource != null) {
+            event.addDuration(ledger.getNextExpiry() - now, nextExpiringSource);
+        }
+        String infiniteSource = ledger.getInfiniteSource();
+        if (infiniteSource != null) {
+            event.addDuration(ModifierContribution.INFINITE, infiniteSource);
+        }
+    }
+
+    /**
+     * Record the contributions collected in the event, or drop the ledger if they cannot be attributed.
+     */
+    private void record(EntityRef entity, String effectType, String ledgerId, OnEffectModifyEvent event, long now) {
+        ModifierLedgerComponent component = entity.getComponent(ModifierLedgerComponent.class);
+        if (event.isConsumed() || event.getAttributedModifierCount() == 0 || !event.isFullyAttributed()) {
+            if (component != null && component.remove(effectType, ledgerId)) {
+                save(entity, component);
+            }
+            return;
+        }
+
+        ModifierLedger ledger = new ModifierLedger();
+        for (int i = 0; i < event.getAttributedModifierCount(); i++) {
+            double duration = event.getAttributedDuration(i);
+            long expiresAt = duration < 0 ? ModifierContribution.INFINITE : now + (long) duration;
+            ledger.put(event.getAttributedEffectID(i),
+                    new ModifierContribution(event.getAttributedMagnitude(i), expiresAt));
+        }
+
+        if (component == null) {
+            component = new ModifierLedgerComponent();
+            component.put(effectType, ledgerId, ledger);
+            entity.addComponent(component);
+        } else {
+            component.put(effectType, ledgerId, ledger);
+            entity.saveComponent(component);
+        }
+    }
+
+    private void save(EntityRef entity, ModifierLedgerComponent component) {
+        if (component.ledgers.isEmpty()) {
+            entity.removeComponent(ModifierLedgerComponent.class);
+        } else {
+            entity.saveComponent(component);
+        }
+    }
+
+    private static String ledgerId(String id) {
+        return id == null ? "" : id;
+    }
+}
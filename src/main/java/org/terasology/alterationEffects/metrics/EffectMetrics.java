@@ -0,0 +1,39 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.metrics;
+
+import java.util.Collection;
+
+/**
+ * Runtime metrics of all alteration effect types, e.g., how often effects are applied and expire, and how long that
+ * takes.
+ * <p>
+ * Effects and systems obtain the {@link EffectStats} of their effect type once and record into it directly.
+ */
+public interface EffectMetrics {
+    /**
+     * Get the stats of the given effect type, creating them if necessary. The same instance is returned for the same
+     * effect type until the game is shut down.
+     *
+     * @param effectType the effect type, e.g., {@link org.terasology.alterationEffects.AlterationEffects#STUN}
+     * @return the stats of the effect type
+     */
+    EffectStats getStats(String effectType);
+
+    /**
+     * @return the stats of all effect types that were requested so far
+     */
+    Collection<EffectStats> getAllStats();
+
+    /**
+     * Get the time that has passed since the stats were last reset, e.g., to calculate rates.
+     *
+     * @return the time since the last reset in nanoseconds
+     */
+    long getNanosSinceReset();
+
+    /**
+     * Reset the stats of all effect types.
+     */
+    void reset();
+}
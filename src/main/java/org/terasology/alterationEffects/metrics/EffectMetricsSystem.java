@@ -0,0 +1,46 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.metrics;
+
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.engine.registry.Share;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Default implementation of the {@link EffectMetrics}, shared on both server and clients.
+ */
+@RegisterSystem
+@Share(EffectMetrics.class)
+public class EffectMetricsSystem extends BaseComponentSystem implements EffectMetrics {
+    private final Map<String, EffectStats> stats = new ConcurrentHashMap<>();
+
+    private volatile long resetTime = System.nanoTime();
+
+    @Override
+    public EffectStats getStats(String effectType) {
+        return stats.computeIfAbsent(effectType, EffectStats::new);
+    }
+
+    @Override
+    public Collection<EffectStats> getAllStats() {
+        return Collections.unmodifiableCollection(stats.values());
+    }
+
+    @Override
+    public long getNanosSinceReset() {
+        return System.nanoTime() - resetTime;
+    }
+
+    @Override
+    public void reset() {
+        for (EffectStats effectStats : stats.values()) {
+            effectStats.reset();
+        }
+        resetTime = System.nanoTime();
+    }
+}
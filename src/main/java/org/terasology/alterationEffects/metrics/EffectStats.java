@@ -0,0 +1,191 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runtime counters and latencies of a single alteration effect type.
+ * <p>
+ * Instances are obtained once from the {@link EffectMetrics} and kept by the recording effect or system, so recording
+ * does not involve any lookup. All counters are striped and can be updated from any thread.
+ * <p>
+ * Damage-dealing effects also record each update that dealt damage as a whole, with the number of entities and damage
+ * events it covered, so that the cost of a frame spike can be told apart from a steady load.
+ */
+public final class EffectStats {
+    private final String effectType;
+
+    private final LongAdder applies = new LongAdder();
+    private final LongAdder consumedApplies = new LongAdder();
+    private final LongAdder reapplies = new LongAdder();
+    private final LongAdder expiries = new LongAdder();
+    private final LongAdder damageTicks = new LongAdder();
+    private final LongAdder damageEvents = new LongAdder();
+    private final LongAdder damageUpdates = new LongAdder();
+    private final LongAdder damagedEntities = new LongAdder();
+    private final LongAccumulator maxDamagedEntities = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxUpdateDamageEvents = new LongAccumulator(Math::max, 0);
+
+    private final LatencyHistogram applyTime = new LatencyHistogram();
+    private final LatencyHistogram expiryTime = new LatencyHistogram();
+    private final LatencyHistogram damageUpdateTime = new LatencyHistogram();
+
+    EffectStats(String effectType) {
+        this.effectType = effectType;
+    }
+
+    /**
+     * Record a single application of the effect.
+     *
+     * @param nanos the time spent applying the effect, in nanoseconds
+     * @param consumed true if a system consumed the {@link org.terasology.alterationEffects.OnEffectModifyEvent}
+     * @param reapply true if the effect was re-applied after one of its modifiers expired
+     */
+    public void recordApply(long nanos, boolean consumed, boolean reapply) {
+        applies.increment();
+        if (consumed) {
+            consumedApplies.increment();
+        }
+        if (reapply) {
+            reapplies.increment();
+        }
+        applyTime.record(nanos);
+    }
+
+    /**
+     * Record a single expiration of the effect, including the re-application it caused.
+     *
+     * @param nanos the time spent handling the expiration, in nanoseconds
+     */
+    public void recordExpiry(long nanos) {
+        expiries.increment();
+        expiryTime.record(nanos);
+    }
+
+    /**
+     * Record a single damage tick of a damage-dealing effect on one entity.
+     */
+    public void recordDamageTick() {
+        damageTicks.increment();
+    }
+
+    /**
+     * Record a single damage event sent by the effect.
+     */
+    public void recordDamageEvent() {
+        damageEvents.increment();
+    }
+
+    /**
+     * Record a single update in which the effect dealt damage, covering all of its damage ticks and events.
+     *
+     * @param nanos the time spent dealing the damage of the update, in nanoseconds
+     * @param entities the number of entities the effect dealt damage to
+     * @param events the number of damage events sent
+     */
+    public void recordDamageUpdate(long nanos, int entities, int events) {
+        damageUpdates.increment();
+        damagedEntities.add(entities);
+        maxDamagedEntities.accumulate(entities);
+        maxUpdateDamageEvents.accumulate(events);
+        damageUpdateTime.record(nanos);
+    }
+
+    /**
+     * @return the name of the effect type, e.g., {@link org.terasology.alterationEffects.AlterationEffects#STUN}
+     */
+    public String getEffectType() {
+        return effectType;
+    }
+
+    public long getApplies() {
+        return applies.sum();
+    }
+
+    public long getConsumedApplies() {
+        return consumedApplies.sum();
+    }
+
+    public long getReapplies() {
+        return reapplies.sum();
+    }
+
+    public long getExpiries() {
+        return expiries.sum();
+    }
+
+    public long getDamageTicks() {
+        return damageTicks.sum();
+    }
+
+    public long getDamageEvents() {
+        return damageEvents.sum();
+    }
+
+    /**
+     * @return the number of updates in which the effect dealt damage
+     */
+    public long getDamageUpdates() {
+        return damageUpdates.sum();
+    }
+
+    /**
+     * @return the number of entities dealt damage to, summed up over all updates
+     */
+    public long getDamagedEntities() {
+        return damagedEntities.sum();
+    }
+
+    /**
+     * @return the largest number of entities dealt damage to in a single update
+     */
+    public long getMaxDamagedEntities() {
+        return maxDamagedEntities.get();
+    }
+
+    /**
+     * @return the largest number of damage events sent in a single update
+     */
+    public long getMaxUpdateDamageEvents() {
+        return maxUpdateDamageEvents.get();
+    }
+
+    /**
+     * @return the latencies of applying the effect, including re-applications
+     */
+    public LatencyHistogram getApplyTime() {
+        return applyTime;
+    }
+
+    /**
+     * @return the latencies of handling expirations of the effect
+     */
+    public LatencyHistogram getExpiryTime() {
+        return expiryTime;
+    }
+
+    /**
+     * @return the latencies of the updates in which the effect dealt damage
+     */
+    public LatencyHistogram getDamageUpdateTime() {
+        return damageUpdateTime;
+    }
+
+    void reset() {
+        applies.reset();
+        consumedApplies.reset();
+        reapplies.reset();
+        expiries.reset();
+        damageTicks.reset();
+        damageEvents.reset();
+        damageUpdates.reset();
+        damagedEntities.reset();
+        maxDamagedEntities.reset();
+        maxUpdateDamageEvents.reset();
+        applyTime.reset();
+        expiryTime.reset();
+        damageUpdateTime.reset();
+    }
+}
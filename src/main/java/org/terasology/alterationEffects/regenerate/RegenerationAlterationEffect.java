@@ -28,7 +28,7 @@ public class RegenerationAlterationEffect extends ComponentBasedAlterationEffect
 
     /**
      * Constructor. Instantiate an instance of this alteration effect using the provided context. This context will be
-     * used to get the current time and DelayManager.
+     * used to get the current time and EffectExpiryManager.
      *
      * @param context The context which this effect will be executed on.
      */
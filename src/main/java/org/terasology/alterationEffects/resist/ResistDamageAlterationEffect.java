@@ -4,10 +4,18 @@ package org.terasology.alterationEffects.resist;
 
 import org.terasology.alterationEffects.AlterationEffect;
 import org.terasology.alterationEffects.AlterationEffects;
+import org.terasology.alterationEffects.EffectRegistry;
+import org.terasology.alterationEffects.EffectType;
 import org.terasology.alterationEffects.OnEffectModifyEvent;
+import org.terasology.alterationEffects.expiry.EffectExpiryKey;
+import org.terasology.alterationEffects.expiry.EffectExpiryManager;
+import org.terasology.alterationEffects.ledger.ModifierLedgerManager;
+import org.terasology.alterationEffects.metrics.EffectMetrics;
+import org.terasology.alterationEffects.metrics.EffectStats;
 import org.terasology.engine.context.Context;
 import org.terasology.engine.entitySystem.entity.EntityRef;
-import org.terasology.engine.logic.delay.DelayManager;
+import org.terasology.engine.monitoring.Activity;
+import org.terasology.engine.monitoring.PerformanceMonitor;
 import org.terasology.math.TeraMath;
 
 /**
@@ -16,16 +24,28 @@ import org.terasology.math.TeraMath;
  */
 public class ResistDamageAlterationEffect implements AlterationEffect {
 
-    private final DelayManager delayManager;
+    /** The performance monitor activity of applying a resist damage effect. */
+    private static final String APPLY_ACTIVITY = "AlterationEffects: Apply " + AlterationEffects.RESIST_DAMAGE;
+
+    private final EffectExpiryManager expiryManager;
+    private final ModifierLedgerManager ledgerManager;
+    private final EffectStats stats;
+    private final EffectRegistry effectRegistry;
+
+    /** The registered type of this effect, looked up on first use. */
+    private EffectType type;
 
     /**
      * Constructor. Instantiate an instance of this alteration effect using the provided context. This context will be used to get the
-     * DelayManager.
+     * EffectExpiryManager.
      *
      * @param context The context which this effect will be executed on.
      */
     public ResistDamageAlterationEffect(Context context) {
-        this.delayManager = context.get(DelayManager.class);
+        this.expiryManager = context.get(EffectExpiryManager.class);
+        this.ledgerManager = context.get(ModifierLedgerManager.class);
+        this.stats = context.get(EffectMetrics.class).getStats(AlterationEffects.RESIST_DAMAGE);
+        this.effectRegistry = context.get(EffectRegistry.class);
     }
 
     /**
@@ -53,6 +73,29 @@ public class ResistDamageAlterationEffect implements AlterationEffect {
      * @param duration The duration of the resist damage effect.
      */
     public void applyEffect(EntityRef instigator, EntityRef entity, String id, float magnitude, long duration) {
+        try (Activity ignored = PerformanceMonitor.startActivity(APPLY_ACTIVITY)) {
+            applyEffect(instigator, entity, id, magnitude, duration, false);
+        }
+    }
+
+    /**
+     * This will re-apply the resist damage effect of the given ID after one of its modifiers expired. The remaining modifiers
+     * are taken from the modifier ledger if possible.
+     *
+     * @param entity The entity that the resist damage effect is being re-applied on.
+     * @param id The ID of the resist damage effect.
+     */
+    @Override
+    public void reapplyEffect(EntityRef entity, String id) {
+        try (Activity ignored = PerformanceMonitor.startActivity(APPLY_ACTIVITY)) {
+            applyEffect(entity, entity, id, 0, 0, true);
+        }
+    }
+
+    private void applyEffect(EntityRef instigator, EntityRef entity, String id, float magnitude, long duration,
+                             boolean reapply) {
+        final long startTime = System.nanoTime();
+
         // First, determine if the entity already has a resist damage component attached. If not, create a new one and
         // attach it to the entity.
         ResistDamageComponent resDamageComponent = entity.getComponent(ResistDamageComponent.class);
@@ -77,7 +120,8 @@ public class ResistDamageAlterationEffect implements AlterationEffect {
 
         // Send out this event to collect all the duration and magnitude modifiers and multipliers that can affect this
         // resist damage effect. The ID is also sent to distinguish it from other possible resist damage effects.
-        OnEffectModifyEvent effectModifyEvent = entity.send(new OnEffectModifyEvent(instigator, entity, 0, 0, this, id));
+        OnEffectModifyEvent effectModifyEvent =
+                ledgerManager.collectModifiers(instigator, entity, this, AlterationEffects.RESIST_DAMAGE, id, reapply);
         long modifiedDuration = 0;
         boolean modifiersFound = false;
 
@@ -95,7 +139,7 @@ public class ResistDamageAlterationEffect implements AlterationEffect {
             modifiedDuration = effectModifyEvent.getShortestDuration();
 
             // If there's at least one duration and magnitude modifier, set the effect's magnitude and the modifiersFound flag.
-            if (!effectModifyEvent.getDurationModifiers().isEmpty() && !effectModifyEvent.getMagnitudeModifiers().isEmpty()) {
+            if (effectModifyEvent.hasDurationModifiers() && effectModifyEvent.hasMagnitudeModifiers()) {
                 resEffect.resistAmount = (int) modifiedMagnitude;
                 modifiersFound = true;
             }
@@ -105,16 +149,16 @@ public class ResistDamageAlterationEffect implements AlterationEffect {
         entity.saveComponent(resDamageComponent);
 
         // If the modified duration is between the accepted values (0 and Long.MAX_VALUE), and the base duration is not infinite,
-        // add a delayed action to the DelayManager using the new system.
+        // schedule the expiration using the new system.
         if (modifiedDuration < Long.MAX_VALUE && modifiedDuration > 0 && duration != AlterationEffects.DURATION_INDEFINITE) {
             String effectID = effectModifyEvent.getEffectIDWithShortestDuration();
-            delayManager.addDelayedAction(entity, AlterationEffects.EXPIRE_TRIGGER_PREFIX + AlterationEffects.RESIST_DAMAGE
-                    + ":" + id + "|" + effectID, modifiedDuration);
+            EffectExpiryKey expiryKey = expiryKey(id, effectID);
+            expiryManager.scheduleExpiry(entity, expiryKey, modifiedDuration);
         } else if (duration > 0 && !modifiersFound && !effectModifyEvent.isConsumed()) {
             // Otherwise, if the duration is greater than 0, there are no modifiers found, and the effect modify event was not consumed,
-            // add a delayed action to the DelayManager using the old system.
-            delayManager.addDelayedAction(entity, AlterationEffects.EXPIRE_TRIGGER_PREFIX + AlterationEffects.RESIST_DAMAGE
-                    + ":" + id, duration);
+            // schedule the expiration using the old system.
+            EffectExpiryKey expiryKey = expiryKey(id, null);
+            expiryManager.scheduleExpiry(entity, expiryKey, duration);
         } else if (!modifiersFound || !effectModifyEvent.getHasInfDuration()) {
             // Otherwise, if there are either no modifiers found, or none of the modifiers collected in the event have infinite
             // duration, remove the resist effect from the resist damage component.
@@ -122,5 +166,22 @@ public class ResistDamageAlterationEffect implements AlterationEffect {
         }
         // If this point is reached and none of the above if-clauses were met, that means there was at least one modifier
         // collected in the event which has infinite duration.
+        stats.recordApply(System.nanoTime() - startTime, effectModifyEvent.isConsumed(), reapply);
+        effectModifyEvent.release();
+    }
+
+    /**
+     * Build the expiry key of this effect. The registered type of the effect is looked up on first use, so that the
+     * expiration is dispatched by its ordinal.
+     */
+    private EffectExpiryKey expiryKey(String id, String effectID) {
+        if (type == null) {
+            type = effectRegistry.get(AlterationEffects.RESIST_DAMAGE);
+            if (type == null) {
+                // The effect is not registered, so its expirations are resolved by name.
+                return EffectExpiryKey.of(AlterationEffects.RESIST_DAMAGE, id, effectID);
+            }
+        }
+        return EffectExpiryKey.of(type, id, effectID);
     }
 }
@@ -18,7 +18,7 @@ public class GlueAlterationEffect extends ComponentBasedAlterationEffect<GlueCom
 
     /**
      * Constructor. Instantiate an instance of this alteration effect using the provided context. This context will be
-     * used to get the DelayManager.
+     * used to get the EffectExpiryManager.
      *
      * @param context The context which this effect will be executed on.
      */
@@ -39,4 +39,9 @@ public class GlueAlterationEffect extends ComponentBasedAlterationEffect<GlueCom
         component.multiplier = event.getMagnitudeResultValue();
         return component;
     }
+
+    @Override
+    protected long getLazyExpiryThreshold() {
+        return DEFAULT_LAZY_EXPIRY_THRESHOLD;
+    }
 }
@@ -2,15 +2,32 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.alterationEffects.speed;
 
+import org.terasology.alterationEffects.expiry.TimedEffectComponent;
 import org.terasology.gestalt.entitysystem.component.Component;
 
 /** Meant to represent a stickying effect of some sort, as if stuck in a spiderweb. */
-public class GlueComponent implements Component<GlueComponent> {
+public class GlueComponent implements Component<GlueComponent>, TimedEffectComponent {
     /** This affects how strong the glue effect is by multiplying against the base value. */
     public float multiplier;
 
+    /**
+     * The game time at which this effect ends if it expires lazily, or {@link TimedEffectComponent#NO_EXPIRY}.
+     */
+    public long expiresAt;
+
+    @Override
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
     @Override
     public void copyFrom(GlueComponent other) {
         this.multiplier = other.multiplier;
+        this.expiresAt = other.expiresAt;
     }
 }
@@ -18,7 +18,7 @@ public class ItemUseSpeedAlterationEffect extends ComponentBasedAlterationEffect
 
     /**
      * Constructor. Instantiate an instance of this alteration effect using the provided context. This context will be used to get the
-     * DelayManager.
+     * EffectExpiryManager.
      *
      * @param context The context which this effect will be executed on.
      */
@@ -18,7 +18,7 @@ public class JumpSpeedAlterationEffect extends ComponentBasedAlterationEffect<Ju
 
     /**
      * Constructor. Instantiate an instance of this alteration effect using the provided context. This context will be used to get the
-     * DelayManager.
+     * EffectExpiryManager.
      *
      * @param context The context which this effect will be executed on.
      */
@@ -40,4 +40,9 @@ public class JumpSpeedAlterationEffect extends ComponentBasedAlterationEffect<Ju
         component.multiplier = event.getMagnitudeResultValue();
         return component;
     }
+
+    @Override
+    protected long getLazyExpiryThreshold() {
+        return DEFAULT_LAZY_EXPIRY_THRESHOLD;
+    }
 }
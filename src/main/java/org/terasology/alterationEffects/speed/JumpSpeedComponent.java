@@ -1,12 +1,13 @@
 // Copyright 2021 The Terasology Foundation
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.alterationEffects.speed;
+import org.terasology.alterationEffects.expiry.TimedEffectComponent;
 import org.terasology.gestalt.entitysystem.component.Component;
 
 /**
  * This is the component added to entities with the jump speed effect.
  */
-public class JumpSpeedComponent implements Component<JumpSpeedComponent> {
+public class JumpSpeedComponent implements Component<JumpSpeedComponent>, TimedEffectComponent {
     /**
      * This will affect how much the base jump speed is added by.
      */
@@ -17,10 +18,26 @@ public class JumpSpeedComponent implements Component<JumpSpeedComponent> {
      */
     public float multiplier;
 
+    /**
+     * The game time at which this effect ends if it expires lazily, or {@link TimedEffectComponent#NO_EXPIRY}.
+     */
+    public long expiresAt;
+
+    @Override
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
     @Override
     public void copyFrom(JumpSpeedComponent other) {
         this.modifier = other.modifier;
         this.multiplier = other.multiplier;
+        this.expiresAt = other.expiresAt;
     }
 }
 
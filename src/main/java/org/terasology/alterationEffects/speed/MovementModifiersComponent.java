@@ -0,0 +1,117 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.speed;
+
+import org.terasology.alterationEffects.expiry.TimedEffectComponent;
+import org.terasology.engine.entitySystem.DoNotPersist;
+import org.terasology.gestalt.entitysystem.component.Component;
+
+/**
+ * This is a snapshot of all speed and movement-related alteration effects on an entity.
+ * <p>
+ * It is derived from the individual effect components by the {@link MovementModifiersSystem} whenever one of them is
+ * added, loaded, changed, or removed, and should not be modified otherwise. Effects that expire lazily keep their end
+ * time, so that the snapshot stays valid until the expired component is actually removed.
+ * <p>
+ * As a derived cache, the snapshot is neither persisted nor replicated. It is rebuilt when the effect components are
+ * loaded, and each client derives its own from the effect components it receives.
+ */
+@DoNotPersist
+public class MovementModifiersComponent implements Component<MovementModifiersComponent> {
+    /** Whether the entity is stunned. */
+    public boolean stunned;
+    /** The game time at which the stun effect ends if it expires lazily, or {@link TimedEffectComponent#NO_EXPIRY}. */
+    public long stunExpiresAt;
+
+    /** The multiplier of the walk speed. */
+    public float walkMultiplier = 1;
+    /** The game time at which the walk speed effect ends if it expires lazily. */
+    public long walkExpiresAt;
+
+    /** The multiplier of the swim speed. */
+    public float swimMultiplier = 1;
+    /** The game time at which the swim speed effect ends if it expires lazily. */
+    public long swimExpiresAt;
+
+    /** The multiplier of the jump speed. */
+    public float jumpMultiplier = 1;
+    /** The game time at which the jump speed effect ends if it expires lazily. */
+    public long jumpExpiresAt;
+
+    /** Whether the entity is glued. */
+    public boolean glued;
+    /** The game time at which the glue effect ends if it expires lazily. */
+    public long glueExpiresAt;
+
+    /** The multiplier of the number of jumps. */
+    public float multiJumpMultiplier = 1;
+
+    /** The multiplier of the item use cooldown time. Always positive. */
+    public float itemUseMultiplier = 1;
+
+    public boolean isStunned(long now) {
+        return stunned && isActive(stunExpiresAt, now);
+    }
+
+    public float getWalkMultiplier(long now) {
+        return isActive(walkExpiresAt, now) ? walkMultiplier : 1;
+    }
+
+    public float getSwimMultiplier(long now) {
+        return isActive(swimExpiresAt, now) ? swimMultiplier : 1;
+    }
+
+    public float getJumpMultiplier(long now) {
+        return isActive(jumpExpiresAt, now) ? jumpMultiplier : 1;
+    }
+
+    public boolean isGlued(long now) {
+        return glued && isActive(glueExpiresAt, now);
+    }
+
+    /**
+     * Reset this snapshot to have no effect on movement, so that it can be rebuilt in place.
+     */
+    public void reset() {
+        stunned = false;
+        stunExpiresAt = TimedEffectComponent.NO_EXPIRY;
+        walkMultiplier = 1;
+        walkExpiresAt = TimedEffectComponent.NO_EXPIRY;
+        swimMultiplier = 1;
+        swimExpiresAt = TimedEffectComponent.NO_EXPIRY;
+        jumpMultiplier = 1;
+        jumpExpiresAt = TimedEffectComponent.NO_EXPIRY;
+        glued = false;
+        glueExpiresAt = TimedEffectComponent.NO_EXPIRY;
+        multiJumpMultiplier = 1;
+        itemUseMultiplier = 1;
+    }
+
+    /**
+     * Check whether this snapshot has no effect on movement at all.
+     */
+    public boolean isNeutral() {
+        return !stunned && walkMultiplier == 1 && swimMultiplier == 1 && jumpMultiplier == 1 && !glued
+                && multiJumpMultiplier == 1 && itemUseMultiplier == 1;
+    }
+
+    @Override
+    public void copyFrom(MovementModifiersComponent other) {
+        this.stunned = other.stunned;
+        this.stunExpiresAt = other.stunExpiresAt;
+        this.walkMultiplier = other.walkMultiplier;
+        this.walkExpiresAt = other.walkExpiresAt;
+        this.swimMultiplier = other.swimMultiplier;
+        this.swimExpiresAt = other.swimExpiresAt;
+        this.jumpMultiplier = other.jumpMultiplier;
+        this.jumpExpiresAt = other.jumpExpiresAt;
+        this.glued = other.glued;
+        this.glueExpiresAt = other.glueExpiresAt;
+        this.multiJumpMultiplier = other.multiJumpMultiplier;
+        this.itemUseMultiplier = other.itemUseMultiplier;
+    }
+
+    private static boolean isActive(long expiresAt, long now) {
+        return expiresAt == TimedEffectComponent.NO_EXPIRY || now < expiresAt;
+    }
+}
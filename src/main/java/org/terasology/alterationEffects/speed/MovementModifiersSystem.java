@@ -0,0 +1,210 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.speed;
+
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.BeforeRemoveComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnChangedComponent;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.RegisterSystem;
+import org.terasology.gestalt.entitysystem.component.Component;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+
+/**
+ * This system keeps the {@link MovementModifiersComponent} of each entity in sync with its speed and movement-related
+ * effect components.
+ * <p>
+ * The snapshot is rebuilt whenever one of these components is added, loaded, changed, or about to be removed, so that
+ * the movement events handled by the {@link SpeedAlterationSystem} only need to look up a single component. Entities
+ * without any movement effects do not carry a snapshot. The snapshot of an entity is added once and then rebuilt in
+ * place. It is not persisted, as it is rebuilt when the effect components are loaded.
+ */
+@RegisterSystem
+public class MovementModifiersSystem extends BaseComponentSystem {
+
+    // -- Stun ---------------------------------------------------------------------------------------------------------
+
+    @ReceiveEvent(components = StunComponent.class)
+    public void onStunActivated(OnActivatedComponent event, EntityRef entity) {
+        updateModifiers(entity, null);
+    }
+
+    @ReceiveEvent(components = StunComponent.class)
+    public void onStunChanged(OnChangedComponent event, EntityRef entity) {
+        updateModifiers(entity, null);
+    }
+
+    @ReceiveEvent(components = StunComponent.class)
+    public void onStunRemoved(BeforeRemoveComponent event, EntityRef entity) {
+        updateModifiers(entity, StunComponent.class);
+    }
+
+    // -- Walk speed ---------------------------------------------------------------------------------------------------
+
+    @ReceiveEvent(components = WalkSpeedComponent.class)
+    public void onWalkSpeedActivated(OnActivatedComponent event, EntityRef entity) {
+        updateModifiers(entity, null);
+    }
+
+    @ReceiveEvent(components = WalkSpeedComponent.class)
+    public void onWalkSpeedChanged(OnChangedComponent event, EntityRef entity) {
+        updateModifiers(entity, null);
+    }
+
+    @ReceiveEvent(components = WalkSpeedComponent.class)
+    public void onWalkSpeedRemoved(BeforeRemoveComponent event, EntityRef entity) {
+        updateModifiers(entity, WalkSpeedComponent.class);
+    }
+
+    // -- Swim speed ---------------------------------------------------------------------------------------------------
+
+    @ReceiveEvent(components = SwimSpeedComponent.class)
+    public void onSwimSpeedActivated(OnActivatedComponent event, EntityRef entity) {
+        updateModifiers(entity, null);
+    }
+
+    @ReceiveEvent(components = SwimSpeedComponent.class)
+    public void onSwimSpeedChanged(OnChangedComponent event, EntityRef entity) {
+        updateModifiers(entity, null);
+    }
+
+    @ReceiveEvent(components = SwimSpeedComponent.class)
+    public void onSwimSpeedRemoved(BeforeRemoveComponent event, EntityRef entity) {
+        updateModifiers(entity, SwimSpeedComponent.class);
+    }
+
+    // -- Jump speed ---------------------------------------------------------------------------------------------------
+
+    @ReceiveEvent(components = JumpSpeedComponent.class)
+    public void onJumpSpeedActivated(OnActivatedComponent event, EntityRef entity) {
+        updateModifiers(entity, null);
+    }
+
+    @ReceiveEvent(components = JumpSpeedComponent.class)
+    public void onJumpSpeedChanged(OnChangedComponent event, EntityRef entity) {
+        updateModifiers(entity, null);
+    }
+
+    @ReceiveEvent(components = JumpSpeedComponent.class)
+    public void onJumpSpeedRemoved(BeforeRemoveComponent event, EntityRef entity) {
+        updateModifiers(entity, JumpSpeedComponent.class);
+    }
+
+    // -- Glue ---------------------------------------------------------------------------------------------------------
+
+    @ReceiveEvent(components = GlueComponent.class)
+    public void onGlueActivated(OnActivatedComponent event, EntityRef entity) {
+        updateModifiers(entity, null);
+    }
+
+    @ReceiveEvent(components = GlueComponent.class)
+    public void onGlueChanged(OnChangedComponent event, EntityRef entity) {
+        updateModifiers(entity, null);
+    }
+
+    @ReceiveEvent(components = GlueComponent.class)
+    public void onGlueRemoved(BeforeRemoveComponent event, EntityRef entity) {
+        updateModifiers(entity, GlueComponent.class);
+    }
+
+    // -- Multi jump ---------------------------------------------------------------------------------------------------
+
+    @ReceiveEvent(components = MultiJumpComponent.class)
+    public void onMultiJumpActivated(OnActivatedComponent event, EntityRef entity) {
+        updateModifiers(entity, null);
+    }
+
+    @ReceiveEvent(components = MultiJumpComponent.class)
+    public void onMultiJumpChanged(OnChangedComponent event, EntityRef entity) {
+        updateModifiers(entity, null);
+    }
+
+    @ReceiveEvent(components = MultiJumpComponent.class)
+    public void onMultiJumpRemoved(BeforeRemoveComponent event, EntityRef entity) {
+        updateModifiers(entity, MultiJumpComponent.class);
+    }
+
+    // -- Item use speed -----------------------------------------------------------------------------------------------
+
+    @ReceiveEvent(components = ItemUseSpeedComponent.class)
+    public void onItemUseSpeedActivated(OnActivatedComponent event, EntityRef entity) {
+        updateModifiers(entity, null);
+    }
+
+    @ReceiveEvent(components = ItemUseSpeedComponent.class)
+    public void onItemUseSpeedChanged(OnChangedComponent event, EntityRef entity) {
+        updateModifiers(entity, null);
+    }
+
+    @ReceiveEvent(components = ItemUseSpeedComponent.class)
+    public void onItemUseSpeedRemoved(BeforeRemoveComponent event, EntityRef entity) {
+        updateModifiers(entity, ItemUseSpeedComponent.class);
+    }
+
+    /**
+     * Rebuild the movement modifiers of an entity from its effect components.
+     *
+     * @param entity the entity to update
+     * @param removed the class of a component that is about to be removed and must be ignored, or null
+     */
+    private void updateModifiers(EntityRef entity, Class<? extends Component> removed) {
+        MovementModifiersComponent modifiers = entity.getComponent(MovementModifiersComponent.class);
+        final boolean added = modifiers == null;
+        if (added) {
+            modifiers = new MovementModifiersComponent();
+        } else {
+            modifiers.reset();
+        }
+
+        StunComponent stun = getComponent(entity, StunComponent.class, removed);
+        if (stun != null) {
+            modifiers.stunned = true;
+            modifiers.stunExpiresAt = stun.expiresAt;
+        }
+        WalkSpeedComponent walkSpeed = getComponent(entity, WalkSpeedComponent.class, removed);
+        if (walkSpeed != null) {
+            modifiers.walkMultiplier = walkSpeed.multiplier;
+            modifiers.walkExpiresAt = walkSpeed.expiresAt;
+        }
+        SwimSpeedComponent swimSpeed = getComponent(entity, SwimSpeedComponent.class, removed);
+        if (swimSpeed != null) {
+            modifiers.swimMultiplier = swimSpeed.multiplier;
+            modifiers.swimExpiresAt = swimSpeed.expiresAt;
+        }
+        JumpSpeedComponent jumpSpeed = getComponent(entity, JumpSpeedComponent.class, removed);
+        if (jumpSpeed != null) {
+            modifiers.jumpMultiplier = jumpSpeed.multiplier;
+            modifiers.jumpExpiresAt = jumpSpeed.expiresAt;
+        }
+        GlueComponent glue = getComponent(entity, GlueComponent.class, removed);
+        if (glue != null) {
+            modifiers.glued = true;
+            modifiers.glueExpiresAt = glue.expiresAt;
+        }
+        MultiJumpComponent multiJump = getComponent(entity, MultiJumpComponent.class, removed);
+        if (multiJump != null) {
+            modifiers.multiJumpMultiplier = multiJump.multiplier;
+        }
+        ItemUseSpeedComponent itemUseSpeed = getComponent(entity, ItemUseSpeedComponent.class, removed);
+        // Zero or negative use rates are not possible, so such multipliers are ignored.
+        if (itemUseSpeed != null && itemUseSpeed.multiplier > 0) {
+            modifiers.itemUseMultiplier = itemUseSpeed.multiplier;
+        }
+
+        if (modifiers.isNeutral()) {
+            if (!added) {
+                entity.removeComponent(MovementModifiersComponent.class);
+            }
+        } else if (added) {
+            entity.addComponent(modifiers);
+        } else {
+            entity.saveComponent(modifiers);
+        }
+    }
+
+    private static <T extends Component> T getComponent(EntityRef entity, Class<T> componentClass,
+                                                        Class<? extends Component> removed) {
+        return componentClass == removed ? null : entity.getComponent(componentClass);
+    }
+}
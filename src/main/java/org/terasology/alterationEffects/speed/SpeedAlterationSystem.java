@@ -2,6 +2,8 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.alterationEffects.speed;
 
+import org.terasology.alterationEffects.expiry.TimedEffectComponent;
+import org.terasology.engine.core.Time;
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
 import org.terasology.engine.entitySystem.systems.RegisterSystem;
@@ -10,34 +12,46 @@ import org.terasology.engine.logic.characters.AffectJumpForceEvent;
 import org.terasology.engine.logic.characters.AffectMultiJumpEvent;
 import org.terasology.engine.logic.characters.GetMaxSpeedEvent;
 import org.terasology.engine.logic.characters.MovementMode;
+import org.terasology.engine.registry.In;
 import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
 
 /**
  * This system manages the effects of the various speed or movement-related alteration effects on entities.
+ * <p>
+ * All movement events are answered from the {@link MovementModifiersComponent} snapshot maintained by the
+ * {@link MovementModifiersSystem}, so each event needs a single component lookup. Short walk, swim, jump, stun, and
+ * glue effects expire lazily (see {@link TimedEffectComponent}), so they are only taken into account while they are
+ * still active.
  */
 @RegisterSystem
 public class SpeedAlterationSystem extends BaseComponentSystem {
+    @In
+    private Time time;
+
     /**
      * When an entity tries to move in any direction, modify the speed based on what effects are being applied to the entity.
      *
      * @param event Stores information on what the max speed currently is and collects potential speed modifiers.
      * @param entityRef The entity trying to move.
+     * @param modifiers The movement modifiers of the entity.
      */
     @ReceiveEvent
-    public void modifySpeed(GetMaxSpeedEvent event, EntityRef entityRef) {
+    public void modifySpeed(GetMaxSpeedEvent event, EntityRef entityRef, MovementModifiersComponent modifiers) {
+        final long now = time.getGameTimeInMs();
+
         // If the entity's stunned, prevent it from moving.
-        if (entityRef.hasComponent(StunComponent.class)) {
+        if (modifiers.isStunned(now)) {
             event.multiply(0);
-        } else if (event.getMovementMode() == MovementMode.WALKING && entityRef.hasComponent(WalkSpeedComponent.class)) {
+        } else if (event.getMovementMode() == MovementMode.WALKING) {
             // If the entity is walking and they have a walk speed effect, boost their walking speed by the multiplier.
-            event.multiply(entityRef.getComponent(WalkSpeedComponent.class).multiplier);
-        } else if (event.getMovementMode() == MovementMode.SWIMMING && entityRef.hasComponent(SwimSpeedComponent.class)) {
+            event.multiply(modifiers.getWalkMultiplier(now));
+        } else if (event.getMovementMode() == MovementMode.SWIMMING) {
             // If the entity is swimming and they have a swim speed effect, boost their swimming speed by the multiplier.
-            event.multiply(entityRef.getComponent(SwimSpeedComponent.class).multiplier);
+            event.multiply(modifiers.getSwimMultiplier(now));
         }
 
         // If the entity has a glue effect on them, set the movement speed to be 90% of what it was.
-        if (entityRef.hasComponent(GlueComponent.class)) {
+        if (modifiers.isGlued(now)) {
             event.multiply(0.9f);
         }
     }
@@ -47,21 +61,18 @@ public class SpeedAlterationSystem extends BaseComponentSystem {
      *
      * @param event Stores information on the jump force and allows other systems to modify it.
      * @param entityRef The entity trying to jump.
+     * @param modifiers The movement modifiers of the entity.
      */
     @ReceiveEvent
-    public void modifyJumpSpeed(AffectJumpForceEvent event, EntityRef entityRef) {
-        // If the entity's stunned, prevent it from moving.
-        if (entityRef.hasComponent(StunComponent.class)) {
-            event.multiply(0);
-        } else if (entityRef.hasComponent(JumpSpeedComponent.class)) {
-            // If the entity is beginning to jump and they have a jump speed effect, boost their jumping speed by the
-            // multiplier.
-            event.multiply(entityRef.getComponent(JumpSpeedComponent.class).multiplier);
-        }
+    public void modifyJumpSpeed(AffectJumpForceEvent event, EntityRef entityRef, MovementModifiersComponent modifiers) {
+        final long now = time.getGameTimeInMs();
 
-        // If the entity has a glue effect on them, prevent them from jumping at all.
-        if (entityRef.hasComponent(GlueComponent.class)) {
+        // If the entity's stunned or glued, prevent it from jumping at all. Otherwise, if the entity has a jump speed
+        // effect, boost their jumping speed by the multiplier.
+        if (modifiers.isStunned(now) || modifiers.isGlued(now)) {
             event.multiply(0);
+        } else {
+            event.multiply(modifiers.getJumpMultiplier(now));
         }
     }
 
@@ -71,13 +82,12 @@ public class SpeedAlterationSystem extends BaseComponentSystem {
      *
      * @param event Stores information on the number of jumps and allows other systems to modify it.
      * @param entityRef The entity trying to jump.
+     * @param modifiers The movement modifiers of the entity.
      */
     @ReceiveEvent
-    public void modifyMultiJump(AffectMultiJumpEvent event, EntityRef entityRef) {
+    public void modifyMultiJump(AffectMultiJumpEvent event, EntityRef entityRef, MovementModifiersComponent modifiers) {
         // If the entity has a multi jump effect, multiply the max number of jumps by the multiplier.
-        if (entityRef.hasComponent(MultiJumpComponent.class)) {
-            event.multiply(entityRef.getComponent(MultiJumpComponent.class).multiplier);
-        }
+        event.multiply(modifiers.multiJumpMultiplier);
     }
 
     /**
@@ -85,16 +95,13 @@ public class SpeedAlterationSystem extends BaseComponentSystem {
      *
      * @param event Stores information on the item's cooldown and allows other systems to modify it.
      * @param entityRef The entity trying to use an item.
+     * @param modifiers The movement modifiers of the entity.
      */
     @ReceiveEvent
-    public void modifyItemUseSpeed(AffectItemUseCooldownTimeEvent event, EntityRef entityRef) {
-        // If the entity has a item use speed effect, boost the item use speed by the multiplier. However, only do this
-        // if the multiplier is greater than 0, so that zero or negative use rates are noy possible.
-        if (entityRef.hasComponent(ItemUseSpeedComponent.class)) {
-            ItemUseSpeedComponent itemUseSpeed = entityRef.getComponent(ItemUseSpeedComponent.class);
-            if (itemUseSpeed.multiplier > 0) {
-                event.multiply(itemUseSpeed.multiplier);
-            }
-        }
+    public void modifyItemUseSpeed(AffectItemUseCooldownTimeEvent event, EntityRef entityRef,
+                                   MovementModifiersComponent modifiers) {
+        // If the entity has a item use speed effect, boost the item use speed by the multiplier. Zero or negative
+        // multipliers are never stored in the snapshot, so that zero or negative use rates are not possible.
+        event.multiply(modifiers.itemUseMultiplier);
     }
 }
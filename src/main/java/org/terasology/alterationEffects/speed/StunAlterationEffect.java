@@ -29,4 +29,9 @@ public class StunAlterationEffect extends ComponentBasedAlterationEffect<StunCom
                                             final EffectContext context) {
         return component;
     }
+
+    @Override
+    protected long getLazyExpiryThreshold() {
+        return DEFAULT_LAZY_EXPIRY_THRESHOLD;
+    }
 }
@@ -2,10 +2,30 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.alterationEffects.speed;
 
-import org.terasology.gestalt.entitysystem.component.EmptyComponent;
+import org.terasology.alterationEffects.expiry.TimedEffectComponent;
+import org.terasology.gestalt.entitysystem.component.Component;
 
 /**
  * This is the component added to entities with the stun effect.
  */
-public class StunComponent extends EmptyComponent<StunComponent> {
+public class StunComponent implements Component<StunComponent>, TimedEffectComponent {
+    /**
+     * The game time at which this effect ends if it expires lazily, or {@link TimedEffectComponent#NO_EXPIRY}.
+     */
+    public long expiresAt;
+
+    @Override
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public void copyFrom(StunComponent other) {
+        this.expiresAt = other.expiresAt;
+    }
 }
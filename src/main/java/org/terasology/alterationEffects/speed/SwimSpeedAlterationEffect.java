@@ -32,4 +32,9 @@ public class SwimSpeedAlterationEffect extends ComponentBasedAlterationEffect<Sw
         component.multiplier = event.getMagnitudeResultValue();
         return component;
     }
+
+    @Override
+    protected long getLazyExpiryThreshold() {
+        return DEFAULT_LAZY_EXPIRY_THRESHOLD;
+    }
 }
@@ -32,4 +32,9 @@ public class WalkSpeedAlterationEffect extends ComponentBasedAlterationEffect<Wa
         component.multiplier = event.getMagnitudeResultValue();
         return component;
     }
+
+    @Override
+    protected long getLazyExpiryThreshold() {
+        return DEFAULT_LAZY_EXPIRY_THRESHOLD;
+    }
 }
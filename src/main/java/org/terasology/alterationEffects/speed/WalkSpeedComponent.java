@@ -2,20 +2,37 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.alterationEffects.speed;
 
+import org.terasology.alterationEffects.expiry.TimedEffectComponent;
 import org.terasology.gestalt.entitysystem.component.Component;
 
 /**
  * This is the component added to entities with the walk speed effect.
  */
-public class WalkSpeedComponent implements Component<WalkSpeedComponent> {
+public class WalkSpeedComponent implements Component<WalkSpeedComponent>, TimedEffectComponent {
     /**
      * This affects how much the base walk speed is multiplied by. 1 is normal speed, 0 is immobility, and 2 is double
      * speed.
      */
     public float multiplier;
 
+    /**
+     * The game time at which this effect ends if it expires lazily, or {@link TimedEffectComponent#NO_EXPIRY}.
+     */
+    public long expiresAt;
+
+    @Override
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
     @Override
     public void copyFrom(WalkSpeedComponent other) {
         this.multiplier = other.multiplier;
+        this.expiresAt = other.expiresAt;
     }
 }
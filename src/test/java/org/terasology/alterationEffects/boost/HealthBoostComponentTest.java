@@ -0,0 +1,124 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.boost;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HealthBoostComponentTest {
+
+    @Test
+    public void testBoostsStackAdditively() {
+        HealthBoostComponent component = boosted(100);
+        component.setBoost("potion", 20);
+        component.setBoost("ring", 30);
+
+        assertEquals(50, component.boostAmount);
+        assertEquals(150, component.getEffectiveMaxHealth());
+    }
+
+    @Test
+    public void testSetBoostReplacesSource() {
+        HealthBoostComponent component = boosted(100);
+        component.setBoost("potion", 20);
+        component.setBoost("potion", 10);
+
+        assertEquals(10, component.boostAmount);
+        assertEquals(110, component.getEffectiveMaxHealth());
+    }
+
+    @Test
+    public void testRemoveBoost() {
+        HealthBoostComponent component = boosted(100);
+        component.setBoost("potion", 20);
+        component.setBoost("ring", 30);
+
+        component.removeBoost("potion");
+        component.removeBoost("unknown");
+        assertEquals(30, component.boostAmount);
+        assertEquals(130, component.getEffectiveMaxHealth());
+
+        component.removeBoost("ring");
+        assertEquals(0, component.boostAmount);
+        assertTrue(component.boosts.isEmpty());
+        assertEquals(100, component.getEffectiveMaxHealth());
+    }
+
+    @Test
+    public void testNoRoundingDrift() {
+        HealthBoostComponent component = boosted(97);
+        for (int i = 0; i < 1000; i++) {
+            component.setBoost("potion", 33);
+            component.removeBoost("potion");
+        }
+
+        assertEquals(97, component.getEffectiveMaxHealth());
+        component.setBoost("potion", 33);
+        assertEquals(129, component.getEffectiveMaxHealth());
+    }
+
+    @Test
+    public void testRebaseWithoutExternalChange() {
+        HealthBoostComponent component = boosted(100);
+        component.setBoost("potion", 50);
+        component.lastEffectiveMaxHealth = component.getEffectiveMaxHealth();
+
+        assertFalse(component.rebase(150));
+        assertEquals(100, component.baseMaxHealth);
+    }
+
+    @Test
+    public void testRebaseCarriesExternalChangeOver() {
+        HealthBoostComponent component = boosted(100);
+        component.setBoost("potion", 50);
+        component.lastEffectiveMaxHealth = component.getEffectiveMaxHealth();
+
+        // E.g., a level-up adds 10 max health while the boost is active.
+        assertTrue(component.rebase(160));
+        assertEquals(110, component.baseMaxHealth);
+        assertEquals(160, component.lastEffectiveMaxHealth);
+        assertEquals(165, component.getEffectiveMaxHealth());
+
+        component.removeBoost("potion");
+        assertEquals(110, component.getEffectiveMaxHealth());
+    }
+
+    @Test
+    public void testRebaseNeverGoesNegative() {
+        HealthBoostComponent component = boosted(100);
+        component.setBoost("potion", 100);
+        component.lastEffectiveMaxHealth = component.getEffectiveMaxHealth();
+
+        assertTrue(component.rebase(50));
+        assertEquals(0, component.baseMaxHealth);
+        assertEquals(0, component.getEffectiveMaxHealth());
+    }
+
+    @Test
+    public void testCopyFrom() {
+        HealthBoostComponent component = boosted(100);
+        component.setBoost("potion", 20);
+        component.lastEffectiveMaxHealth = 120;
+        component.lastUseTime = 42;
+
+        HealthBoostComponent copy = new HealthBoostComponent();
+        copy.copyFrom(component);
+        component.setBoost("ring", 30);
+
+        assertEquals(20, copy.boostAmount);
+        assertEquals(100, copy.baseMaxHealth);
+        assertEquals(120, copy.lastEffectiveMaxHealth);
+        assertEquals(42, copy.lastUseTime);
+        assertEquals(1, copy.boosts.size());
+    }
+
+    private static HealthBoostComponent boosted(int baseMaxHealth) {
+        HealthBoostComponent component = new HealthBoostComponent();
+        component.baseMaxHealth = baseMaxHealth;
+        component.lastEffectiveMaxHealth = baseMaxHealth;
+        return component;
+    }
+}
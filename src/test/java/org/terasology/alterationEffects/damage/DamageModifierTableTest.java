@@ -0,0 +1,178 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.damage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.alterationEffects.DamageTypeRegistry;
+import org.terasology.alterationEffects.DamageTypeRegistrySystem;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.world.block.BlockUri;
+import org.terasology.engine.world.block.family.BlockFamily;
+import org.terasology.module.health.events.BeforeDamagedEvent;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class DamageModifierTableTest {
+    private static final float EPSILON = 0.0001f;
+
+    private DamageTypeRegistry damageTypeRegistry;
+    private DamageModifierTable table;
+
+    @BeforeEach
+    public void setup() {
+        damageTypeRegistry = new DamageTypeRegistrySystem();
+        table = new DamageModifierTable(damageTypeRegistry);
+    }
+
+    @Test
+    public void testEmptyTableKeepsDamage() {
+        BeforeDamagedEvent event = apply(10, "fireDamage");
+
+        assertFalse(event.isConsumed());
+        assertEquals(10, event.getResultValue(), EPSILON);
+    }
+
+    @Test
+    public void testUnknownDamageType() {
+        table.addBonus("fireDamage", 5);
+        BeforeDamagedEvent event = damageEvent(10);
+        table.apply(event, DamageTypeRegistry.UNKNOWN, null);
+
+        assertEquals(10, event.getResultValue(), EPSILON);
+    }
+
+    @Test
+    public void testModifiersOnlyApplyToTheirDamageType() {
+        table.addBonus("fireDamage", 5);
+        table.addImmunity("poisonDamage");
+
+        assertEquals(10, apply(10, "physicalDamage").getResultValue(), EPSILON);
+        assertEquals(15, apply(10, "fireDamage").getResultValue(), EPSILON);
+        assertTrue(apply(10, "poisonDamage").isConsumed());
+    }
+
+    @Test
+    public void testBonusesAndResistancesStack() {
+        table.addBonus("fireDamage", 5);
+        table.addBonus("fireDamage", 3);
+        table.addResistance("fireDamage", 2);
+        table.addResistance("fireDamage", 4);
+
+        assertEquals(12, apply(10, "fireDamage").getResultValue(), EPSILON);
+    }
+
+    @Test
+    public void testResistanceNullifiesSmallerDamage() {
+        table.addResistance("fireDamage", 15);
+
+        assertEquals(0, apply(10, "fireDamage").getResultValue(), EPSILON);
+        assertEquals(0, apply(15, "fireDamage").getResultValue(), EPSILON);
+        assertEquals(5, apply(20, "fireDamage").getResultValue(), EPSILON);
+    }
+
+    @Test
+    public void testResistanceAppliesAfterBonus() {
+        table.addBonus("fireDamage", 10);
+        table.addResistance("fireDamage", 15);
+
+        assertEquals(5, apply(10, "fireDamage").getResultValue(), EPSILON);
+    }
+
+    @Test
+    public void testMultipliersApplyLast() {
+        table.addMultiplier("fireDamage", 0.5f);
+        table.addMultiplier("fireDamage", 0.5f);
+        table.addBonus("fireDamage", 10);
+        table.addResistance("fireDamage", 2);
+
+        assertEquals(7, apply(20, "fireDamage").getResultValue(), EPSILON);
+    }
+
+    @Test
+    public void testImmunityConsumesEvent() {
+        table.addBonus("fireDamage", 10);
+        table.addImmunity("fireDamage");
+
+        assertTrue(apply(10, "fireDamage").isConsumed());
+    }
+
+    @Test
+    public void testGrowsForDamageTypesRegisteredLater() {
+        for (int i = 0; i < 20; i++) {
+            damageTypeRegistry.intern("damage" + i);
+        }
+        table.addBonus("lateDamage", 1);
+        table.addMultiplier("lateDamage", 2);
+
+        assertEquals(22, apply(10, "lateDamage").getResultValue(), EPSILON);
+        assertEquals(10, apply(10, "damage19").getResultValue(), EPSILON);
+    }
+
+    @Test
+    public void testBlockImmunities() {
+        BlockFamily lava = mock(BlockFamily.class);
+        BlockFamily water = mock(BlockFamily.class);
+        table.addBlockImmunity(new BlockUri("CoreAssets:Lava"));
+        table.addBlockImmunity(new BlockUri("Missing:Block"));
+        assertTrue(table.hasBlockImmunities());
+        assertEquals(-1, table.getBlockFamilyGeneration());
+
+        Map<BlockUri, BlockFamily> families = Map.of(new BlockUri("CoreAssets:Lava"), lava,
+                new BlockUri("CoreAssets:Water"), water);
+        table.resolveBlockImmunities(families::get, 3);
+        assertEquals(3, table.getBlockFamilyGeneration());
+
+        BeforeDamagedEvent fromLava = damageEvent(10);
+        table.apply(fromLava, damageTypeRegistry.intern("fireDamage"), lava);
+        assertTrue(fromLava.isConsumed());
+
+        BeforeDamagedEvent fromWater = damageEvent(10);
+        table.apply(fromWater, damageTypeRegistry.intern("fireDamage"), water);
+        assertFalse(fromWater.isConsumed());
+        assertEquals(10, fromWater.getResultValue(), EPSILON);
+    }
+
+    @Test
+    public void testBlockImmunitiesResolvedAgain() {
+        BlockFamily lava = mock(BlockFamily.class);
+        BlockFamily reloadedLava = mock(BlockFamily.class);
+        table.addBlockImmunity(new BlockUri("CoreAssets:Lava"));
+
+        table.resolveBlockImmunities(uri -> lava, 1);
+        table.resolveBlockImmunities(uri -> reloadedLava, 2);
+
+        BeforeDamagedEvent fromOldLava = damageEvent(10);
+        table.apply(fromOldLava, DamageTypeRegistry.UNKNOWN, lava);
+        assertFalse(fromOldLava.isConsumed());
+
+        BeforeDamagedEvent fromReloadedLava = damageEvent(10);
+        table.apply(fromReloadedLava, DamageTypeRegistry.UNKNOWN, reloadedLava);
+        assertTrue(fromReloadedLava.isConsumed());
+    }
+
+    @Test
+    public void testNoBlockImmunities() {
+        assertFalse(table.hasBlockImmunities());
+
+        table.resolveBlockImmunities(uri -> mock(BlockFamily.class), 1);
+        BeforeDamagedEvent event = damageEvent(10);
+        table.apply(event, DamageTypeRegistry.UNKNOWN, mock(BlockFamily.class));
+        assertFalse(event.isConsumed());
+    }
+
+    private BeforeDamagedEvent apply(int damage, String damageType) {
+        BeforeDamagedEvent event = damageEvent(damage);
+        table.apply(event, damageTypeRegistry.intern(damageType), null);
+        return event;
+    }
+
+    private static BeforeDamagedEvent damageEvent(int damage) {
+        return new BeforeDamagedEvent(damage, null, EntityRef.NULL, EntityRef.NULL);
+    }
+}
@@ -0,0 +1,134 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.expiry;
+
+import org.junit.jupiter.api.Test;
+import org.terasology.alterationEffects.AlterationEffects;
+import org.terasology.alterationEffects.EffectRegistrySystem;
+import org.terasology.alterationEffects.EffectType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EffectExpiryKeyTest {
+    private static final String PREFIX = AlterationEffects.EXPIRE_TRIGGER_PREFIX;
+
+    @Test
+    public void testDecodeTypeOnly() {
+        EffectExpiryKey key = EffectExpiryKey.decode(PREFIX + "Stun");
+
+        assertEquals(AlterationEffects.STUN, key.getEffectType());
+        assertFalse(key.hasId());
+        assertEquals("", key.getId());
+        assertEquals("", key.getEffectId());
+        assertEquals(EffectExpiryKey.of(AlterationEffects.STUN), key);
+    }
+
+    @Test
+    public void testDecodeTypeAndSource() {
+        EffectExpiryKey key = EffectExpiryKey.decode(PREFIX + "WalkSpeed|potion");
+
+        assertEquals(AlterationEffects.WALK_SPEED, key.getEffectType());
+        assertFalse(key.hasId());
+        assertEquals("potion", key.getEffectId());
+        assertEquals(EffectExpiryKey.of(AlterationEffects.WALK_SPEED, null, "potion"), key);
+    }
+
+    @Test
+    public void testDecodeTypeIdAndSource() {
+        EffectExpiryKey key = EffectExpiryKey.decode(PREFIX + "DamageOverTime:Poison|spider");
+
+        assertEquals(AlterationEffects.DAMAGE_OVER_TIME, key.getEffectType());
+        assertTrue(key.hasId());
+        assertEquals("Poison", key.getId());
+        assertEquals("spider", key.getEffectId());
+        assertEquals(EffectExpiryKey.of(AlterationEffects.DAMAGE_OVER_TIME, "Poison", "spider"), key);
+    }
+
+    @Test
+    public void testDecodeKeepsSeparatorsInSource() {
+        EffectExpiryKey key = EffectExpiryKey.decode(PREFIX + "ResistDamage:Fire|Module:Item|2");
+
+        assertEquals(AlterationEffects.RESIST_DAMAGE, key.getEffectType());
+        assertEquals("Fire", key.getId());
+        assertEquals("Module:Item|2", key.getEffectId());
+    }
+
+    @Test
+    public void testDecodeEmptySegments() {
+        EffectExpiryKey key = EffectExpiryKey.decode(PREFIX + "MaxHealthBoost:|");
+
+        assertEquals(AlterationEffects.MAX_HEALTH_BOOST, key.getEffectType());
+        assertTrue(key.hasId());
+        assertEquals("", key.getId());
+        assertEquals(EffectExpiryKey.of(AlterationEffects.MAX_HEALTH_BOOST, "", ""), key);
+        assertNotEquals(EffectExpiryKey.of(AlterationEffects.MAX_HEALTH_BOOST), key);
+    }
+
+    @Test
+    public void testDecodeRejectsForeignActions() {
+        assertNull(EffectExpiryKey.decode(null));
+        assertNull(EffectExpiryKey.decode(""));
+        assertNull(EffectExpiryKey.decode("OtherModule:Expire:Stun"));
+        assertNull(EffectExpiryKey.decode(PREFIX));
+    }
+
+    @Test
+    public void testActionIdRoundTrip() {
+        EffectExpiryKey[] keys = {
+                EffectExpiryKey.of(AlterationEffects.STUN),
+                EffectExpiryKey.of(AlterationEffects.WALK_SPEED, null, "potion"),
+                EffectExpiryKey.of(AlterationEffects.DAMAGE_OVER_TIME, "Poison", null),
+                EffectExpiryKey.of(AlterationEffects.DAMAGE_OVER_TIME, "Poison", "spider"),
+                EffectExpiryKey.of(AlterationEffects.MAX_HEALTH_BOOST, "", "")
+        };
+        for (EffectExpiryKey key : keys) {
+            EffectExpiryKey decoded = EffectExpiryKey.decode(key.getActionId());
+            assertEquals(key, decoded);
+            assertEquals(key.hashCode(), decoded.hashCode());
+            assertEquals(key.getActionId(), decoded.getActionId());
+        }
+    }
+
+    @Test
+    public void testActionIdFormat() {
+        assertEquals(PREFIX + "DamageOverTime:Poison|spider",
+                EffectExpiryKey.of(AlterationEffects.DAMAGE_OVER_TIME, "Poison", "spider").getActionId());
+        assertEquals(PREFIX + "Stun", EffectExpiryKey.of(AlterationEffects.STUN).getActionId());
+    }
+
+    @Test
+    public void testResolveTypedAndDecodedKeys() {
+        EffectRegistrySystem registry = new EffectRegistrySystem();
+        registry.register(AlterationEffects.STUN, null, null, null);
+        EffectType type = registry.register(AlterationEffects.DAMAGE_OVER_TIME, null, null, null);
+
+        EffectExpiryKey typed = EffectExpiryKey.of(type, "Poison", "spider");
+        EffectExpiryKey decoded = EffectExpiryKey.decode(typed.getActionId());
+        assertSame(type, typed.getType());
+        assertNull(decoded.getType());
+        assertEquals(typed, decoded);
+        assertEquals(typed.hashCode(), decoded.hashCode());
+
+        assertSame(type, registry.resolve(typed));
+        assertSame(type, registry.resolve(decoded));
+        assertSame(type, decoded.withType(type).getType());
+        assertEquals(decoded, decoded.withType(type));
+    }
+
+    @Test
+    public void testResolveKeyOfAnotherRegistryByName() {
+        EffectRegistrySystem previous = new EffectRegistrySystem();
+        EffectType previousType = previous.register(AlterationEffects.STUN, null, null, null);
+
+        EffectRegistrySystem registry = new EffectRegistrySystem();
+        registry.register(AlterationEffects.WALK_SPEED, null, null, null);
+        EffectType type = registry.register(AlterationEffects.STUN, null, null, null);
+
+        assertSame(type, registry.resolve(EffectExpiryKey.of(previousType)));
+    }
+}
@@ -0,0 +1,187 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.expiry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TimingWheelTest {
+    private static final long START = 1_000;
+
+    /** The number of milliseconds covered by a single slot of the second level. */
+    private static final long LEVEL_1_SPAN = 64 * TimingWheel.TICK_MS;
+
+    /** The number of milliseconds covered by all levels of the wheel. */
+    private static final long WHEEL_SPAN = (1L << 24) * TimingWheel.TICK_MS;
+
+    private TimingWheel wheel;
+    private List<TimingWheel.Timer> expired;
+
+    @BeforeEach
+    public void setup() {
+        wheel = new TimingWheel(START);
+        expired = new ArrayList<>();
+    }
+
+    @Test
+    public void testFiresOnDeadline() {
+        TimingWheel.Timer timer = newTimer("a");
+        wheel.schedule(timer, START + 100);
+
+        wheel.advance(START + 99, expired);
+        assertTrue(expired.isEmpty());
+        assertEquals(1, wheel.size());
+
+        wheel.advance(START + 100, expired);
+        assertEquals(List.of(timer), expired);
+        assertEquals(0, wheel.size());
+        assertFalse(timer.isScheduled());
+    }
+
+    @Test
+    public void testNeverFiresEarly() {
+        TimingWheel.Timer timer = newTimer("a");
+        wheel.schedule(timer, START + 15);
+
+        wheel.advance(START + 19, expired);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(START + 20, expired);
+        assertEquals(List.of(timer), expired);
+    }
+
+    @Test
+    public void testCascadesFromSecondLevel() {
+        TimingWheel.Timer timer = newTimer("a");
+        final long deadline = START + 3 * LEVEL_1_SPAN + 50;
+        wheel.schedule(timer, deadline);
+
+        wheel.advance(deadline - TimingWheel.TICK_MS, expired);
+        assertTrue(expired.isEmpty());
+        assertTrue(timer.isScheduled());
+
+        wheel.advance(deadline, expired);
+        assertEquals(List.of(timer), expired);
+    }
+
+    @Test
+    public void testCascadesFromTopLevelInSmallSteps() {
+        TimingWheel.Timer timer = newTimer("a");
+        final long deadline = START + 5 * 64 * LEVEL_1_SPAN + 7 * LEVEL_1_SPAN + 30;
+        wheel.schedule(timer, deadline);
+
+        for (long now = START; now < deadline; now += 100) {
+            wheel.advance(now, expired);
+            assertTrue(expired.isEmpty(), "fired early at " + now);
+        }
+        wheel.advance(deadline, expired);
+        assertEquals(List.of(timer), expired);
+    }
+
+    @Test
+    public void testKeepsDeadlinesBeyondTheWheel() {
+        TimingWheel.Timer timer = newTimer("a");
+        final long deadline = START + WHEEL_SPAN + 5 * LEVEL_1_SPAN;
+        wheel.schedule(timer, deadline);
+
+        wheel.advance(START + WHEEL_SPAN, expired);
+        assertTrue(expired.isEmpty());
+        assertTrue(timer.isScheduled());
+
+        wheel.advance(deadline, expired);
+        assertEquals(List.of(timer), expired);
+    }
+
+    @Test
+    public void testFiresInOrderOfDeadline() {
+        TimingWheel.Timer late = newTimer("late");
+        TimingWheel.Timer early = newTimer("early");
+        TimingWheel.Timer middle = newTimer("middle");
+        wheel.schedule(late, START + 2 * LEVEL_1_SPAN);
+        wheel.schedule(early, START + 20);
+        wheel.schedule(middle, START + LEVEL_1_SPAN);
+
+        wheel.advance(START + 3 * LEVEL_1_SPAN, expired);
+        assertEquals(List.of(early, middle, late), expired);
+    }
+
+    @Test
+    public void testRescheduleMovesTimer() {
+        TimingWheel.Timer timer = newTimer("a");
+        wheel.schedule(timer, START + 50);
+        wheel.schedule(timer, START + 2 * LEVEL_1_SPAN);
+        assertEquals(1, wheel.size());
+
+        wheel.advance(START + LEVEL_1_SPAN, expired);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(START + 2 * LEVEL_1_SPAN, expired);
+        assertEquals(List.of(timer), expired);
+    }
+
+    @Test
+    public void testCancel() {
+        TimingWheel.Timer cancelled = newTimer("cancelled");
+        TimingWheel.Timer kept = newTimer("kept");
+        wheel.schedule(cancelled, START + LEVEL_1_SPAN);
+        wheel.schedule(kept, START + LEVEL_1_SPAN);
+
+        wheel.cancel(cancelled);
+        wheel.cancel(cancelled);
+        assertEquals(1, wheel.size());
+        assertFalse(cancelled.isScheduled());
+
+        wheel.advance(START + LEVEL_1_SPAN, expired);
+        assertEquals(List.of(kept), expired);
+    }
+
+    @Test
+    public void testPastDeadlineFiresOnNextTick() {
+        wheel.advance(START + 500, expired);
+        TimingWheel.Timer timer = newTimer("a");
+        wheel.schedule(timer, START);
+
+        wheel.advance(START + 500, expired);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(START + 500 + TimingWheel.TICK_MS, expired);
+        assertEquals(1, expired.size());
+        assertSame(timer, expired.get(0));
+        assertEquals(START, timer.deadline);
+    }
+
+    @Test
+    public void testIdleWheelFollowsTime() {
+        TimingWheel.Timer first = newTimer("first");
+        wheel.schedule(first, START + 100);
+        wheel.advance(START + 100, expired);
+        assertEquals(List.of(first), expired);
+        expired.clear();
+
+        // An hour without pending timers. The expiry system keeps advancing the empty wheel, which jumps to the time.
+        final long idleEnd = START + 100 + 3_600_000;
+        wheel.advance(idleEnd, expired);
+
+        // A deadline in the past fires on the tick after the current time, so the wheel must not lag behind.
+        TimingWheel.Timer second = newTimer("second");
+        wheel.schedule(second, START);
+        wheel.advance(idleEnd, expired);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(idleEnd + TimingWheel.TICK_MS, expired);
+        assertEquals(List.of(second), expired);
+    }
+
+    private static TimingWheel.Timer newTimer(String id) {
+        return new TimingWheel.Timer(EntityRef.NULL, EffectExpiryKey.of("test", id, null));
+    }
+}
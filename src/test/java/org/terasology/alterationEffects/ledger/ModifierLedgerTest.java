@@ -0,0 +1,156 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.alterationEffects.ledger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ModifierLedgerTest {
+    private static final float EPSILON = 0.0001f;
+
+    @Test
+    public void testEmptyLedger() {
+        ModifierLedger ledger = new ModifierLedger();
+
+        assertTrue(ledger.isEmpty());
+        assertEquals(0, ledger.getMagnitude(), EPSILON);
+        assertNull(ledger.getNextExpiringSource());
+        assertEquals(Long.MAX_VALUE, ledger.getNextExpiry());
+        assertNull(ledger.getInfiniteSource());
+    }
+
+    @Test
+    public void testMagnitudeIsSumOfContributions() {
+        ModifierLedger ledger = new ModifierLedger();
+        ledger.put("a", new ModifierContribution(2, 100));
+        ledger.put("b", new ModifierContribution(3.5f, ModifierContribution.INFINITE));
+        ledger.put("c", new ModifierContribution(-1, 50));
+
+        assertEquals(4.5f, ledger.getMagnitude(), EPSILON);
+
+        ledger.remove("b");
+        assertEquals(1, ledger.getMagnitude(), EPSILON);
+    }
+
+    @Test
+    public void testPutReplacesContribution() {
+        ModifierLedger ledger = new ModifierLedger();
+        ledger.put("a", new ModifierContribution(2, 100));
+        ledger.put("a", new ModifierContribution(5, 300));
+
+        assertEquals(5, ledger.getMagnitude(), EPSILON);
+        assertEquals(300, ledger.getNextExpiry());
+        assertEquals(1, ledger.contributions.size());
+    }
+
+    @Test
+    public void testNextExpiringSource() {
+        ModifierLedger ledger = new ModifierLedger();
+        ledger.put("late", new ModifierContribution(1, 300));
+        ledger.put("early", new ModifierContribution(1, 100));
+        ledger.put("infinite", new ModifierContribution(1, ModifierContribution.INFINITE));
+        ledger.put("middle", new ModifierContribution(1, 200));
+
+        assertEquals("early", ledger.getNextExpiringSource());
+        assertEquals(100, ledger.getNextExpiry());
+        assertEquals("infinite", ledger.getInfiniteSource());
+
+        ledger.remove("early");
+        assertEquals("middle", ledger.getNextExpiringSource());
+        assertEquals(200, ledger.getNextExpiry());
+    }
+
+    @Test
+    public void testRemoveExpired() {
+        ModifierLedger ledger = new ModifierLedger();
+        ledger.put("a", new ModifierContribution(1, 100));
+        ledger.put("b", new ModifierContribution(2, 200));
+        ledger.put("c", new ModifierContribution(4, 200));
+        ledger.put("d", new ModifierContribution(8, ModifierContribution.INFINITE));
+
+        assertFalse(ledger.removeExpired(99));
+        assertTrue(ledger.removeExpired(200));
+
+        assertEquals(8, ledger.getMagnitude(), EPSILON);
+        assertNull(ledger.getNextExpiringSource());
+        assertEquals("d", ledger.getInfiniteSource());
+        assertFalse(ledger.isEmpty());
+    }
+
+    @Test
+    public void testRemoveUnknownSource() {
+        ModifierLedger ledger = new ModifierLedger();
+        ledger.put("a", new ModifierContribution(1, 100));
+
+        ledger.remove("b");
+        assertEquals(1, ledger.getMagnitude(), EPSILON);
+        assertEquals("a", ledger.getNextExpiringSource());
+    }
+
+    @Test
+    public void testIndexesPersistedContributions() {
+        // Ledgers loaded from a save only have their contributions set.
+        ModifierLedger ledger = new ModifierLedger();
+        ledger.contributions.put("a", new ModifierContribution(1, 300));
+        ledger.contributions.put("b", new ModifierContribution(2, 100));
+        ledger.contributions.put("c", new ModifierContribution(4, ModifierContribution.INFINITE));
+
+        assertEquals(7, ledger.getMagnitude(), EPSILON);
+        assertEquals("b", ledger.getNextExpiringSource());
+        assertEquals("c", ledger.getInfiniteSource());
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        ModifierLedger ledger = new ModifierLedger();
+        ledger.put("a", new ModifierContribution(1, 100));
+        ModifierLedger copy = ledger.copy();
+
+        ledger.remove("a");
+        assertTrue(ledger.isEmpty());
+        assertEquals(1, copy.getMagnitude(), EPSILON);
+        assertEquals("a", copy.getNextExpiringSource());
+    }
+
+    @Test
+    public void testHeapOrderUnderRandomUpdates() {
+        final Random random = new Random(42);
+        ModifierLedger ledger = new ModifierLedger();
+        for (int i = 0; i < 200; i++) {
+            final String source = "source" + random.nextInt(50);
+            if (random.nextInt(4) == 0) {
+                ledger.remove(source);
+            } else {
+                ledger.put(source, new ModifierContribution(1, 1 + random.nextInt(1000)));
+            }
+            assertEquals(minimumExpiry(ledger), ledger.getNextExpiry());
+        }
+
+        // Draining the ledger yields the contributions in order of their expiry.
+        long previous = Long.MIN_VALUE;
+        while (ledger.getNextExpiringSource() != null) {
+            final long expiry = ledger.getNextExpiry();
+            assertTrue(expiry >= previous);
+            previous = expiry;
+            ledger.remove(ledger.getNextExpiringSource());
+        }
+        assertTrue(ledger.isEmpty());
+        assertEquals(0, ledger.getMagnitude(), EPSILON);
+    }
+
+    private static long minimumExpiry(ModifierLedger ledger) {
+        long minimum = Long.MAX_VALUE;
+        for (ModifierContribution contribution : ledger.contributions.values()) {
+            if (!contribution.isInfinite()) {
+                minimum = Math.min(minimum, contribution.expiresAt);
+            }
+        }
+        return minimum;
+    }
+}